@@ -0,0 +1,188 @@
+package com.jouriroosjen.hardcoreSMPPlugin.benchmarks;
+
+import com.jouriroosjen.hardcoreSMPPlugin.database.DatabaseManager;
+import com.jouriroosjen.hardcoreSMPPlugin.database.MigrationsManager;
+import com.jouriroosjen.hardcoreSMPPlugin.database.SqliteStorage;
+import com.jouriroosjen.hardcoreSMPPlugin.storage.InMemoryStorage;
+import com.jouriroosjen.hardcoreSMPPlugin.storage.Storage;
+import org.bukkit.Server;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Sets up a storage and a mocked plugin, so the managers can run outside a server.
+ * The {@code sqlite} backend is a migrated, temp-file SQLite database, the {@code memory} backend keeps everything
+ * in memory, so comparing the two separates the CPU cost of the plugin from the cost of the disk.
+ *
+ * @author Jouri Roosjen
+ * @version 1.2.1
+ */
+public final class BenchmarkFixture implements AutoCloseable {
+    private final Path dataFolder;
+    private final JavaPlugin plugin;
+    private final DatabaseManager databaseManager;
+    private final Storage storage;
+    private final UUID[] playerUuids;
+
+    /**
+     * Constructs a new {@code BenchmarkFixture} instance.
+     *
+     * @param backend The storage backend, either {@code sqlite} or {@code memory}.
+     * @param players The amount of players to insert.
+     * @param config  The config values to set, keyed by their path.
+     * @throws IOException  If the temporary data folder cannot be created.
+     * @throws SQLException If setting up the storage fails.
+     */
+    public BenchmarkFixture(String backend, int players, Map<String, Object> config) throws IOException, SQLException {
+        this.dataFolder = Files.createTempDirectory("hsmp-benchmark");
+        this.plugin = mockPlugin(config);
+        this.playerUuids = new UUID[players];
+
+        switch (backend) {
+            case "sqlite" -> {
+                this.databaseManager = new DatabaseManager(plugin);
+                databaseManager.executor.call(connection -> {
+                    new MigrationsManager(plugin, connection).migrate();
+                    return null;
+                });
+
+                this.storage = new SqliteStorage(plugin, databaseManager.executor, databaseManager.playerIdCache, databaseManager.writeQueue);
+                insertPlayers();
+            }
+            case "memory" -> {
+                this.databaseManager = null;
+                this.storage = new InMemoryStorage(plugin);
+                savePlayers();
+            }
+            default -> throw new IllegalArgumentException("Unknown storage backend: " + backend);
+        }
+    }
+
+    /**
+     * Gets the mocked plugin instance.
+     *
+     * @return The plugin.
+     */
+    public JavaPlugin getPlugin() {
+        return plugin;
+    }
+
+    /**
+     * Gets the database manager connected to the temporary database.
+     *
+     * @return The database manager, {@code null} for the {@code memory} backend.
+     */
+    public DatabaseManager getDatabaseManager() {
+        return databaseManager;
+    }
+
+    /**
+     * Gets the storage the managers should use.
+     *
+     * @return The storage.
+     */
+    public Storage getStorage() {
+        return storage;
+    }
+
+    /**
+     * Gets the unique IDs of all inserted players.
+     *
+     * @return The player UUIDs.
+     */
+    public UUID[] getPlayerUuids() {
+        return playerUuids;
+    }
+
+    /**
+     * Disconnects from the database and deletes the temporary data folder.
+     *
+     * @throws SQLException If disconnecting fails.
+     * @throws IOException  If deleting the data folder fails.
+     */
+    @Override
+    public void close() throws SQLException, IOException {
+        if (databaseManager != null) databaseManager.disconnect();
+
+        try (Stream<Path> paths = Files.walk(dataFolder)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Creates a plugin mock that reads its resources from the classpath and uses the given config.
+     *
+     * @param values The config values to set, keyed by their path.
+     * @return The mocked plugin.
+     */
+    private JavaPlugin mockPlugin(Map<String, Object> values) {
+        YamlConfiguration config = new YamlConfiguration();
+        values.forEach(config::set);
+
+        Server server = mock(Server.class);
+        doReturn(List.of()).when(server).getOnlinePlayers();
+
+        JavaPlugin mockedPlugin = mock(JavaPlugin.class);
+        when(mockedPlugin.getConfig()).thenReturn(config);
+        when(mockedPlugin.getServer()).thenReturn(server);
+        when(mockedPlugin.getDataFolder()).thenReturn(dataFolder.toFile());
+        when(mockedPlugin.getLogger()).thenReturn(Logger.getLogger("HardcoreSMPBenchmark"));
+        when(mockedPlugin.getResource(anyString())).thenAnswer(invocation ->
+                BenchmarkFixture.class.getClassLoader().getResourceAsStream(invocation.getArgument(0)));
+
+        return mockedPlugin;
+    }
+
+    /**
+     * Inserts the players the statistics refer to and caches their ids.
+     *
+     * @throws SQLException If a database error occurs.
+     */
+    private void insertPlayers() throws SQLException {
+        databaseManager.executor.call(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("INSERT INTO players (uuid, username) VALUES (?, ?)")) {
+                for (int i = 0; i < playerUuids.length; i++) {
+                    playerUuids[i] = UUID.randomUUID();
+
+                    statement.setString(1, playerUuids[i].toString());
+                    statement.setString(2, "player" + i);
+                    statement.addBatch();
+                }
+
+                statement.executeBatch();
+            }
+
+            databaseManager.playerIdCache.load(connection);
+            return null;
+        });
+    }
+
+    /**
+     * Saves the players the statistics refer to through the storage.
+     *
+     * @throws SQLException If saving a player fails.
+     */
+    private void savePlayers() throws SQLException {
+        for (int i = 0; i < playerUuids.length; i++) {
+            playerUuids[i] = UUID.randomUUID();
+            storage.await(storage.savePlayer(playerUuids[i], "player" + i));
+        }
+    }
+}
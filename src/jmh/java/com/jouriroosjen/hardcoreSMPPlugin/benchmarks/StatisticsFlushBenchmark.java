@@ -0,0 +1,79 @@
+package com.jouriroosjen.hardcoreSMPPlugin.benchmarks;
+
+import com.jouriroosjen.hardcoreSMPPlugin.enums.PlayerStatisticsEnum;
+import com.jouriroosjen.hardcoreSMPPlugin.managers.PlayerStatisticsManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of a full flush: sweeping the accumulator, journaling the deltas and writing them,
+ * together with their rollups, to the storage.
+ * Every invocation flushes one delta for every player and statistic, which is the worst case of a single cycle.
+ * Running it with a statement cache size of {@code 0} shows what re-preparing every statement costs, running it
+ * against the {@code memory} storage shows what the flush costs without SQLite.
+ *
+ * @author Jouri Roosjen
+ * @version 1.3.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class StatisticsFlushBenchmark {
+    private static final PlayerStatisticsEnum[] STATISTICS = PlayerStatisticsEnum.values();
+
+    @Param({"sqlite", "memory"})
+    public String storage;
+
+    @Param({"100"})
+    public int players;
+
+    @Param({"0", "64"})
+    public int statementCacheSize;
+
+    private BenchmarkFixture fixture;
+    private PlayerStatisticsManager manager;
+    private UUID[] playerUuids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        // Keep the writer thread parked, so every delta is flushed by the benchmark itself
+        fixture = new BenchmarkFixture(storage, players, Map.of(
+                "statistics.flush-interval.min-ms", 600000,
+                "statistics.flush-interval.max-ms", 600000,
+                "statistics.max-batch-size", players * STATISTICS.length,
+                "database.statement-cache-size", statementCacheSize
+        ));
+        manager = new PlayerStatisticsManager(fixture.getPlugin(), fixture.getStorage());
+        playerUuids = fixture.getPlayerUuids();
+
+        for (UUID playerUuid : playerUuids) {
+            manager.registerPlayer(playerUuid);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void fillAccumulator() {
+        for (UUID playerUuid : playerUuids) {
+            for (PlayerStatisticsEnum statistic : STATISTICS) {
+                manager.incrementStatistic(playerUuid, statistic, 1.0);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        manager.shutdown();
+        fixture.close();
+    }
+
+    @Benchmark
+    public int flush() {
+        return manager.flush();
+    }
+}
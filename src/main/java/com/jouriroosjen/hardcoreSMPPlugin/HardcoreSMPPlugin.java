@@ -1,13 +1,18 @@
 package com.jouriroosjen.hardcoreSMPPlugin;
 
 import com.jouriroosjen.hardcoreSMPPlugin.commands.*;
+import com.jouriroosjen.hardcoreSMPPlugin.database.DatabaseBackup;
+import com.jouriroosjen.hardcoreSMPPlugin.database.DatabaseRetention;
 import com.jouriroosjen.hardcoreSMPPlugin.database.DatabaseManager;
 import com.jouriroosjen.hardcoreSMPPlugin.database.MigrationsManager;
+import com.jouriroosjen.hardcoreSMPPlugin.database.QueryPlanVerifier;
+import com.jouriroosjen.hardcoreSMPPlugin.database.SqliteStorage;
 import com.jouriroosjen.hardcoreSMPPlugin.listeners.*;
 import com.jouriroosjen.hardcoreSMPPlugin.managers.BuybackManager;
 import com.jouriroosjen.hardcoreSMPPlugin.managers.HologramManager;
 import com.jouriroosjen.hardcoreSMPPlugin.managers.PlayerStatisticsManager;
 import com.jouriroosjen.hardcoreSMPPlugin.managers.PlaytimeManager;
+import com.jouriroosjen.hardcoreSMPPlugin.storage.Storage;
 import eu.decentsoftware.holograms.api.DecentHologramsAPI;
 import org.bukkit.Bukkit;
 import org.bukkit.event.EventHandler;
@@ -26,10 +31,13 @@ import java.sql.SQLException;
  * </p>
  *
  * @author Jouri Roosjen
- * @version 1.2.0
+ * @version 1.11.0
  */
 public final class HardcoreSMPPlugin extends JavaPlugin {
     private DatabaseManager databaseManager;
+    private DatabaseBackup databaseBackup;
+    private DatabaseRetention databaseRetention;
+    private Storage storage;
     private BuybackManager buybackManager;
     private HologramManager hologramManager;
     private PlayerStatisticsManager playerStatisticsManager;
@@ -55,19 +63,48 @@ public final class HardcoreSMPPlugin extends JavaPlugin {
         }
 
         // Run database migration
-        MigrationsManager migrationsManager = new MigrationsManager(this, databaseManager.connection);
         try {
-            migrationsManager.migrate();
+            databaseManager.executor.call(connection -> {
+                new MigrationsManager(this, connection).migrate();
+                return null;
+            });
         } catch (SQLException e) {
             getLogger().severe("[DATABASE] Failed to migrate database!");
             e.printStackTrace();
             getServer().getPluginManager().disablePlugin(this);
         }
 
+        // Load player ids
+        try {
+            databaseManager.executor.call(connection -> {
+                databaseManager.playerIdCache.load(connection);
+                return null;
+            });
+        } catch (SQLException e) {
+            getLogger().severe("[DATABASE] Failed to load player ids!");
+            e.printStackTrace();
+            getServer().getPluginManager().disablePlugin(this);
+        }
+
+        // Check that the hot lookups use an index
+        if (getConfig().getBoolean("database.verify-query-plans", true))
+            new QueryPlanVerifier(this, databaseManager.executor).verifyAsync();
+
+        // Schedule the database backups
+        databaseBackup = new DatabaseBackup(this, databaseManager.getDatabaseFile());
+        databaseBackup.startBackupTask();
+
+        // Schedule the compaction of old history
+        databaseRetention = new DatabaseRetention(this, databaseManager.executor);
+        databaseRetention.startRetentionTask();
+
+        // Setup storage
+        storage = new SqliteStorage(this, databaseManager.executor, databaseManager.playerIdCache, databaseManager.writeQueue);
+
         // Setup managers
         buybackManager = new BuybackManager(this);
-        playerStatisticsManager = new PlayerStatisticsManager(this, databaseManager.connection);
-        playtimeManager = new PlaytimeManager(this, databaseManager.connection);
+        playerStatisticsManager = new PlayerStatisticsManager(this, storage);
+        playtimeManager = new PlaytimeManager(this, storage);
 
         // Register event listeners
         playerJumpListener = new PlayerJumpListener(this, playerStatisticsManager);
@@ -93,11 +130,11 @@ public final class HardcoreSMPPlugin extends JavaPlugin {
         getServer().getPluginManager().registerEvents(new PlayerInteractListener(playerStatisticsManager), this);
         getServer().getPluginManager().registerEvents(new PlayerItemConsumeListener(playerStatisticsManager), this);
         getServer().getPluginManager().registerEvents(new PlayerItemDamageListener(playerStatisticsManager), this);
-        getServer().getPluginManager().registerEvents(new PlayerJoinListener(this, databaseManager.connection, playtimeManager), this);
+        getServer().getPluginManager().registerEvents(new PlayerJoinListener(this, storage, playtimeManager, playerStatisticsManager), this);
         getServer().getPluginManager().registerEvents(playerJumpListener, this);
         getServer().getPluginManager().registerEvents(new PlayerKickListener(playtimeManager, playerStatisticsManager), this);
         getServer().getPluginManager().registerEvents(new PlayerMoveListener(playerStatisticsManager), this);
-        getServer().getPluginManager().registerEvents(new PlayerQuitListener(playtimeManager), this);
+        getServer().getPluginManager().registerEvents(new PlayerQuitListener(playtimeManager, playerStatisticsManager), this);
         getServer().getPluginManager().registerEvents(new PlayerTeleportListener(playerStatisticsManager), this);
         getServer().getPluginManager().registerEvents(new PlayerToggleFlightListener(playerStatisticsManager), this);
         getServer().getPluginManager().registerEvents(new PlayerToggleSneakListener(playerStatisticsManager), this);
@@ -105,8 +142,10 @@ public final class HardcoreSMPPlugin extends JavaPlugin {
         getServer().getPluginManager().registerEvents(new PlayerTradeListener(playerStatisticsManager), this);
 
         // Register commands
-        getCommand("buyback").setExecutor(new BuyBackCommand(this, databaseManager.connection, buybackManager));
-        getCommand("my-debt").setExecutor(new MyDebtCommand(this, databaseManager.connection));
+        getCommand("buyback").setExecutor(new BuyBackCommand(this, storage, buybackManager));
+        getCommand("my-debt").setExecutor(new MyDebtCommand(this, storage));
+        getCommand("leaderboard").setExecutor(new LeaderboardCommand(this, playerStatisticsManager));
+        getCommand("hsmp").setExecutor(new HsmpCommand(this, databaseManager.executor, databaseBackup, databaseRetention, playerStatisticsManager));
 
         // Delay hologram features registration until DecentHolograms is loaded
         if (Bukkit.getPluginManager().isPluginEnabled("DecentHolograms")) {
@@ -137,6 +176,8 @@ public final class HardcoreSMPPlugin extends JavaPlugin {
         playtimeManager.stopPlaytimeTracker();
         playtimeManager.stopPlaytimeBackupsTask();
         playerStatisticsManager.shutdown();
+        databaseBackup.stopBackupTask();
+        databaseRetention.stopRetentionTask();
 
         // Close database connection
         try {
@@ -151,14 +192,14 @@ public final class HardcoreSMPPlugin extends JavaPlugin {
      */
     private void initHologramFeatures() {
         // Setup hologram manager
-        hologramManager = new HologramManager(DecentHologramsAPI.get(), this, databaseManager.connection);
+        hologramManager = new HologramManager(DecentHologramsAPI.get(), this, storage);
 
         // Register event listeners
-        getServer().getPluginManager().registerEvents(new PlayerDeathListener(this, databaseManager.connection, hologramManager), this);
+        getServer().getPluginManager().registerEvents(new PlayerDeathListener(this, storage, hologramManager), this);
 
         // Register commands
-        getCommand("confirm").setExecutor(new ConfirmCommand(this, databaseManager.connection, buybackManager, hologramManager));
-        getCommand("penalize").setExecutor(new PenalizeCommand(this, databaseManager.connection, hologramManager));
+        getCommand("confirm").setExecutor(new ConfirmCommand(this, storage, buybackManager, hologramManager));
+        getCommand("penalize").setExecutor(new PenalizeCommand(this, storage, hologramManager));
         getCommand("place-hologram").setExecutor(new PlaceHologramCommand(hologramManager));
     }
 }
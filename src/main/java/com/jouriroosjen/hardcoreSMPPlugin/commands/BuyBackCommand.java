@@ -1,6 +1,9 @@
 package com.jouriroosjen.hardcoreSMPPlugin.commands;
 
 import com.jouriroosjen.hardcoreSMPPlugin.managers.BuybackManager;
+import com.jouriroosjen.hardcoreSMPPlugin.storage.BuybackPrices;
+import com.jouriroosjen.hardcoreSMPPlugin.storage.Storage;
+import com.jouriroosjen.hardcoreSMPPlugin.utils.MainThreadExecutor;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.event.ClickEvent;
@@ -13,37 +16,35 @@ import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.OptionalInt;
-import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
 
 /**
  * Command executor for the {@code /buyback} command, allowing dead players to revive themselves.
+ * The buyback state is read asynchronously, the confirmation is created from the server thread once it's known.
  *
  * @author Jouri Roosjen
- * @version 1.0.0
+ * @version 1.4.0
  */
 public class BuyBackCommand implements CommandExecutor {
     private final JavaPlugin plugin;
-    private final Connection connection;
+    private final Storage storage;
     private final BuybackManager buybackManager;
+    private final Executor mainThread;
 
     /**
      * Constructs a new {@code BuyBackCommand} instance.
      *
      * @param plugin         The main plugin instance
-     * @param connection     The active database connection
+     * @param storage        The storage the buybacks are saved in
      * @param buybackManager The active buyback manager
      */
-    public BuyBackCommand(JavaPlugin plugin, Connection connection, BuybackManager buybackManager) {
+    public BuyBackCommand(JavaPlugin plugin, Storage storage, BuybackManager buybackManager) {
         this.plugin = plugin;
-        this.connection = connection;
+        this.storage = storage;
         this.buybackManager = buybackManager;
+        this.mainThread = new MainThreadExecutor(plugin);
     }
 
     /**
@@ -63,9 +64,15 @@ public class BuyBackCommand implements CommandExecutor {
         }
 
         if (args.length == 0) {
-            try {
+            storage.quoteBuyback(player.getUniqueId()).whenCompleteAsync((quote, e) -> {
+                if (e != null) {
+                    plugin.getLogger().log(Level.SEVERE, "Failed checking player " + player.getName().trim() + "!", e);
+                    player.sendMessage(Component.text("Internal database error.", NamedTextColor.RED, TextDecoration.BOLD));
+                    return;
+                }
+
                 // Check if user is really dead
-                if (!isPlayerDead(player.getUniqueId())) {
+                if (!quote.isDead()) {
                     String notDeadMessage = plugin.getConfig().getString("messages.not-dead-error", "You are not dead!");
                     TextComponent messageComponent = Component.text()
                             .content(notDeadMessage)
@@ -73,32 +80,26 @@ public class BuyBackCommand implements CommandExecutor {
                             .decorate(TextDecoration.BOLD)
                             .build();
                     player.sendMessage(messageComponent);
-                    return true;
+                    return;
                 }
-            } catch (SQLException e) {
-                plugin.getLogger().severe("Failed checking player " + player.getName().trim() + "!");
-                e.printStackTrace();
-
-                player.sendMessage(Component.text("Internal database error.", NamedTextColor.RED, TextDecoration.BOLD));
-                return false;
-            }
 
-            // Check if player has pending confirmations
-            if (buybackManager.hasPending(player.getUniqueId())) {
-                player.sendMessage(Component.text("You still have a pending confirmation!", NamedTextColor.RED));
-                return true;
-            }
+                // Check if player has pending confirmations
+                if (buybackManager.hasPending(player.getUniqueId())) {
+                    player.sendMessage(Component.text("You still have a pending confirmation!", NamedTextColor.RED));
+                    return;
+                }
 
-            // Create pending confirmation
-            buybackManager.addPending(player.getUniqueId(), player.getUniqueId(), null);
-            double price = calculatePrice(player, player.getUniqueId(), null);
-            player.sendMessage(
-                    Component.text("Deze buyback kost €" + price + " - Klik om te bevestigen! (Of gebruik /confirm)")
-                            .color(NamedTextColor.YELLOW)
-                            .decorate(TextDecoration.BOLD)
-                            .decorate(TextDecoration.UNDERLINED)
-                            .clickEvent(ClickEvent.runCommand("/confirm"))
-            );
+                // Create pending confirmation
+                buybackManager.addPending(player.getUniqueId(), player.getUniqueId(), null);
+                double price = quote.price() - quote.assistedAmount();
+                player.sendMessage(
+                        Component.text("Deze buyback kost €" + price + " - Klik om te bevestigen! (Of gebruik /confirm)")
+                                .color(NamedTextColor.YELLOW)
+                                .decorate(TextDecoration.BOLD)
+                                .decorate(TextDecoration.UNDERLINED)
+                                .clickEvent(ClickEvent.runCommand("/confirm"))
+                );
+            }, mainThread);
 
             return true;
         }
@@ -134,9 +135,15 @@ public class BuyBackCommand implements CommandExecutor {
             return false;
         }
 
-        // Check if target is really dead
-        try {
-            if (!isPlayerDead(targetPlayer.getUniqueId())) {
+        storage.quoteBuyback(targetPlayer.getUniqueId()).whenCompleteAsync((quote, e) -> {
+            if (e != null) {
+                plugin.getLogger().log(Level.SEVERE, "Failed checking player " + targetName + "!", e);
+                player.sendMessage(Component.text("Internal database error.", NamedTextColor.RED));
+                return;
+            }
+
+            // Check if target is really dead
+            if (!quote.isDead()) {
                 String notDeadMessage = plugin.getConfig().getString("messages.assist-not-dead-error", "is not dead!");
                 TextComponent messageComponent = Component.text()
                         .content(targetName)
@@ -146,181 +153,27 @@ public class BuyBackCommand implements CommandExecutor {
                         .append(Component.text(notDeadMessage, NamedTextColor.RED))
                         .build();
                 player.sendMessage(messageComponent);
-
-                return true;
-            }
-        } catch (SQLException e) {
-            plugin.getLogger().severe("Failed checking player " + targetName + "!");
-            e.printStackTrace();
-            player.sendMessage(Component.text("Internal database error.", NamedTextColor.RED));
-
-            return false;
-        }
-
-        // Check if sender has pending confirmations
-        if (buybackManager.hasPending(player.getUniqueId())) {
-            player.sendMessage(Component.text("You still have a pending confirmation!", NamedTextColor.RED));
-            return true;
-        }
-
-        // Create pending confirmation
-        buybackManager.addPending(player.getUniqueId(), targetPlayer.getUniqueId(), OptionalInt.of(percentage));
-        double price = calculatePrice(player, targetPlayer.getUniqueId(), OptionalInt.of(percentage));
-        player.sendMessage(
-                Component.text("Deze assist kost €" + price + " - Klik om te bevestigen! (Of gebruik /confirm)")
-                        .color(NamedTextColor.YELLOW)
-                        .decorate(TextDecoration.BOLD)
-                        .decorate(TextDecoration.UNDERLINED)
-                        .clickEvent(ClickEvent.runCommand("/confirm"))
-        );
-
-        return true;
-    }
-
-    /**
-     * Calculate the price to be paid
-     *
-     * @param sender     The player using the command
-     * @param playerUuid The target player
-     * @param percentage The percentage to help with
-     * @return The price or the buyback/assist
-     */
-    private double calculatePrice(Player sender, UUID playerUuid, OptionalInt percentage) {
-        try {
-            OptionalInt correspondingDeathId = getLatestDeath(playerUuid);
-            List<ConfirmCommand.BuybackAssist> allAssists = getAllAssists(correspondingDeathId.getAsInt());
-            double totalAssistedAmount = getTotalAssistedAmount(allAssists);
-            int buybackPrice = getBuybackPrice(playerUuid);
-
-            if (percentage == null) return buybackPrice - totalAssistedAmount;
-
-            return calculateAssistAmount(percentage.getAsInt(), buybackPrice);
-        } catch (SQLException e) {
-            plugin.getLogger().severe("Failed calculating buyback price for " + playerUuid.toString() + "!");
-            e.printStackTrace();
-
-            sender.sendMessage(Component.text("Internal database error.", NamedTextColor.RED));
-            return 0;
-        }
-    }
-
-    /**
-     * Checks if the player is currently marked as dead in the database.
-     *
-     * @param playerUuid The UUID of the player
-     * @return {@code true} if the player is dead, {@code false} if alive
-     * @throws SQLException If a database access error occurs
-     */
-    private boolean isPlayerDead(UUID playerUuid) throws SQLException {
-        try (PreparedStatement statement = connection.prepareStatement("SELECT is_alive FROM players WHERE uuid = ?")) {
-            statement.setString(1, playerUuid.toString());
-
-            try (ResultSet resultSet = statement.executeQuery()) {
-                return resultSet.next() && resultSet.getInt("is_alive") == 0;
+                return;
             }
-        }
-    }
-
-    /**
-     * Get the current buyback price for the given player.
-     *
-     * @param playerUuid The player's UUID
-     * @return The buyback price
-     * @throws SQLException If a database error occurs
-     */
-    private int getBuybackPrice(UUID playerUuid) throws SQLException {
-        try (PreparedStatement statement = connection.prepareStatement("""
-                        SELECT (has_grace)
-                        FROM players
-                        WHERE uuid = ?
-                """)) {
-            statement.setString(1, playerUuid.toString());
-
-            try (ResultSet resultSet = statement.executeQuery()) {
-                if (resultSet.next() && resultSet.getBoolean("has_grace")) {
-                    return plugin.getConfig().getInt("piggy-bank-amounts.grace-period-death", 5);
-                }
-            }
-        }
-
-        return plugin.getConfig().getInt("piggy-bank-amounts.normal-death", 10);
-    }
 
-    /**
-     * Get the ID of the player's last death.
-     *
-     * @param playerUuid The player of which the death ID should be.
-     * @return An optional filled with the deathId if found, otherwise empty.
-     * @throws SQLException If a database error occurs.
-     */
-    private OptionalInt getLatestDeath(UUID playerUuid) throws SQLException {
-        try (PreparedStatement statement = connection.prepareStatement("""
-                SELECT (id) FROM deaths
-                WHERE player_uuid = ?
-                ORDER BY datetime(created_at) DESC
-                LIMIT 1
-                """)) {
-            statement.setString(1, playerUuid.toString());
-
-            try (ResultSet resultSet = statement.executeQuery()) {
-                if (resultSet.next()) {
-                    return OptionalInt.of(resultSet.getInt("id"));
-                }
-            }
-        }
-        return OptionalInt.empty();
-    }
-
-    /**
-     * Gets all assists for a given death
-     *
-     * @param deathId The corresponding deathId.
-     * @return A list containing all the assists.
-     * @throws SQLException If a database error occurs.
-     */
-    private List<ConfirmCommand.BuybackAssist> getAllAssists(int deathId) throws SQLException {
-        List<ConfirmCommand.BuybackAssist> assists = new ArrayList<>();
-        try (PreparedStatement statement = connection.prepareStatement("""
-                SELECT giving_player_uuid, amount
-                FROM buyback_assists
-                WHERE receiving_player_death_id = ?
-                """)) {
-            statement.setInt(1, deathId);
-
-            try (ResultSet resultSet = statement.executeQuery()) {
-                while (resultSet.next()) {
-                    UUID givingPlayer = UUID.fromString(resultSet.getString("giving_player_uuid"));
-                    double amount = resultSet.getDouble("amount");
-
-                    assists.add(new ConfirmCommand.BuybackAssist(givingPlayer, amount));
-                }
+            // Check if sender has pending confirmations
+            if (buybackManager.hasPending(player.getUniqueId())) {
+                player.sendMessage(Component.text("You still have a pending confirmation!", NamedTextColor.RED));
+                return;
             }
-        }
-        return assists;
-    }
 
-    /**
-     * Get total assisted amount of the given assists list.
-     *
-     * @param assists A list containing all the assists to count up.
-     * @return The total assisted amount.
-     */
-    private double getTotalAssistedAmount(List<ConfirmCommand.BuybackAssist> assists) {
-        double total = 0;
-        for (ConfirmCommand.BuybackAssist assist : assists) {
-            total += assist.amount();
-        }
-        return total;
-    }
+            // Create pending confirmation
+            buybackManager.addPending(player.getUniqueId(), targetPlayer.getUniqueId(), OptionalInt.of(percentage));
+            double price = BuybackPrices.calculateAssistAmount(percentage, quote.price());
+            player.sendMessage(
+                    Component.text("Deze assist kost €" + price + " - Klik om te bevestigen! (Of gebruik /confirm)")
+                            .color(NamedTextColor.YELLOW)
+                            .decorate(TextDecoration.BOLD)
+                            .decorate(TextDecoration.UNDERLINED)
+                            .clickEvent(ClickEvent.runCommand("/confirm"))
+            );
+        }, mainThread);
 
-    /**
-     * Calculate the amount to assist based on the percentage.
-     *
-     * @param assistPercentage The percentage to assist the buyback with.
-     * @param buybackAmount    The price of the buyback
-     * @return The amount that is being assisted.
-     */
-    private double calculateAssistAmount(int assistPercentage, int buybackAmount) {
-        return buybackAmount * (assistPercentage / 100.0);
+        return true;
     }
 }
@@ -0,0 +1,268 @@
+package com.jouriroosjen.hardcoreSMPPlugin.commands;
+
+import com.jouriroosjen.hardcoreSMPPlugin.database.DatabaseBackup;
+import com.jouriroosjen.hardcoreSMPPlugin.database.DatabaseExecutor;
+import com.jouriroosjen.hardcoreSMPPlugin.database.DatabaseHealth;
+import com.jouriroosjen.hardcoreSMPPlugin.database.DatabaseRetention;
+import com.jouriroosjen.hardcoreSMPPlugin.database.StatementMetrics;
+import com.jouriroosjen.hardcoreSMPPlugin.managers.PlayerStatisticsManager;
+import com.jouriroosjen.hardcoreSMPPlugin.statistics.StatisticsHealth;
+import com.jouriroosjen.hardcoreSMPPlugin.utils.MainThreadExecutor;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabExecutor;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+
+/**
+ * Command executor for the {@code /hsmp} admin command.
+ *
+ * @author Jouri Roosjen
+ * @version 1.5.0
+ */
+public class HsmpCommand implements CommandExecutor, TabExecutor {
+    private static final List<String> SUBCOMMANDS = List.of("stats-health", "db-health", "db-statements", "backup", "compact", "enable-incremental-vacuum");
+    private static final List<String> RESETTABLE_SUBCOMMANDS = List.of("stats-health", "db-health", "db-statements");
+    private static final int SHOWN_STATEMENTS = 8;
+    private static final int MAX_SHOWN_SQL_LENGTH = 80;
+
+    private final JavaPlugin plugin;
+    private final DatabaseExecutor databaseExecutor;
+    private final DatabaseBackup databaseBackup;
+    private final DatabaseRetention databaseRetention;
+    private final PlayerStatisticsManager playerStatisticsManager;
+    private final Executor mainThread;
+
+    /**
+     * Constructs a new {@code HsmpCommand} instance.
+     *
+     * @param plugin                  The main plugin instance
+     * @param databaseExecutor        The database executor instance
+     * @param databaseBackup          The database backup instance
+     * @param databaseRetention       The database retention instance
+     * @param playerStatisticsManager The player statistics manager instance
+     */
+    public HsmpCommand(JavaPlugin plugin, DatabaseExecutor databaseExecutor, DatabaseBackup databaseBackup, DatabaseRetention databaseRetention, PlayerStatisticsManager playerStatisticsManager) {
+        this.plugin = plugin;
+        this.databaseExecutor = databaseExecutor;
+        this.databaseBackup = databaseBackup;
+        this.databaseRetention = databaseRetention;
+        this.playerStatisticsManager = playerStatisticsManager;
+        this.mainThread = new MainThreadExecutor(plugin);
+    }
+
+    /**
+     * Executes the hsmp command logic when an admin runs it.
+     *
+     * @param sender  The source of the command
+     * @param command The command that was executed
+     * @param label   The alias used
+     * @param args    The command arguments
+     * @return {@code true} if the command was handled, {@code false} otherwise
+     */
+    @Override
+    public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String @NotNull [] args) {
+        if (!sender.isOp()) {
+            sender.sendMessage(Component.text("Only OP's are allowed to run this command!", NamedTextColor.RED));
+            return true;
+        }
+
+        if (args.length == 0) return false;
+
+        switch (args[0].toLowerCase()) {
+            case "stats-health" -> {
+                if (args.length == 2 && args[1].equalsIgnoreCase("reset")) {
+                    playerStatisticsManager.resetHealth();
+                    sender.sendMessage(Component.text("Statistics health metrics have been reset.", NamedTextColor.GREEN));
+                    return true;
+                }
+
+                sendStatisticsHealth(sender, playerStatisticsManager.getHealth());
+                return true;
+            }
+            case "db-health" -> {
+                if (args.length == 2 && args[1].equalsIgnoreCase("reset")) {
+                    databaseExecutor.resetHealth();
+                    sender.sendMessage(Component.text("Database health metrics have been reset.", NamedTextColor.GREEN));
+                    return true;
+                }
+
+                sendDatabaseHealth(sender, databaseExecutor.getHealth());
+                return true;
+            }
+            case "db-statements" -> {
+                if (args.length == 2 && args[1].equalsIgnoreCase("reset")) {
+                    databaseExecutor.getStatementMetrics().reset();
+                    sender.sendMessage(Component.text("Statement metrics have been reset.", NamedTextColor.GREEN));
+                    return true;
+                }
+
+                sendStatementMetrics(sender, databaseExecutor.getStatementMetrics());
+                return true;
+            }
+            case "backup" -> {
+                sender.sendMessage(Component.text("Backing up the database...", NamedTextColor.GRAY));
+                databaseBackup.backupAsync().whenCompleteAsync((result, e) -> {
+                    if (e != null) {
+                        plugin.getLogger().log(Level.SEVERE, "[DATABASE] Backup failed!", e);
+                        sender.sendMessage(Component.text("Backup failed: " + e.getMessage(), NamedTextColor.RED));
+                        return;
+                    }
+
+                    sender.sendMessage(Component.text("Database backup", NamedTextColor.GOLD, TextDecoration.BOLD));
+                    sendMetric(sender, "Snapshot", result.snapshot().getName());
+                    sendMetric(sender, "Copied", result.pages() + " pages in " + result.steps() + " steps, " + result.durationMillis() + "ms");
+                    sendMetric(sender, "Rotated out", result.deletedSnapshots() + " snapshots");
+                }, mainThread);
+                return true;
+            }
+            case "compact" -> {
+                sender.sendMessage(Component.text("Compacting the database...", NamedTextColor.GRAY));
+                databaseRetention.compactAsync().whenCompleteAsync((result, e) -> {
+                    if (e != null) {
+                        plugin.getLogger().log(Level.SEVERE, "[DATABASE] Compaction failed!", e);
+                        sender.sendMessage(Component.text("Compaction failed: " + e.getMessage(), NamedTextColor.RED));
+                        return;
+                    }
+
+                    sender.sendMessage(Component.text("Database compaction", NamedTextColor.GOLD, TextDecoration.BOLD));
+                    sendMetric(sender, "Summarized", result.summarizedSessions() + " sessions, " + result.summarizedPiggyBank() + " piggy bank entries");
+                    sendMetric(sender, "Deleted", result.deletedPenalties() + " penalties, " + result.deletedDeaths() + " deaths");
+                    sendMetric(sender, "Vacuumed", result.vacuumedPages() + " pages in " + result.durationMillis() + "ms");
+                }, mainThread);
+                return true;
+            }
+            case "enable-incremental-vacuum" -> {
+                sender.sendMessage(Component.text("Rewriting the database, writes wait until it's done...", NamedTextColor.GRAY));
+                databaseRetention.enableIncrementalVacuumAsync().whenCompleteAsync((switched, e) -> {
+                    if (e != null) {
+                        plugin.getLogger().log(Level.SEVERE, "[DATABASE] Switching to incremental auto vacuum failed!", e);
+                        sender.sendMessage(Component.text("Switching to incremental auto vacuum failed: " + e.getMessage(), NamedTextColor.RED));
+                        return;
+                    }
+
+                    sender.sendMessage(Component.text(switched
+                            ? "The database now returns freed pages to the file system."
+                            : "The database already returns freed pages to the file system.", NamedTextColor.GREEN));
+                }, mainThread);
+                return true;
+            }
+            default -> {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Executes the tab completion logic for the command.
+     *
+     * @param sender  The source of the command.
+     * @param command The command that was executed.
+     * @param label   The alias used.
+     * @param args    The command arguments.
+     * @return A {@code List<String>} containing the possible options.
+     */
+    @Override
+    public @Nullable List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String @NotNull [] args) {
+        List<String> completions = new ArrayList<>();
+
+        if (args.length == 1) {
+            for (String subcommand : SUBCOMMANDS) {
+                if (subcommand.startsWith(args[0].toLowerCase())) completions.add(subcommand);
+            }
+        } else if (args.length == 2 && RESETTABLE_SUBCOMMANDS.contains(args[0].toLowerCase())) {
+            completions.add("reset");
+        }
+
+        return completions;
+    }
+
+    /**
+     * Sends the statistics pipeline health to the sender.
+     *
+     * @param sender The sender to inform.
+     * @param health The health snapshot to show.
+     */
+    private void sendStatisticsHealth(CommandSender sender, StatisticsHealth health) {
+        sender.sendMessage(Component.text("Statistics pipeline health", NamedTextColor.GOLD, TextDecoration.BOLD));
+
+        sendMetric(sender, "Queue", health.queueDepth() + "/" + health.queueCapacity() + " (high-water mark " + health.queueHighWaterMark() + ")");
+        sendMetric(sender, "Jobs", health.processedJobs() + " processed, " + health.droppedJobs() + " dropped, " + health.overflowedJobs() + " overflowed");
+        sendMetric(sender, "Batch size", "p50 " + health.batchSizeP50() + ", p99 " + health.batchSizeP99() + ", max " + health.batchSizeMax()
+                + " over " + health.batches() + " batches");
+        sendMetric(sender, "Flush latency", String.format("p50 %.1fms, p95 %.1fms, p99 %.1fms, max %.1fms",
+                health.flushLatencyP50Millis(), health.flushLatencyP95Millis(), health.flushLatencyP99Millis(), health.flushLatencyMaxMillis()));
+        sendMetric(sender, "Last commit", health.millisSinceLastCommit() < 0 ? "never" : health.millisSinceLastCommit() + "ms ago");
+        sendMetric(sender, "Flush interval", health.flushIntervalMillis() + "ms");
+    }
+
+    /**
+     * Sends the read/write split of the database to the sender.
+     *
+     * @param sender The sender to inform.
+     * @param health The health snapshot to show.
+     */
+    private void sendDatabaseHealth(CommandSender sender, DatabaseHealth health) {
+        sender.sendMessage(Component.text("Database health", NamedTextColor.GOLD, TextDecoration.BOLD));
+
+        sendMetric(sender, "Queues", health.readQueueDepth() + " reads, " + health.writeQueueDepth() + " writes waiting");
+        sendMetric(sender, "Reads", String.format("%d on %d connections, p50 %.1fms, p99 %.1fms, max %.1fms",
+                health.reads(), health.readConnections(), health.readP50Millis(), health.readP99Millis(), health.readMaxMillis()));
+        sendMetric(sender, "Writes", String.format("%d, p50 %.1fms, p99 %.1fms, max %.1fms",
+                health.writes(), health.writeP50Millis(), health.writeP99Millis(), health.writeMaxMillis()));
+        sendMetric(sender, "Statements", String.format("%d cached, %d prepared (%.0f%% hit rate)",
+                health.statementHits(), health.statementMisses(), health.statementHitRate() * 100));
+    }
+
+    /**
+     * Sends the slowest statements and the server thread waits to the sender.
+     *
+     * @param sender  The sender to inform.
+     * @param metrics The statement metrics to show.
+     */
+    private void sendStatementMetrics(CommandSender sender, StatementMetrics metrics) {
+        sender.sendMessage(Component.text("Slowest database statements", NamedTextColor.GOLD, TextDecoration.BOLD));
+
+        sendMetric(sender, "Server thread waits", String.format("%d, max %.1fms",
+                metrics.getServerThreadWaits(), metrics.getServerThreadWaitMaxMillis()));
+
+        List<StatementMetrics.StatementStats> statements = metrics.getSlowestStatements(SHOWN_STATEMENTS);
+        if (statements.isEmpty()) {
+            sender.sendMessage(Component.text("No statements have run yet.", NamedTextColor.GRAY));
+            return;
+        }
+
+        for (StatementMetrics.StatementStats statement : statements) {
+            String sql = statement.sql().length() > MAX_SHOWN_SQL_LENGTH
+                    ? statement.sql().substring(0, MAX_SHOWN_SQL_LENGTH) + "..."
+                    : statement.sql();
+
+            sendMetric(sender, sql, String.format("%d calls, p50 %.1fms, p99 %.1fms, max %.1fms",
+                    statement.calls(), statement.p50Millis(), statement.p99Millis(), statement.maxMillis()));
+        }
+    }
+
+    /**
+     * Sends a single labelled metric line to the sender.
+     *
+     * @param sender The sender to inform.
+     * @param label  The name of the metric.
+     * @param value  The formatted value of the metric.
+     */
+    private void sendMetric(CommandSender sender, String label, String value) {
+        sender.sendMessage(Component.text()
+                .append(Component.text(label + ": ", NamedTextColor.GRAY))
+                .append(Component.text(value, NamedTextColor.WHITE))
+                .build());
+    }
+}
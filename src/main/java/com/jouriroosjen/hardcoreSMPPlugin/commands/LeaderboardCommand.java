@@ -0,0 +1,143 @@
+package com.jouriroosjen.hardcoreSMPPlugin.commands;
+
+import com.jouriroosjen.hardcoreSMPPlugin.enums.PlayerStatisticsEnum;
+import com.jouriroosjen.hardcoreSMPPlugin.managers.PlayerStatisticsManager;
+import com.jouriroosjen.hardcoreSMPPlugin.statistics.StatisticsLeaderboard;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabExecutor;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Command executor for the {@code /leaderboard} command, showing the top players of a statistic.
+ *
+ * @author Jouri Roosjen
+ * @version 1.1.0
+ */
+public class LeaderboardCommand implements CommandExecutor, TabExecutor {
+    private final JavaPlugin plugin;
+    private final PlayerStatisticsManager playerStatisticsManager;
+
+    /**
+     * Constructs a new {@code LeaderboardCommand} instance.
+     *
+     * @param plugin                  The main plugin instance
+     * @param playerStatisticsManager The player statistics manager instance
+     */
+    public LeaderboardCommand(JavaPlugin plugin, PlayerStatisticsManager playerStatisticsManager) {
+        this.plugin = plugin;
+        this.playerStatisticsManager = playerStatisticsManager;
+    }
+
+    /**
+     * Executes the leaderboard command logic when a player runs it.
+     *
+     * @param sender  The source of the command
+     * @param command The command that was executed
+     * @param label   The alias used
+     * @param args    The command arguments
+     * @return {@code true} if the command was handled, {@code false} otherwise
+     */
+    @Override
+    public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String @NotNull [] args) {
+        if (args.length != 1) return false;
+
+        PlayerStatisticsEnum statistic = findStatistic(args[0]);
+        if (statistic == null) {
+            String message = plugin.getConfig().getString("messages.leaderboard-unknown-statistic", "Unknown statistic: %statistic%")
+                    .replace("%statistic%", args[0]);
+            sender.sendMessage(Component.text(message, NamedTextColor.RED));
+            return true;
+        }
+
+        List<StatisticsLeaderboard.Entry> entries = playerStatisticsManager.getLeaderboard(statistic);
+        if (entries.isEmpty()) {
+            String message = plugin.getConfig().getString("messages.leaderboard-empty", "Nobody has a score for %statistic% yet!")
+                    .replace("%statistic%", getDisplayName(statistic));
+            sender.sendMessage(Component.text(message, NamedTextColor.RED));
+            return true;
+        }
+
+        String header = plugin.getConfig().getString("messages.leaderboard", "Top %amount% %statistic%:")
+                .replace("%amount%", String.valueOf(entries.size()))
+                .replace("%statistic%", getDisplayName(statistic));
+        sender.sendMessage(Component.text(header, NamedTextColor.GOLD, TextDecoration.BOLD));
+
+        for (int i = 0; i < entries.size(); i++) {
+            StatisticsLeaderboard.Entry entry = entries.get(i);
+
+            sender.sendMessage(Component.text()
+                    .append(Component.text((i + 1) + ". ", NamedTextColor.GRAY))
+                    .append(Component.text(getPlayerName(entry.playerUuid()), NamedTextColor.WHITE))
+                    .append(Component.text(" - " + Math.round(entry.value()), NamedTextColor.YELLOW))
+                    .build());
+        }
+
+        return true;
+    }
+
+    /**
+     * Executes the tab completion logic for the command.
+     *
+     * @param sender  The source of the command.
+     * @param command The command that was executed.
+     * @param label   The alias used.
+     * @param args    The command arguments.
+     * @return A {@code List<String>} containing the possible options.
+     */
+    @Override
+    public @Nullable List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String @NotNull [] args) {
+        List<String> completions = new ArrayList<>();
+        if (args.length != 1) return completions;
+
+        for (PlayerStatisticsEnum statistic : PlayerStatisticsEnum.values()) {
+            if (statistic.name().startsWith(args[0].toUpperCase())) completions.add(statistic.name());
+        }
+        return completions;
+    }
+
+    /**
+     * Finds the statistic matching the given name, ignoring case.
+     *
+     * @param name The name of the statistic.
+     * @return The matching statistic, or {@code null} if none exists.
+     */
+    private PlayerStatisticsEnum findStatistic(String name) {
+        for (PlayerStatisticsEnum statistic : PlayerStatisticsEnum.values()) {
+            if (statistic.name().equalsIgnoreCase(name)) return statistic;
+        }
+        return null;
+    }
+
+    /**
+     * Gets a readable name for a statistic, e.g. {@code Players killed} for {@code PLAYERS_KILLED}.
+     *
+     * @param statistic The statistic.
+     * @return The readable name of the statistic.
+     */
+    private String getDisplayName(PlayerStatisticsEnum statistic) {
+        String name = statistic.name().replace('_', ' ').toLowerCase();
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * Gets the last known name of a player.
+     *
+     * @param playerUuid The UUID of the player.
+     * @return The name of the player, or their UUID if the server doesn't know it.
+     */
+    private String getPlayerName(UUID playerUuid) {
+        String name = plugin.getServer().getOfflinePlayer(playerUuid).getName();
+        return name != null ? name : playerUuid.toString();
+    }
+}
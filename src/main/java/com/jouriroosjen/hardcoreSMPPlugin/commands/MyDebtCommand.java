@@ -1,5 +1,7 @@
 package com.jouriroosjen.hardcoreSMPPlugin.commands;
 
+import com.jouriroosjen.hardcoreSMPPlugin.storage.Storage;
+import com.jouriroosjen.hardcoreSMPPlugin.utils.MainThreadExecutor;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
@@ -10,31 +12,31 @@ import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
 
 /**
  * Command executor for the {@code /my-debt} command, allowing players to see their debt.
+ * The debt is read asynchronously, the message is sent from the server thread once it's known.
  *
  * @author Jouri Roosjen
- * @version 1.0.0
+ * @version 1.4.0
  */
 public class MyDebtCommand implements CommandExecutor {
     private final JavaPlugin plugin;
-    private final Connection connection;
+    private final Storage storage;
+    private final Executor mainThread;
 
     /**
      * Constructs a new {@code MyDebtCommand} instance.
      *
-     * @param plugin     The main plugin instance
-     * @param connection The active database connection
+     * @param plugin  The main plugin instance
+     * @param storage The storage the piggy bank is saved in
      */
-    public MyDebtCommand(JavaPlugin plugin, Connection connection) {
+    public MyDebtCommand(JavaPlugin plugin, Storage storage) {
         this.plugin = plugin;
-        this.connection = connection;
+        this.storage = storage;
+        this.mainThread = new MainThreadExecutor(plugin);
     }
 
     /**
@@ -53,47 +55,20 @@ public class MyDebtCommand implements CommandExecutor {
             return true;
         }
 
-        try {
-            UUID playerUuid = player.getUniqueId();
-            double totalDebt = getTotalDebt(playerUuid);
+        storage.getTotalDebt(player.getUniqueId()).whenCompleteAsync((totalDebt, e) -> {
+            if (e != null) {
+                plugin.getLogger().log(Level.SEVERE, "Failed getting total debt for player: " + player.getName(), e);
+                player.sendMessage(Component.text("Internal database error.", NamedTextColor.RED, TextDecoration.BOLD));
+                return;
+            }
 
             String debtMessage = plugin.getConfig().getString("messages.debt", "You have a debt of €%amount%!")
                     .replace("%amount%", String.valueOf(totalDebt));
             Component messageComponent = Component.text(debtMessage, NamedTextColor.BLUE);
 
             player.sendMessage(messageComponent);
-            return true;
-        } catch (SQLException e) {
-            plugin.getLogger().severe("Failed getting total debt for player: " + player.getName());
-            e.printStackTrace();
-
-            player.sendMessage(Component.text("Internal database error.", NamedTextColor.RED, TextDecoration.BOLD));
-            return false;
-        }
-    }
-
-    /**
-     * Get the total debt for the given player
-     *
-     * @param playerUuid The player's UUID
-     * @return The total debt of a player
-     * @throws SQLException If a database error occurs
-     */
-    private double getTotalDebt(UUID playerUuid) throws SQLException {
-        try (PreparedStatement statement = connection.prepareStatement("""
-                SELECT SUM(amount) AS total_debt
-                FROM piggy_bank
-                WHERE player_uuid = ?
-                """)) {
-            statement.setString(1, playerUuid.toString());
-
-            try (ResultSet resultSet = statement.executeQuery()) {
-                if (resultSet.next()) {
-                    return resultSet.getDouble("total_debt");
-                }
-            }
-        }
+        }, mainThread);
 
-        return 0;
+        return true;
     }
 }
@@ -2,6 +2,8 @@ package com.jouriroosjen.hardcoreSMPPlugin.commands;
 
 import com.jouriroosjen.hardcoreSMPPlugin.enums.HologramEnum;
 import com.jouriroosjen.hardcoreSMPPlugin.managers.HologramManager;
+import com.jouriroosjen.hardcoreSMPPlugin.storage.Storage;
+import com.jouriroosjen.hardcoreSMPPlugin.utils.MainThreadExecutor;
 import com.jouriroosjen.hardcoreSMPPlugin.utils.PlayerAvatarUtil;
 import github.scarsz.discordsrv.DiscordSRV;
 import github.scarsz.discordsrv.dependencies.jda.api.EmbedBuilder;
@@ -18,34 +20,36 @@ import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 
 import java.awt.*;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
 import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
 
 /**
  * A command executor for the `/penalize` command.
  * This command allows server operators (OPs) to issue a monetary penalty to a player for a given reason.
+ * The penalty is saved asynchronously and only announced once it's stored.
  *
  * @author Jouri Roosjen
- * @version 1.0.0
+ * @version 1.4.0
  */
 public class PenalizeCommand implements CommandExecutor {
     private final JavaPlugin plugin;
-    private final Connection connection;
+    private final Storage storage;
     private final HologramManager hologramManager;
+    private final Executor mainThread;
 
     /**
      * Constructs a new {@code PenalizeCommand} instance.
      *
      * @param plugin          The main plugin instance
-     * @param connection      The SQL connection used for database operations
+     * @param storage         The storage the penalties are saved in
      * @param hologramManager The HologramManager instance
      */
-    public PenalizeCommand(JavaPlugin plugin, Connection connection, HologramManager hologramManager) {
+    public PenalizeCommand(JavaPlugin plugin, Storage storage, HologramManager hologramManager) {
         this.plugin = plugin;
-        this.connection = connection;
+        this.storage = storage;
         this.hologramManager = hologramManager;
+        this.mainThread = new MainThreadExecutor(plugin);
     }
 
     /**
@@ -82,18 +86,28 @@ public class PenalizeCommand implements CommandExecutor {
 
         String penaltyReason = String.join(" ", Arrays.copyOfRange(args, 2, args.length));
 
-        try {
-            addPenalty(targetPlayer, penaltyAmount, penaltyReason);
-            addToPiggyBank(targetPlayer, penaltyAmount);
+        storage.createPenalty(targetPlayer.getUniqueId(), penaltyAmount, penaltyReason).whenCompleteAsync((result, e) -> {
+            if (e != null) {
+                plugin.getLogger().log(Level.SEVERE, "Failed creating penalty!", e);
+                sender.sendMessage(Component.text("Internal database error.", NamedTextColor.RED, TextDecoration.BOLD));
+                return;
+            }
+
             hologramManager.updateHologram(HologramEnum.PIGGY_BANK);
-        } catch (SQLException e) {
-            plugin.getLogger().severe("Failed creating penalty!");
-            e.printStackTrace();
+            announcePenalty(targetPlayer, penaltyAmount, penaltyReason);
+        }, mainThread);
 
-            sender.sendMessage(Component.text("Internal database error.", NamedTextColor.RED, TextDecoration.BOLD));
-            return false;
-        }
+        return true;
+    }
 
+    /**
+     * Announces a penalty in-game and on Discord.
+     *
+     * @param targetPlayer  The player receiving the penalty
+     * @param penaltyAmount The amount of the penalty
+     * @param penaltyReason The reason for the penalty
+     */
+    private void announcePenalty(Player targetPlayer, double penaltyAmount, String penaltyReason) {
         // Construct penalty message
         String penaltyMessage = plugin.getConfig().getString("messages.penalty-given", "%player% got a penalty of %amount% for: %reason%!")
                 .replace("%player%", targetPlayer.getName())
@@ -116,7 +130,7 @@ public class PenalizeCommand implements CommandExecutor {
 
         if (discordChannel == null) {
             plugin.getLogger().warning("DiscordSRV: channel not found!");
-            return true;
+            return;
         }
 
         // Set up Discord embed message
@@ -129,45 +143,5 @@ public class PenalizeCommand implements CommandExecutor {
         // Send Discord messages
         discordChannel.sendMessage("||@everyone||").queue();
         discordChannel.sendMessageEmbeds(embed.build()).queue();
-
-        return true;
-    }
-
-    /**
-     * Inserts a penalty record for a player into the `penalties` database table.
-     *
-     * @param targetPlayer  The player receiving the penalty
-     * @param penaltyAmount The amount of the penalty
-     * @param reason        The reason for the penalty
-     * @throws SQLException If a database error occurs
-     */
-    private void addPenalty(Player targetPlayer, double penaltyAmount, String reason) throws SQLException {
-        try (PreparedStatement statement = connection.prepareStatement("""
-                INSERT INTO penalties (player_uuid, reason, amount)
-                VALUES (?, ?, ?)
-                """)) {
-            statement.setString(1, targetPlayer.getUniqueId().toString());
-            statement.setString(2, reason);
-            statement.setDouble(3, penaltyAmount);
-            statement.execute();
-        }
-    }
-
-    /**
-     * Credits the penalty amount to the player's piggy bank as a penalty entry.
-     *
-     * @param targetPlayer  The player whose piggy bank is credited
-     * @param penaltyAmount The amount added to the piggy bank
-     * @throws SQLException If a database error occurs
-     */
-    private void addToPiggyBank(Player targetPlayer, double penaltyAmount) throws SQLException {
-        try (PreparedStatement statement = connection.prepareStatement("""
-                INSERT INTO piggy_bank (player_uuid, amount, is_penalty)
-                VALUES (?, ?, 1)
-                """)) {
-            statement.setString(1, targetPlayer.getUniqueId().toString());
-            statement.setDouble(2, penaltyAmount);
-            statement.execute();
-        }
     }
 }
@@ -0,0 +1,191 @@
+package com.jouriroosjen.hardcoreSMPPlugin.database;
+
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.SQLiteErrorCode;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Takes hot snapshots of the database with SQLite's online backup API and keeps the latest few.
+ * <p>
+ * The backup copies a limited amount of pages per step on its own connection, so every step only holds a
+ * short read transaction and the writer keeps going. If the writer changes the database between steps,
+ * SQLite restarts the copy, so the snapshot is always consistent. A snapshot is written to a temporary file
+ * first and only renamed once it's complete, a crash never leaves a torn snapshot behind.
+ * </p>
+ *
+ * @author Jouri Roosjen
+ * @version 1.0.0
+ */
+public class DatabaseBackup {
+    private static final String SNAPSHOT_PREFIX = "database-";
+    private static final String SNAPSHOT_SUFFIX = ".db";
+    private static final DateTimeFormatter SNAPSHOT_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static final int DEFAULT_INTERVAL_MINUTES = 360;
+    private static final int DEFAULT_KEEP = 5;
+    private static final int DEFAULT_PAGES_PER_STEP = 1000;
+    private static final int BUSY_SLEEP_MILLIS = 100;
+    private static final int BUSY_RETRIES = 50;
+
+    private final JavaPlugin plugin;
+    private final File databaseFile;
+    private final File backupFolder;
+    private final AtomicBoolean isRunning;
+
+    private BukkitTask backupTask;
+
+    /**
+     * The outcome of a single backup.
+     *
+     * @param snapshot         The written snapshot
+     * @param pages            The amount of pages in the snapshot
+     * @param steps            The amount of steps the copy took
+     * @param durationMillis   How long the backup took
+     * @param deletedSnapshots The amount of old snapshots that were rotated out
+     */
+    public record BackupResult(File snapshot, int pages, int steps, long durationMillis, int deletedSnapshots) {
+    }
+
+    /**
+     * Constructs a new {@code DatabaseBackup} instance.
+     *
+     * @param plugin       The main plugin instance
+     * @param databaseFile The database file to back up
+     */
+    public DatabaseBackup(JavaPlugin plugin, File databaseFile) {
+        this.plugin = plugin;
+        this.databaseFile = databaseFile;
+        this.backupFolder = new File(plugin.getDataFolder(), "backups");
+        this.isRunning = new AtomicBoolean(false);
+    }
+
+    /**
+     * Schedules the periodic backups, if enabled in the config.
+     */
+    public void startBackupTask() {
+        if (!plugin.getConfig().getBoolean("database.backup.enabled", true)) return;
+
+        long intervalTicks = TimeUnit.MINUTES.toSeconds(Math.max(1, plugin.getConfig().getInt("database.backup.interval-minutes", DEFAULT_INTERVAL_MINUTES))) * 20L;
+        backupTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, () -> {
+            try {
+                backup();
+            } catch (SQLException e) {
+                plugin.getLogger().severe("[DATABASE] Scheduled backup failed: " + e.getMessage());
+            }
+        }, intervalTicks, intervalTicks);
+    }
+
+    /**
+     * Stops the periodic backups.
+     */
+    public void stopBackupTask() {
+        if (backupTask != null) backupTask.cancel();
+    }
+
+    /**
+     * Takes a backup on a background thread.
+     *
+     * @return A future that completes with the result of the backup, or exceptionally with its error.
+     */
+    public CompletableFuture<BackupResult> backupAsync() {
+        CompletableFuture<BackupResult> future = new CompletableFuture<>();
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                future.complete(backup());
+            } catch (SQLException e) {
+                future.completeExceptionally(e);
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Takes a backup of the database and rotates out the oldest snapshots.
+     *
+     * @return The result of the backup.
+     * @throws SQLException If another backup is running, or the backup fails.
+     */
+    public BackupResult backup() throws SQLException {
+        if (!isRunning.compareAndSet(false, true)) throw new SQLException("A backup is already running!");
+
+        try {
+            if (!backupFolder.exists() && !backupFolder.mkdirs())
+                throw new SQLException("Failed to create backup folder " + backupFolder);
+
+            String name = SNAPSHOT_PREFIX + LocalDateTime.now().format(SNAPSHOT_TIMESTAMP);
+            File snapshot = new File(backupFolder, name + SNAPSHOT_SUFFIX);
+            File partialSnapshot = new File(backupFolder, name + SNAPSHOT_SUFFIX + ".tmp");
+
+            int pagesPerStep = Math.max(1, plugin.getConfig().getInt("database.backup.pages-per-step", DEFAULT_PAGES_PER_STEP));
+            int[] progress = new int[2];
+            long startTime = System.nanoTime();
+
+            try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath())) {
+                int result = connection.unwrap(SQLiteConnection.class).getDatabase().backup("main", partialSnapshot.getAbsolutePath(),
+                        (remaining, pageCount) -> {
+                            progress[0] = pageCount;
+                            progress[1]++;
+                        }, BUSY_SLEEP_MILLIS, BUSY_RETRIES, pagesPerStep);
+
+                if (result != SQLiteErrorCode.SQLITE_OK.code)
+                    throw new SQLException("Backup failed with SQLite error code " + result);
+
+                Files.move(partialSnapshot.toPath(), snapshot.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new SQLException("Failed to store snapshot " + snapshot, e);
+            } finally {
+                partialSnapshot.delete();
+            }
+
+            long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+            int deletedSnapshots = rotateSnapshots();
+
+            BackupResult backupResult = new BackupResult(snapshot, progress[0], progress[1], durationMillis, deletedSnapshots);
+            plugin.getLogger().info("[DATABASE] Backup " + snapshot.getName() + " took " + durationMillis + " ms, copied "
+                    + backupResult.pages() + " pages in " + backupResult.steps() + " steps, rotated out " + deletedSnapshots + " snapshots.");
+            return backupResult;
+        } finally {
+            isRunning.set(false);
+        }
+    }
+
+    /**
+     * Deletes the oldest snapshots until only the configured amount is left.
+     *
+     * @return The amount of deleted snapshots.
+     */
+    private int rotateSnapshots() {
+        int keep = Math.max(1, plugin.getConfig().getInt("database.backup.keep", DEFAULT_KEEP));
+
+        File[] snapshots = backupFolder.listFiles((folder, name) -> name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX));
+        if (snapshots == null || snapshots.length <= keep) return 0;
+
+        // The timestamp in the name sorts the snapshots from old to new
+        Arrays.sort(snapshots, Comparator.comparing(File::getName));
+
+        int deleted = 0;
+        for (int i = 0; i < snapshots.length - keep; i++) {
+            if (snapshots[i].delete()) deleted++;
+            else plugin.getLogger().warning("[DATABASE] Failed to delete old snapshot " + snapshots[i].getName());
+        }
+        return deleted;
+    }
+}
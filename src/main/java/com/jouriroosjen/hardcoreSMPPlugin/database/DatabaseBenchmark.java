@@ -0,0 +1,125 @@
+package com.jouriroosjen.hardcoreSMPPlugin.database;
+
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.sql.*;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the write throughput every database profile gets on the disk the server runs on.
+ * <p>
+ * Each profile writes the same workload, shaped like a statistics flush, into its own scratch database
+ * next to the real one. Small commits are used on purpose, since that's where the {@code synchronous}
+ * level makes the difference.
+ * </p>
+ *
+ * @author Jouri Roosjen
+ * @version 1.0.0
+ */
+public class DatabaseBenchmark {
+    private static final int COMMITS = 200;
+    private static final int ROWS_PER_COMMIT = 50;
+    private static final int PLAYERS = 100;
+
+    private static final String CREATE_TABLE_SQL = """
+            CREATE TABLE IF NOT EXISTS benchmark_statistics (
+                player_uuid TEXT NOT NULL,
+                statistic_type INTEGER NOT NULL,
+                value REAL NOT NULL,
+                UNIQUE (player_uuid, statistic_type)
+            )
+            """;
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO benchmark_statistics (player_uuid, statistic_type, value)
+            VALUES (?, ?, ?)
+            ON CONFLICT (player_uuid, statistic_type)
+            DO UPDATE SET value = value + excluded.value
+            """;
+
+    private final JavaPlugin plugin;
+
+    /**
+     * Constructs a new {@code DatabaseBenchmark} instance.
+     *
+     * @param plugin The main plugin instance
+     */
+    public DatabaseBenchmark(JavaPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Benchmarks the given profiles one after another on a background thread and logs the results.
+     *
+     * @param profiles The profiles to benchmark.
+     */
+    public void runAsync(List<DatabaseProfile> profiles) {
+        // SQLite calls are native and would pin a virtual thread to its carrier, so use a platform thread
+        Thread.ofPlatform()
+                .name("HardcoreSMP-DatabaseBenchmark")
+                .daemon(true)
+                .start(() -> {
+                    for (DatabaseProfile profile : profiles) {
+                        benchmark(profile);
+                    }
+                });
+    }
+
+    /**
+     * Benchmarks a single profile against a scratch database and logs its throughput.
+     *
+     * @param profile The profile to benchmark.
+     */
+    private void benchmark(DatabaseProfile profile) {
+        File dbFile = new File(plugin.getDataFolder(), "benchmark-" + profile.name() + ".db");
+
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dbFile.getAbsolutePath())) {
+            profile.applyToWriter(connection);
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_TABLE_SQL);
+            }
+
+            UUID[] playerUuids = new UUID[PLAYERS];
+            for (int i = 0; i < PLAYERS; i++) {
+                playerUuids[i] = UUID.randomUUID();
+            }
+
+            long startTime = System.nanoTime();
+
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(UPSERT_SQL)) {
+                for (int commit = 0; commit < COMMITS; commit++) {
+                    for (int row = 0; row < ROWS_PER_COMMIT; row++) {
+                        statement.setString(1, playerUuids[(commit * ROWS_PER_COMMIT + row) % PLAYERS].toString());
+                        statement.setInt(2, row);
+                        statement.setDouble(3, 1);
+                        statement.addBatch();
+                    }
+
+                    statement.executeBatch();
+                    connection.commit();
+                }
+            } finally {
+                connection.setAutoCommit(true);
+            }
+
+            long elapsedMillis = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+            long rowsPerSecond = (long) COMMITS * ROWS_PER_COMMIT * 1000L / elapsedMillis;
+
+            plugin.getLogger().info(String.format("[DATABASE] Profile '%s': %d rows/s, %d commits/s (%d commits of %d rows in %d ms)",
+                    profile.name(), rowsPerSecond, COMMITS * 1000L / elapsedMillis, COMMITS, ROWS_PER_COMMIT, elapsedMillis));
+        } catch (SQLException e) {
+            plugin.getLogger().warning("[DATABASE] Failed to benchmark profile '" + profile.name() + "': " + e.getMessage());
+        } finally {
+            for (String suffix : List.of("", "-wal", "-shm", "-journal")) {
+                File file = new File(dbFile.getPath() + suffix);
+                if (file.exists() && !file.delete())
+                    plugin.getLogger().warning("[DATABASE] Failed to delete benchmark file " + file.getName());
+            }
+        }
+    }
+}
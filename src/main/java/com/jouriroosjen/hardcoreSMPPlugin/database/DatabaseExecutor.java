@@ -0,0 +1,430 @@
+package com.jouriroosjen.hardcoreSMPPlugin.database;
+
+import com.jouriroosjen.hardcoreSMPPlugin.utils.Histogram;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Owns the database connections and runs all work against them on dedicated threads.
+ * <p>
+ * Callers hand in {@link DatabaseTask}s and get a {@link CompletableFuture} back. Everything that writes goes
+ * to the single writer connection and is executed one item at a time in submission order, so transactions can
+ * never interleave and the driver never sees concurrent access. Pure reads can go to a small pool of read-only
+ * connections instead, each owned by its own thread, so with the database in WAL mode they never wait behind
+ * a statistics flush.
+ * </p>
+ * <p>
+ * Every connection has its own {@link StatementCache}, tasks get their statements through {@link #prepare}
+ * so the same SQL is only parsed once per connection. Their executions are timed by {@link StatementMetrics}.
+ * </p>
+ *
+ * @author Jouri Roosjen
+ * @version 1.3.1
+ */
+public class DatabaseExecutor {
+    private final JavaPlugin plugin;
+    private final Connection writeConnection;
+    private final BlockingQueue<Work> writeQueue;
+    private final BlockingQueue<Work> readQueue;
+    private final Thread writerThread;
+    private final List<Thread> readerThreads;
+    private final ThreadLocal<Connection> ownedConnection;
+    private final ThreadLocal<StatementCache> ownedStatementCache;
+    private final List<StatementCache> statementCaches;
+    private final int statementCacheSize;
+    private final StatementMetrics statementMetrics;
+
+    private final Histogram readLatencyMicros;
+    private final Histogram writeLatencyMicros;
+
+    private volatile boolean isShutdown;
+
+    private static final Work STOP = connection -> {
+    };
+
+    /**
+     * A unit of work that runs against a database connection.
+     *
+     * @param <T> The type of the result.
+     */
+    @FunctionalInterface
+    public interface DatabaseTask<T> {
+        /**
+         * Runs the work.
+         *
+         * @param connection The database connection, only valid for the duration of this call.
+         * @return The result of the work.
+         * @throws SQLException If a database error occurs.
+         */
+        T execute(Connection connection) throws SQLException;
+    }
+
+    /**
+     * A queued work item, run by the thread that owns the connection.
+     */
+    @FunctionalInterface
+    private interface Work {
+        void run(Connection connection);
+    }
+
+    /**
+     * Constructs a new {@code DatabaseExecutor} instance and starts its threads.
+     *
+     * @param plugin             The main plugin instance
+     * @param writeConnection    The connection all writes go through
+     * @param readConnections    The read-only connections, may be empty to send reads to the writer as well
+     * @param statementCacheSize The maximum amount of cached statements per connection, {@code 0} disables caching
+     * @param statementMetrics   The metrics to record the statement executions and server thread waits in
+     */
+    public DatabaseExecutor(JavaPlugin plugin, Connection writeConnection, List<Connection> readConnections, int statementCacheSize,
+                            StatementMetrics statementMetrics) {
+        this.plugin = plugin;
+        this.writeConnection = writeConnection;
+        this.writeQueue = new LinkedBlockingQueue<>();
+        this.readQueue = new LinkedBlockingQueue<>();
+        this.ownedConnection = new ThreadLocal<>();
+        this.ownedStatementCache = new ThreadLocal<>();
+        this.statementCaches = new ArrayList<>(readConnections.size() + 1);
+        this.statementCacheSize = statementCacheSize;
+        this.statementMetrics = statementMetrics;
+
+        this.readLatencyMicros = new Histogram();
+        this.writeLatencyMicros = new Histogram();
+
+        // SQLite calls are native and would pin a virtual thread to its carrier, so use platform threads
+        this.writerThread = startWorker("HardcoreSMP-Database", writeQueue, writeConnection);
+
+        this.readerThreads = new ArrayList<>(readConnections.size());
+        for (int i = 0; i < readConnections.size(); i++) {
+            readerThreads.add(startWorker("HardcoreSMP-DatabaseReader-" + (i + 1), readQueue, readConnections.get(i)));
+        }
+    }
+
+    /**
+     * Queues a task to run on the writer connection.
+     *
+     * @param task The task to run.
+     * @param <T>  The type of the result.
+     * @return A future that completes with the result of the task, or exceptionally with its error.
+     */
+    public <T> CompletableFuture<T> submit(DatabaseTask<T> task) {
+        return enqueue(writeQueue, task, writeLatencyMicros);
+    }
+
+    /**
+     * Queues a task to run on the writer connection inside a single transaction.
+     * The transaction is committed when the task returns and rolled back when it throws.
+     *
+     * @param task The task to run.
+     * @param <T>  The type of the result.
+     * @return A future that completes with the result of the task, or exceptionally with its error.
+     */
+    public <T> CompletableFuture<T> submitTransaction(DatabaseTask<T> task) {
+        return submit(connection -> executeInTransaction(task));
+    }
+
+    /**
+     * Queues a read-only task to run on one of the read connections.
+     * Falls back to the writer connection when there are no read connections.
+     *
+     * @param task The task to run, it must not write.
+     * @param <T>  The type of the result.
+     * @return A future that completes with the result of the task, or exceptionally with its error.
+     */
+    public <T> CompletableFuture<T> submitRead(DatabaseTask<T> task) {
+        return enqueue(readerThreads.isEmpty() ? writeQueue : readQueue, task, readLatencyMicros);
+    }
+
+    /**
+     * Runs a task on the writer connection and waits for its result.
+     * When called from the writer thread itself, the task runs inline.
+     *
+     * @param task The task to run.
+     * @param <T>  The type of the result.
+     * @return The result of the task.
+     * @throws SQLException If the task fails or waiting for it is interrupted.
+     */
+    public <T> T call(DatabaseTask<T> task) throws SQLException {
+        if (ownedConnection.get() == writeConnection) return task.execute(writeConnection);
+
+        return await(submit(task));
+    }
+
+    /**
+     * Runs a task on the writer connection inside a single transaction and waits for its result.
+     *
+     * @param task The task to run.
+     * @param <T>  The type of the result.
+     * @return The result of the task.
+     * @throws SQLException If the task fails, in which case it's rolled back, or waiting for it is interrupted.
+     */
+    public <T> T callTransaction(DatabaseTask<T> task) throws SQLException {
+        return call(connection -> executeInTransaction(task));
+    }
+
+    /**
+     * Runs a read-only task on one of the read connections and waits for its result.
+     * When called from a database thread, the task runs inline on that thread's connection,
+     * so reads inside a write transaction see its uncommitted changes.
+     *
+     * @param task The task to run, it must not write.
+     * @param <T>  The type of the result.
+     * @return The result of the task.
+     * @throws SQLException If the task fails or waiting for it is interrupted.
+     */
+    public <T> T callRead(DatabaseTask<T> task) throws SQLException {
+        Connection connection = ownedConnection.get();
+        if (connection != null) return task.execute(connection);
+
+        return await(submitRead(task));
+    }
+
+    /**
+     * Gets the cached prepared statement for the given SQL on a connection owned by the current thread.
+     * The statement must not be closed, its result sets must be.
+     *
+     * @param connection The connection the task was given.
+     * @param sql        The SQL of the statement.
+     * @return The prepared statement.
+     * @throws SQLException If the connection isn't owned by the current thread or preparing fails.
+     */
+    public PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+        StatementCache statementCache = ownedStatementCache.get();
+        if (statementCache == null || statementCache.getConnection() != connection)
+            throw new SQLException("Statements can only be prepared on the thread that owns the connection!");
+
+        return statementCache.prepare(sql);
+    }
+
+    /**
+     * Gets the amount of writer tasks waiting to be executed.
+     *
+     * @return The current writer queue depth.
+     */
+    public int getQueueDepth() {
+        return writeQueue.size();
+    }
+
+    /**
+     * Gets a snapshot of the read/write split and latencies.
+     *
+     * @return The current database health.
+     */
+    public DatabaseHealth getHealth() {
+        return new DatabaseHealth(
+                readerThreads.size(),
+                readQueue.size(),
+                writeQueue.size(),
+                readLatencyMicros.getCount(),
+                writeLatencyMicros.getCount(),
+                readLatencyMicros.getPercentile(50) / 1000.0,
+                readLatencyMicros.getPercentile(99) / 1000.0,
+                readLatencyMicros.getMax() / 1000.0,
+                writeLatencyMicros.getPercentile(50) / 1000.0,
+                writeLatencyMicros.getPercentile(99) / 1000.0,
+                writeLatencyMicros.getMax() / 1000.0,
+                statementCaches.stream().mapToLong(StatementCache::getHits).sum(),
+                statementCaches.stream().mapToLong(StatementCache::getMisses).sum()
+        );
+    }
+
+    /**
+     * Gets the per-statement metrics.
+     *
+     * @return The statement metrics.
+     */
+    public StatementMetrics getStatementMetrics() {
+        return statementMetrics;
+    }
+
+    /**
+     * Resets the read and write latency histograms, the statement cache counters and the statement metrics.
+     */
+    public void resetHealth() {
+        readLatencyMicros.reset();
+        writeLatencyMicros.reset();
+        statementCaches.forEach(StatementCache::resetCounters);
+        statementMetrics.reset();
+    }
+
+    /**
+     * Stops accepting new tasks, runs all tasks that are already queued and stops the database threads.
+     *
+     * @param timeoutMillis The maximum time to wait for the queues to drain.
+     */
+    public void shutdown(long timeoutMillis) {
+        isShutdown = true;
+
+        writeQueue.add(STOP);
+        for (int i = 0; i < readerThreads.size(); i++) {
+            readQueue.add(STOP);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        List<Thread> threads = new ArrayList<>(readerThreads);
+        threads.add(writerThread);
+
+        for (Thread thread : threads) {
+            try {
+                thread.join(Math.max(1L, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        if (threads.stream().anyMatch(Thread::isAlive))
+            plugin.getLogger().warning("[DATABASE] Executor did not finish within " + timeoutMillis + " ms, "
+                    + (writeQueue.size() + readQueue.size()) + " tasks were abandoned.");
+    }
+
+    /**
+     * Starts a thread that owns a connection and runs the work of a queue against it.
+     *
+     * @param name       The name of the thread.
+     * @param queue      The queue to take work from.
+     * @param connection The connection the thread owns.
+     * @return The started thread.
+     */
+    private Thread startWorker(String name, BlockingQueue<Work> queue, Connection connection) {
+        StatementCache statementCache = new StatementCache(connection, statementCacheSize, statementMetrics);
+        statementCaches.add(statementCache);
+
+        return Thread.ofPlatform()
+                .name(name)
+                .daemon(true)
+                .start(() -> runWorker(queue, statementCache));
+    }
+
+    /**
+     * The loop of a database thread. Closes the cached statements when the thread stops.
+     *
+     * @param queue          The queue to take work from.
+     * @param statementCache The statement cache of the connection the thread owns.
+     */
+    private void runWorker(BlockingQueue<Work> queue, StatementCache statementCache) {
+        Connection connection = statementCache.getConnection();
+        ownedConnection.set(connection);
+        ownedStatementCache.set(statementCache);
+
+        try {
+            while (true) {
+                Work work;
+                try {
+                    work = queue.take();
+                } catch (InterruptedException e) {
+                    if (isShutdown) return;
+                    continue;
+                }
+
+                if (work == STOP) return;
+                work.run(connection);
+                statementCache.afterTask();
+            }
+        } finally {
+            statementCache.close();
+        }
+    }
+
+    /**
+     * Wraps a task into a work item and queues it.
+     *
+     * @param queue   The queue to add the work to.
+     * @param task    The task to run.
+     * @param latency The histogram to record the execution time in.
+     * @param <T>     The type of the result.
+     * @return A future that completes with the result of the task, or exceptionally with its error.
+     */
+    private <T> CompletableFuture<T> enqueue(BlockingQueue<Work> queue, DatabaseTask<T> task, Histogram latency) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        if (isShutdown) {
+            future.completeExceptionally(new SQLException("The database executor has been shut down!"));
+            return future;
+        }
+
+        queue.add(connection -> {
+            long startTime = System.nanoTime();
+
+            T result;
+            try {
+                result = task.execute(connection);
+            } catch (Throwable e) {
+                latency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime));
+                future.completeExceptionally(e);
+                return;
+            }
+
+            latency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime));
+            future.complete(result);
+        });
+
+        return future;
+    }
+
+    /**
+     * Runs a task inside a transaction on the writer connection, which must be owned by the current thread.
+     *
+     * @param task The task to run.
+     * @param <T>  The type of the result.
+     * @return The result of the task.
+     * @throws SQLException If the task or the commit fails.
+     */
+    private <T> T executeInTransaction(DatabaseTask<T> task) throws SQLException {
+        writeConnection.setAutoCommit(false);
+
+        try {
+            T result = task.execute(writeConnection);
+            writeConnection.commit();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            try {
+                writeConnection.rollback();
+            } catch (SQLException rollbackEx) {
+                plugin.getLogger().severe("[DATABASE] Failed to rollback transaction: " + rollbackEx.getMessage());
+            }
+            throw e;
+        } finally {
+            try {
+                writeConnection.setAutoCommit(true);
+            } catch (SQLException e) {
+                plugin.getLogger().warning("[DATABASE] Failed to reset auto-commit: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Waits for a submitted task and unwraps its failure.
+     * Waits on the server thread are recorded, since they stall the tick.
+     *
+     * @param future The future of the task, or of anything chained onto it.
+     * @param <T>    The type of the result.
+     * @return The result of the task.
+     * @throws SQLException If the task failed or waiting was interrupted.
+     */
+    public <T> T await(CompletableFuture<T> future) throws SQLException {
+        boolean isServerThread = plugin.getServer().isPrimaryThread();
+        long startTime = System.nanoTime();
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the database!", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException) throw sqlException;
+            if (cause instanceof RuntimeException runtimeException) throw runtimeException;
+            if (cause instanceof Error error) throw error;
+            throw new SQLException(cause);
+        } finally {
+            if (isServerThread) statementMetrics.recordServerThreadWait(System.nanoTime() - startTime);
+        }
+    }
+}
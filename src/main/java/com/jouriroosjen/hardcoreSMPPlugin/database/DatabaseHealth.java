@@ -0,0 +1,61 @@
+package com.jouriroosjen.hardcoreSMPPlugin.database;
+
+/**
+ * Point-in-time snapshot of the read/write split of the database executor.
+ *
+ * @param readConnections The amount of read-only connections in the pool.
+ * @param readQueueDepth  The amount of reads waiting for a read connection.
+ * @param writeQueueDepth The amount of tasks waiting for the writer connection.
+ * @param reads           The amount of reads executed since the last reset.
+ * @param writes          The amount of writer tasks executed since the last reset.
+ * @param readP50Millis   The median time a read took.
+ * @param readP99Millis   The 99th percentile time a read took.
+ * @param readMaxMillis   The longest time a read took.
+ * @param writeP50Millis  The median time a writer task took.
+ * @param writeP99Millis  The 99th percentile time a writer task took.
+ * @param writeMaxMillis  The longest time a writer task took.
+ * @param statementHits   The amount of statements served from the statement caches.
+ * @param statementMisses The amount of statements that had to be prepared.
+ * @author Jouri Roosjen
+ * @version 1.1.0
+ */
+public record DatabaseHealth(
+        int readConnections,
+        int readQueueDepth,
+        int writeQueueDepth,
+        long reads,
+        long writes,
+        double readP50Millis,
+        double readP99Millis,
+        double readMaxMillis,
+        double writeP50Millis,
+        double writeP99Millis,
+        double writeMaxMillis,
+        long statementHits,
+        long statementMisses
+) {
+    /**
+     * Formats the snapshot as a single line for the server log.
+     *
+     * @return The formatted log line.
+     */
+    public String toLogLine() {
+        return String.format(
+                "readers=%d, queues read=%d write=%d, reads=%d (p50 %.1fms, p99 %.1fms, max %.1fms), writes=%d (p50 %.1fms, p99 %.1fms, max %.1fms), statements hits=%d misses=%d",
+                readConnections, readQueueDepth, writeQueueDepth,
+                reads, readP50Millis, readP99Millis, readMaxMillis,
+                writes, writeP50Millis, writeP99Millis, writeMaxMillis,
+                statementHits, statementMisses
+        );
+    }
+
+    /**
+     * Gets the share of statements that were served from the statement caches.
+     *
+     * @return The hit rate between {@code 0} and {@code 1}, {@code 0} when no statements were prepared yet.
+     */
+    public double statementHitRate() {
+        long total = statementHits + statementMisses;
+        return total == 0 ? 0 : (double) statementHits / total;
+    }
+}
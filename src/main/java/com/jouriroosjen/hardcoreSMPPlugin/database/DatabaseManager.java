@@ -1,21 +1,46 @@
 package com.jouriroosjen.hardcoreSMPPlugin.database;
 
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.SQLException;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- * Manages a SQLite database connection.
+ * Manages the SQLite database connections.
  * The database file is located inside the plugin's data folder and is named {@code database.db}.
+ * <p>
+ * The database runs in WAL mode with one writer connection and a small pool of read-only connections,
+ * tuned by the pragmas of the configured {@link DatabaseProfile}.
+ * All connections are owned by a {@link DatabaseExecutor}, all database work must be submitted to {@link #executor}.
+ * Player ids are resolved through {@link #playerIdCache}, which has to be loaded once the schema is migrated.
+ * Gameplay writes go through {@link #writeQueue}, which commits them in groups.
+ * </p>
  *
  * @author Jouri Roosjen
- * @version 1.0.0
+ * @version 1.6.0
  */
 public class DatabaseManager {
-    public final Connection connection;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000L;
+    private static final int BUSY_TIMEOUT_MILLIS = 5_000;
+    private static final int DEFAULT_READ_CONNECTIONS = 2;
+    private static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+    private static final long DEFAULT_SLOW_QUERY_THRESHOLD_MILLIS = 50L;
+    private static final String DEFAULT_PROFILE = "balanced";
+    private static final long DEFAULT_GROUP_COMMIT_INTERVAL_MILLIS = 50L;
+    private static final int DEFAULT_GROUP_COMMIT_MAX_BATCH_SIZE = 256;
+
+    public final DatabaseExecutor executor;
+    public final PlayerIdCache playerIdCache;
+    public final GroupCommitQueue writeQueue;
+
+    private final JavaPlugin plugin;
+    private final File databaseFile;
+    private final Connection connection;
+    private final List<Connection> readConnections;
+    private final DatabaseProfile profile;
 
     /**
      * Constructs a new {@code DatabaseManager} instance and connects to the SQLite database.
@@ -24,21 +49,143 @@ public class DatabaseManager {
      * @throws SQLException If a database access error occurs or the connection fails
      */
     public DatabaseManager(JavaPlugin plugin) throws SQLException {
-        File dbFile = new File(plugin.getDataFolder(), "database.db");
-        String url = "jdbc:sqlite:" + dbFile.getAbsolutePath();
+        this.plugin = plugin;
+
+        databaseFile = new File(plugin.getDataFolder(), "database.db");
+        String url = "jdbc:sqlite:" + databaseFile.getAbsolutePath();
 
         connection = DriverManager.getConnection(url);
-        connection.createStatement().execute("PRAGMA foreign_keys = ON");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA foreign_keys = ON");
+            statement.execute("PRAGMA busy_timeout = " + BUSY_TIMEOUT_MILLIS);
+        }
+
+        profile = loadProfile(plugin.getConfig().getString("database.profile", DEFAULT_PROFILE));
+        String journalMode = profile.applyToWriter(connection);
+
+        int readConnectionCount = Math.max(0, plugin.getConfig().getInt("database.read-connections", DEFAULT_READ_CONNECTIONS));
+        if (readConnectionCount > 0 && !"wal".equalsIgnoreCase(journalMode))
+            plugin.getLogger().warning("[DATABASE] Journal mode is " + journalMode + " instead of WAL. Reads will wait for writes.");
+
+        readConnections = new ArrayList<>(readConnectionCount);
+        for (int i = 0; i < readConnectionCount; i++) {
+            readConnections.add(openReadConnection(url));
+        }
+
+        int statementCacheSize = Math.max(0, plugin.getConfig().getInt("database.statement-cache-size", DEFAULT_STATEMENT_CACHE_SIZE));
+        long slowQueryThresholdMillis = Math.max(0L, plugin.getConfig().getLong("database.slow-query-threshold-ms", DEFAULT_SLOW_QUERY_THRESHOLD_MILLIS));
+        executor = new DatabaseExecutor(plugin, connection, readConnections, statementCacheSize, new StatementMetrics(plugin, slowQueryThresholdMillis));
+        playerIdCache = new PlayerIdCache(plugin, executor);
+
+        long groupCommitIntervalMillis = Math.max(0L, plugin.getConfig().getLong("database.group-commit.interval-ms", DEFAULT_GROUP_COMMIT_INTERVAL_MILLIS));
+        int groupCommitMaxBatchSize = Math.max(1, plugin.getConfig().getInt("database.group-commit.max-batch-size", DEFAULT_GROUP_COMMIT_MAX_BATCH_SIZE));
+        writeQueue = new GroupCommitQueue(plugin, executor, groupCommitIntervalMillis, groupCommitMaxBatchSize);
+
+        plugin.getLogger().info("[DATABASE] Using profile " + profile);
+
+        if (plugin.getConfig().getBoolean("database.self-benchmark", false))
+            new DatabaseBenchmark(plugin).runAsync(loadAllProfiles());
     }
 
     /**
-     * Disconnects from the SQLite database if the connection is open.
+     * Commits the pending writes, runs all queued database work and disconnects from the SQLite database if the connections are open.
      *
-     * @throws SQLException If an error occurs while closing the connection
+     * @throws SQLException If an error occurs while closing the connections
      */
     public void disconnect() throws SQLException {
+        writeQueue.shutdown();
+        executor.shutdown(SHUTDOWN_TIMEOUT_MILLIS);
+
+        for (Connection readConnection : readConnections) {
+            if (!readConnection.isClosed()) readConnection.close();
+        }
+
         if (connection != null && !connection.isClosed()) {
             connection.close();
         }
     }
+
+    /**
+     * Gets the database file the connections are opened on.
+     *
+     * @return The database file
+     */
+    public File getDatabaseFile() {
+        return databaseFile;
+    }
+
+    /**
+     * Gets the profile the connections are tuned with.
+     *
+     * @return The active database profile
+     */
+    public DatabaseProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Loads a profile from the {@code database.profiles} config section.
+     * Falls back to {@link DatabaseProfile#BALANCED} when the profile is missing or invalid.
+     *
+     * @param name The name of the profile
+     * @return The profile to use
+     */
+    private DatabaseProfile loadProfile(String name) {
+        ConfigurationSection section = plugin.getConfig().getConfigurationSection("database.profiles." + name);
+        if (section == null) {
+            plugin.getLogger().warning("[DATABASE] Unknown database profile '" + name + "', using the balanced defaults.");
+            return DatabaseProfile.BALANCED;
+        }
+
+        try {
+            return DatabaseProfile.fromConfig(name, section);
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("[DATABASE] Invalid database profile '" + name + "', using the balanced defaults - " + e.getMessage());
+            return DatabaseProfile.BALANCED;
+        }
+    }
+
+    /**
+     * Loads every valid profile from the {@code database.profiles} config section.
+     *
+     * @return All configured profiles
+     */
+    private List<DatabaseProfile> loadAllProfiles() {
+        List<DatabaseProfile> profiles = new ArrayList<>();
+
+        ConfigurationSection section = plugin.getConfig().getConfigurationSection("database.profiles");
+        if (section == null) return profiles;
+
+        for (String name : section.getKeys(false)) {
+            ConfigurationSection profileSection = section.getConfigurationSection(name);
+            if (profileSection == null) continue;
+
+            try {
+                profiles.add(DatabaseProfile.fromConfig(name, profileSection));
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().warning("[DATABASE] Skipping invalid database profile '" + name + "' - " + e.getMessage());
+            }
+        }
+
+        return profiles;
+    }
+
+    /**
+     * Opens a connection that refuses to write.
+     *
+     * @param url The JDBC URL of the database
+     * @return The read-only connection
+     * @throws SQLException If a database error occurs
+     */
+    private Connection openReadConnection(String url) throws SQLException {
+        Connection readConnection = DriverManager.getConnection(url);
+
+        try (Statement statement = readConnection.createStatement()) {
+            statement.execute("PRAGMA query_only = ON");
+            statement.execute("PRAGMA busy_timeout = " + BUSY_TIMEOUT_MILLIS);
+        }
+        profile.applyToReader(readConnection);
+
+        return readConnection;
+    }
 }
@@ -0,0 +1,129 @@
+package com.jouriroosjen.hardcoreSMPPlugin.database;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * A named set of SQLite pragmas that trade durability for write speed, read from the {@code database.profiles} config.
+ *
+ * @param name              The name of the profile.
+ * @param journalMode       The {@code journal_mode}, should be {@code WAL} for the read connections to never block.
+ * @param synchronous       The {@code synchronous} level, decides how often SQLite waits for the disk.
+ * @param cacheSize         The {@code cache_size}, in pages when positive or in KiB when negative.
+ * @param mmapSize          The {@code mmap_size} in bytes, {@code 0} disables memory-mapped I/O.
+ * @param tempStore         The {@code temp_store}, where temporary tables and indices are kept.
+ * @param walAutocheckpoint The {@code wal_autocheckpoint}, in pages written before the WAL is checkpointed.
+ * @author Jouri Roosjen
+ * @version 1.0.0
+ */
+public record DatabaseProfile(
+        String name,
+        String journalMode,
+        String synchronous,
+        int cacheSize,
+        long mmapSize,
+        String tempStore,
+        int walAutocheckpoint
+) {
+    /**
+     * The profile used when the configured one is missing or invalid.
+     */
+    public static final DatabaseProfile BALANCED = new DatabaseProfile("balanced", "WAL", "NORMAL", -32000, 268435456L, "MEMORY", 1000);
+
+    private static final Set<String> JOURNAL_MODES = Set.of("DELETE", "TRUNCATE", "PERSIST", "MEMORY", "WAL", "OFF");
+    private static final Set<String> SYNCHRONOUS_LEVELS = Set.of("OFF", "NORMAL", "FULL", "EXTRA");
+    private static final Set<String> TEMP_STORES = Set.of("DEFAULT", "FILE", "MEMORY");
+
+    /**
+     * Constructs a new {@code DatabaseProfile} instance.
+     * Pragmas can't be bound as parameters, so every value is validated here before it ends up in SQL.
+     *
+     * @throws IllegalArgumentException If a value is not valid for its pragma.
+     */
+    public DatabaseProfile {
+        journalMode = requireOneOf("journal-mode", journalMode, JOURNAL_MODES);
+        synchronous = requireOneOf("synchronous", synchronous, SYNCHRONOUS_LEVELS);
+        tempStore = requireOneOf("temp-store", tempStore, TEMP_STORES);
+
+        if (mmapSize < 0) throw new IllegalArgumentException("mmap-size can't be negative: " + mmapSize);
+        if (walAutocheckpoint < 0)
+            throw new IllegalArgumentException("wal-autocheckpoint can't be negative: " + walAutocheckpoint);
+    }
+
+    /**
+     * Reads a profile from its config section. Missing values fall back to {@link #BALANCED}.
+     *
+     * @param name    The name of the profile.
+     * @param section The config section of the profile.
+     * @return The profile.
+     * @throws IllegalArgumentException If a value is not valid for its pragma.
+     */
+    public static DatabaseProfile fromConfig(String name, ConfigurationSection section) {
+        return new DatabaseProfile(
+                name,
+                section.getString("journal-mode", BALANCED.journalMode),
+                section.getString("synchronous", BALANCED.synchronous),
+                section.getInt("cache-size", BALANCED.cacheSize),
+                section.getLong("mmap-size", BALANCED.mmapSize),
+                section.getString("temp-store", BALANCED.tempStore),
+                section.getInt("wal-autocheckpoint", BALANCED.walAutocheckpoint)
+        );
+    }
+
+    /**
+     * Applies all pragmas of this profile to the writer connection.
+     *
+     * @param connection The connection to configure.
+     * @return The journal mode SQLite actually switched to, which can differ from the requested one.
+     * @throws SQLException If a database error occurs.
+     */
+    public String applyToWriter(Connection connection) throws SQLException {
+        applyToReader(connection);
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA synchronous = " + synchronous);
+            statement.execute("PRAGMA wal_autocheckpoint = " + walAutocheckpoint);
+
+            try (ResultSet resultSet = statement.executeQuery("PRAGMA journal_mode = " + journalMode)) {
+                return resultSet.next() ? resultSet.getString(1) : null;
+            }
+        }
+    }
+
+    /**
+     * Applies the per-connection cache pragmas of this profile to a read connection.
+     *
+     * @param connection The connection to configure.
+     * @throws SQLException If a database error occurs.
+     */
+    public void applyToReader(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA cache_size = " + cacheSize);
+            statement.execute("PRAGMA mmap_size = " + mmapSize);
+            statement.execute("PRAGMA temp_store = " + tempStore);
+        }
+    }
+
+    /**
+     * Checks that a keyword pragma value is one of the allowed values.
+     *
+     * @param key     The config key of the value, for the error message.
+     * @param value   The configured value.
+     * @param allowed The allowed values, in upper case.
+     * @return The value in upper case.
+     * @throws IllegalArgumentException If the value is not allowed.
+     */
+    private static String requireOneOf(String key, String value, Set<String> allowed) {
+        String normalized = value == null ? "" : value.trim().toUpperCase(Locale.ROOT);
+        if (!allowed.contains(normalized))
+            throw new IllegalArgumentException(key + " must be one of " + allowed + ", got: " + value);
+
+        return normalized;
+    }
+}
@@ -0,0 +1,384 @@
+package com.jouriroosjen.hardcoreSMPPlugin.database;
+
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the history tables from growing forever by compacting the rows older than the retention horizon.
+ * <ul>
+ *     <li>Sessions are rolled into per-player daily summaries.</li>
+ *     <li>Piggy bank entries are folded into one summary entry per player and kind, so every total stays the same.</li>
+ *     <li>Penalties are deleted, their amounts already live in the piggy bank.</li>
+ *     <li>Deaths are deleted, except for the latest death of every player and the death of the latest assist.
+ *     Their assists go with them.</li>
+ * </ul>
+ * <p>
+ * Every batch is its own transaction on the writer, so other writes get their turn in between. Afterwards the
+ * freed pages are returned to the file system with {@code PRAGMA incremental_vacuum}, which needs the database
+ * to be in incremental auto vacuum mode. Switching to that mode rewrites the database once with a full
+ * {@code VACUUM}, which holds the writer for the whole rewrite and needs as much free disk space as the database
+ * itself, so it's only done when an admin runs {@code /hsmp enable-incremental-vacuum}.
+ * </p>
+ *
+ * @author Jouri Roosjen
+ * @version 1.1.1
+ */
+public class DatabaseRetention {
+    private static final int DEFAULT_INTERVAL_MINUTES = 1440;
+    private static final int DEFAULT_HORIZON_DAYS = 180;
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final int DEFAULT_VACUUM_PAGES_PER_STEP = 1000;
+    private static final int INCREMENTAL_AUTO_VACUUM = 2;
+
+    private static final String SESSIONS_BATCH = """
+            SELECT id FROM sessions
+            WHERE created_at_ms < ?
+            ORDER BY created_at_ms, id
+            LIMIT ?
+            """;
+
+    private static final String SUMMARIZE_SESSIONS_SQL = """
+            INSERT INTO session_daily_summaries (player_id, day_start_ms, session_count, playtime_seconds)
+            SELECT player_id, created_at_ms - (created_at_ms % 86400000), COUNT(*), SUM(playtime_seconds)
+            FROM sessions
+            WHERE id IN (%s)
+            GROUP BY player_id, created_at_ms - (created_at_ms % 86400000)
+            ON CONFLICT (player_id, day_start_ms) DO UPDATE SET
+                session_count = session_count + excluded.session_count,
+                playtime_seconds = playtime_seconds + excluded.playtime_seconds
+            """.formatted(SESSIONS_BATCH);
+
+    private static final String PIGGY_BANK_BATCH = """
+            SELECT id FROM piggy_bank
+            WHERE created_at_ms < ? AND is_summary = 0
+            ORDER BY created_at_ms, id
+            LIMIT ?
+            """;
+
+    private static final String SUMMARIZE_PIGGY_BANK_SQL = """
+            INSERT INTO piggy_bank (player_id, amount, is_assist, is_penalty, is_summary, created_at_ms)
+            SELECT player_id, SUM(amount), is_assist, is_penalty, 1, MAX(created_at_ms)
+            FROM piggy_bank
+            WHERE id IN (%s)
+            GROUP BY player_id, is_assist, is_penalty
+            ON CONFLICT (player_id, is_assist, is_penalty) WHERE is_summary = 1 DO UPDATE SET
+                amount = amount + excluded.amount,
+                created_at_ms = MAX(created_at_ms, excluded.created_at_ms)
+            """.formatted(PIGGY_BANK_BATCH);
+
+    private static final String PENALTIES_BATCH = """
+            SELECT id FROM penalties
+            WHERE created_at_ms < ?
+            ORDER BY created_at_ms, id
+            LIMIT ?
+            """;
+
+    private static final String DEATHS_BATCH = """
+            SELECT id FROM deaths
+            WHERE created_at_ms < ?
+              AND EXISTS (
+                  SELECT 1 FROM deaths AS newer
+                  WHERE newer.player_id = deaths.player_id
+                    AND (newer.created_at_ms > deaths.created_at_ms
+                        OR (newer.created_at_ms = deaths.created_at_ms AND newer.id > deaths.id))
+              )
+              AND id NOT IN (
+                  SELECT receiving_player_death_id FROM buyback_assists
+                  ORDER BY created_at_ms DESC, id DESC
+                  LIMIT 1
+              )
+            ORDER BY created_at_ms, id
+            LIMIT ?
+            """;
+
+    private final JavaPlugin plugin;
+    private final DatabaseExecutor databaseExecutor;
+    private final AtomicBoolean isRunning;
+
+    private BukkitTask retentionTask;
+
+    /**
+     * The outcome of a single compaction.
+     *
+     * @param summarizedSessions  The amount of sessions rolled into daily summaries
+     * @param summarizedPiggyBank The amount of piggy bank entries folded into summary entries
+     * @param deletedPenalties    The amount of deleted penalties
+     * @param deletedDeaths       The amount of deleted deaths
+     * @param vacuumedPages       The amount of pages returned to the file system
+     * @param durationMillis      How long the compaction took
+     */
+    public record RetentionResult(int summarizedSessions, int summarizedPiggyBank, int deletedPenalties, int deletedDeaths,
+                                  int vacuumedPages, long durationMillis) {
+    }
+
+    /**
+     * Constructs a new {@code DatabaseRetention} instance.
+     *
+     * @param plugin           The main plugin instance
+     * @param databaseExecutor The database executor that owns the connection
+     */
+    public DatabaseRetention(JavaPlugin plugin, DatabaseExecutor databaseExecutor) {
+        this.plugin = plugin;
+        this.databaseExecutor = databaseExecutor;
+        this.isRunning = new AtomicBoolean(false);
+    }
+
+    /**
+     * Schedules the periodic compaction, if an admin enabled it in the config.
+     * It deletes old deaths and penalties, so it is off unless opted in.
+     */
+    public void startRetentionTask() {
+        if (!plugin.getConfig().getBoolean("database.retention.enabled", false)) return;
+
+        long intervalTicks = TimeUnit.MINUTES.toSeconds(Math.max(1, plugin.getConfig().getInt("database.retention.interval-minutes", DEFAULT_INTERVAL_MINUTES))) * 20L;
+        retentionTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, () -> {
+            try {
+                compact();
+            } catch (SQLException e) {
+                plugin.getLogger().severe("[DATABASE] Scheduled compaction failed: " + e.getMessage());
+            }
+        }, intervalTicks, intervalTicks);
+    }
+
+    /**
+     * Stops the periodic compaction.
+     */
+    public void stopRetentionTask() {
+        if (retentionTask != null) retentionTask.cancel();
+    }
+
+    /**
+     * Runs a compaction on a background thread.
+     *
+     * @return A future that completes with the result of the compaction, or exceptionally with its error.
+     */
+    public CompletableFuture<RetentionResult> compactAsync() {
+        CompletableFuture<RetentionResult> future = new CompletableFuture<>();
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                future.complete(compact());
+            } catch (SQLException e) {
+                future.completeExceptionally(e);
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Switches the database to incremental auto vacuum on a background thread.
+     * Other writes wait until the rewrite is done.
+     *
+     * @return A future that completes with {@code true} once switched, {@code false} if it already was,
+     * or exceptionally with its error.
+     */
+    public CompletableFuture<Boolean> enableIncrementalVacuumAsync() {
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            if (!isRunning.compareAndSet(false, true)) {
+                future.completeExceptionally(new SQLException("A compaction is already running!"));
+                return;
+            }
+
+            try {
+                future.complete(databaseExecutor.call(this::enableIncrementalVacuum));
+            } catch (SQLException e) {
+                future.completeExceptionally(e);
+            } finally {
+                isRunning.set(false);
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Compacts every row older than the retention horizon, batch by batch, and vacuums the freed pages.
+     * Blocks the calling thread until it's done, so never call it on the server thread.
+     *
+     * @return The result of the compaction.
+     * @throws SQLException If another compaction is running, or a batch fails.
+     */
+    public RetentionResult compact() throws SQLException {
+        if (!isRunning.compareAndSet(false, true)) throw new SQLException("A compaction is already running!");
+
+        try {
+            long horizonMillis = TimeUnit.DAYS.toMillis(Math.max(1, plugin.getConfig().getInt("database.retention.horizon-days", DEFAULT_HORIZON_DAYS)));
+            long cutoffMillis = System.currentTimeMillis() - horizonMillis;
+            int batchSize = Math.max(1, plugin.getConfig().getInt("database.retention.batch-size", DEFAULT_BATCH_SIZE));
+            int pagesPerStep = Math.max(1, plugin.getConfig().getInt("database.retention.vacuum-pages-per-step", DEFAULT_VACUUM_PAGES_PER_STEP));
+            long startTime = System.nanoTime();
+
+            int summarizedSessions = runBatches(connection -> summarizeAndDelete(connection, SUMMARIZE_SESSIONS_SQL, SESSIONS_BATCH, "sessions", cutoffMillis, batchSize), batchSize);
+            int summarizedPiggyBank = runBatches(connection -> summarizeAndDelete(connection, SUMMARIZE_PIGGY_BANK_SQL, PIGGY_BANK_BATCH, "piggy_bank", cutoffMillis, batchSize), batchSize);
+            int deletedPenalties = runBatches(connection -> delete(connection, PENALTIES_BATCH, "penalties", cutoffMillis, batchSize), batchSize);
+            int deletedDeaths = runBatches(connection -> delete(connection, DEATHS_BATCH, "deaths", cutoffMillis, batchSize), batchSize);
+            int vacuumedPages = vacuum(pagesPerStep);
+
+            long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+            RetentionResult result = new RetentionResult(summarizedSessions, summarizedPiggyBank, deletedPenalties, deletedDeaths, vacuumedPages, durationMillis);
+            plugin.getLogger().info("[DATABASE] Compaction took " + durationMillis + " ms, summarized " + summarizedSessions + " sessions and "
+                    + summarizedPiggyBank + " piggy bank entries, deleted " + deletedPenalties + " penalties and " + deletedDeaths
+                    + " deaths, vacuumed " + vacuumedPages + " pages.");
+            return result;
+        } finally {
+            isRunning.set(false);
+        }
+    }
+
+    /**
+     * Runs a batch in its own transaction until a batch comes back short.
+     *
+     * @param batch     The batch to run, returns the amount of compacted rows
+     * @param batchSize The maximum amount of rows per batch
+     * @return The total amount of compacted rows
+     * @throws SQLException If a batch fails
+     */
+    private int runBatches(DatabaseExecutor.DatabaseTask<Integer> batch, int batchSize) throws SQLException {
+        int total = 0;
+        int compacted;
+
+        do {
+            compacted = databaseExecutor.callTransaction(batch);
+            total += compacted;
+        } while (compacted == batchSize);
+
+        return total;
+    }
+
+    /**
+     * Rolls a batch of rows into their summaries and deletes them.
+     * Both statements select the same batch, they run in the same transaction so nothing can change it in between.
+     *
+     * @param connection   The writer connection of the running transaction
+     * @param summarizeSql The upsert of the summaries, binds the cutoff and the batch size
+     * @param batchSql     The selection of the batch, binds the cutoff and the batch size
+     * @param table        The table the batch is deleted from
+     * @param cutoffMillis Rows before this moment are compacted
+     * @param batchSize    The maximum amount of rows in the batch
+     * @return The amount of summarized rows
+     * @throws SQLException If a database error occurs
+     */
+    private int summarizeAndDelete(Connection connection, String summarizeSql, String batchSql, String table, long cutoffMillis, int batchSize) throws SQLException {
+        PreparedStatement statement = databaseExecutor.prepare(connection, summarizeSql);
+        statement.setLong(1, cutoffMillis);
+        statement.setInt(2, batchSize);
+        statement.executeUpdate();
+
+        return delete(connection, batchSql, table, cutoffMillis, batchSize);
+    }
+
+    /**
+     * Deletes a batch of rows.
+     *
+     * @param connection   The writer connection of the running transaction
+     * @param batchSql     The selection of the batch, binds the cutoff and the batch size
+     * @param table        The table the batch is deleted from
+     * @param cutoffMillis Rows before this moment are deleted
+     * @param batchSize    The maximum amount of rows in the batch
+     * @return The amount of deleted rows
+     * @throws SQLException If a database error occurs
+     */
+    private int delete(Connection connection, String batchSql, String table, long cutoffMillis, int batchSize) throws SQLException {
+        PreparedStatement statement = databaseExecutor.prepare(connection, "DELETE FROM " + table + " WHERE id IN (" + batchSql + ")");
+        statement.setLong(1, cutoffMillis);
+        statement.setInt(2, batchSize);
+        return statement.executeUpdate();
+    }
+
+    /**
+     * Returns the free pages to the file system, a limited amount per step so the writer isn't held for long.
+     *
+     * @param pagesPerStep The maximum amount of pages per step
+     * @return The amount of vacuumed pages
+     * @throws SQLException If a database error occurs
+     */
+    private int vacuum(int pagesPerStep) throws SQLException {
+        int total = 0;
+
+        while (true) {
+            int vacuumed = databaseExecutor.call(connection -> {
+                int freePages = queryInt(connection, "PRAGMA freelist_count");
+                if (freePages == 0) return 0;
+
+                if (queryInt(connection, "PRAGMA auto_vacuum") != INCREMENTAL_AUTO_VACUUM) {
+                    plugin.getLogger().info("[DATABASE] " + freePages + " free pages stay in the file, run "
+                            + "/hsmp enable-incremental-vacuum once to return freed pages to the file system.");
+                    return 0;
+                }
+
+                int target = Math.max(0, freePages - pagesPerStep);
+                int remaining = freePages;
+
+                try (Statement statement = connection.createStatement()) {
+                    // The pragma frees a page per step and the driver may only step it once, so repeat until the step is done
+                    while (remaining > target) {
+                        // Pragmas can't be bound, the page count is an int so it's safe to inline
+                        statement.execute("PRAGMA incremental_vacuum(" + (remaining - target) + ")");
+
+                        int left = queryInt(connection, "PRAGMA freelist_count");
+                        if (left >= remaining) break;
+                        remaining = left;
+                    }
+                }
+
+                return freePages - remaining;
+            });
+
+            if (vacuumed <= 0) return total;
+            total += vacuumed;
+        }
+    }
+
+    /**
+     * Switches the database to incremental auto vacuum, if it isn't already.
+     * The mode only takes effect after a full {@code VACUUM}, which rewrites the whole file once.
+     *
+     * @param connection The writer connection
+     * @return {@code true} if the database was switched, {@code false} if it already was
+     * @throws SQLException If a database error occurs
+     */
+    private Boolean enableIncrementalVacuum(Connection connection) throws SQLException {
+        if (queryInt(connection, "PRAGMA auto_vacuum") == INCREMENTAL_AUTO_VACUUM) return false;
+
+        long sizeMegabytes = (long) queryInt(connection, "PRAGMA page_count") * queryInt(connection, "PRAGMA page_size") / (1024 * 1024);
+        plugin.getLogger().info("[DATABASE] Switching to incremental auto vacuum, rewriting " + sizeMegabytes
+                + " MB. Writes wait until it's done, and it needs about as much free disk space.");
+
+        long startTime = System.nanoTime();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA auto_vacuum = INCREMENTAL");
+            statement.execute("VACUUM");
+        }
+
+        plugin.getLogger().info("[DATABASE] Switched to incremental auto vacuum in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) + " ms.");
+        return true;
+    }
+
+    /**
+     * Runs a query that returns a single integer, like most pragmas.
+     *
+     * @param connection The connection to run the query on
+     * @param sql        The query
+     * @return The integer, {@code 0} if the query returned nothing
+     * @throws SQLException If a database error occurs
+     */
+    private static int queryInt(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.jouriroosjen.hardcoreSMPPlugin.database;
+
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects writes for a short while and commits them together in a single transaction on the writer connection.
+ * <p>
+ * Every commit costs a sync of the write-ahead log, so a burst of deaths or a mass logout on a restart would
+ * otherwise sync once per write. Here the first write of a batch starts a timer, everything submitted before it
+ * fires joins the same transaction, and a full batch is committed right away. Writes run in submission order
+ * and batches are handed to the writer in order, so the writes of a player are never reordered.
+ * </p>
+ * <p>
+ * Each write runs inside its own savepoint, so a failing write is rolled back on its own and only fails its own
+ * future. The futures complete once the whole batch is committed, a result is never seen before it's durable.
+ * </p>
+ *
+ * @author Jouri Roosjen
+ * @version 1.0.0
+ */
+public class GroupCommitQueue {
+    private final JavaPlugin plugin;
+    private final DatabaseExecutor databaseExecutor;
+    private final long intervalMillis;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler;
+    private final Object lock = new Object();
+
+    private List<PendingWrite<?>> pending = new ArrayList<>();
+    private boolean isFlushScheduled;
+    private boolean isShutdown;
+
+    /**
+     * A submitted write, with its result kept until the batch it's part of is committed.
+     *
+     * @param <T> The type of the result.
+     */
+    private static final class PendingWrite<T> {
+        private final DatabaseExecutor.DatabaseTask<T> task;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private T result;
+        private Exception error;
+
+        private PendingWrite(DatabaseExecutor.DatabaseTask<T> task) {
+            this.task = task;
+        }
+
+        /**
+         * Runs the write inside a savepoint of the running transaction and keeps its outcome.
+         *
+         * @param connection The writer connection of the running transaction.
+         * @throws SQLException If the savepoint can't be set or rolled back.
+         */
+        private void run(Connection connection) throws SQLException {
+            Savepoint savepoint = connection.setSavepoint();
+
+            try {
+                result = task.execute(connection);
+                connection.releaseSavepoint(savepoint);
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback(savepoint);
+                error = e;
+            }
+        }
+
+        /**
+         * Completes the future with the kept outcome, once the batch is committed.
+         */
+        private void complete() {
+            if (error != null) future.completeExceptionally(error);
+            else future.complete(result);
+        }
+    }
+
+    /**
+     * Constructs a new {@code GroupCommitQueue} instance.
+     *
+     * @param plugin           The main plugin instance.
+     * @param databaseExecutor The database executor that owns the writer connection.
+     * @param intervalMillis   How long the first write of a batch waits for others to join, {@code 0} commits right away.
+     * @param maxBatchSize     The amount of writes that commits a batch without waiting.
+     */
+    public GroupCommitQueue(JavaPlugin plugin, DatabaseExecutor databaseExecutor, long intervalMillis, int maxBatchSize) {
+        this.plugin = plugin;
+        this.databaseExecutor = databaseExecutor;
+        this.intervalMillis = intervalMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("HardcoreSMP-GroupCommit")
+                .daemon(true)
+                .factory());
+    }
+
+    /**
+     * Queues a write for the next batch.
+     *
+     * @param task The write to run.
+     * @param <T>  The type of the result.
+     * @return A future that completes with the result once its batch is committed, or exceptionally with its error.
+     */
+    public <T> CompletableFuture<T> submit(DatabaseExecutor.DatabaseTask<T> task) {
+        PendingWrite<T> write = new PendingWrite<>(task);
+
+        synchronized (lock) {
+            if (isShutdown) {
+                write.future.completeExceptionally(new SQLException("The group commit queue is shut down!"));
+                return write.future;
+            }
+
+            pending.add(write);
+
+            if (pending.size() >= maxBatchSize || intervalMillis <= 0) {
+                flushLocked();
+            } else if (!isFlushScheduled) {
+                isFlushScheduled = true;
+                scheduler.schedule(this::flush, intervalMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        return write.future;
+    }
+
+    /**
+     * Hands the pending writes to the writer right away.
+     * Anything submitted to the writer afterwards runs after them.
+     */
+    public void flush() {
+        synchronized (lock) {
+            flushLocked();
+        }
+    }
+
+    /**
+     * Commits the pending writes and stops the timer. Writes submitted afterwards fail.
+     * Has to be called before the database executor shuts down, which then runs the last batch.
+     */
+    public void shutdown() {
+        synchronized (lock) {
+            isShutdown = true;
+            flushLocked();
+        }
+
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Submits the pending writes to the writer as a single transaction. Must hold the lock, so batches are
+     * submitted in the order they were collected.
+     */
+    private void flushLocked() {
+        isFlushScheduled = false;
+        if (pending.isEmpty()) return;
+
+        List<PendingWrite<?>> batch = pending;
+        pending = new ArrayList<>();
+
+        databaseExecutor.submitTransaction(connection -> {
+            for (PendingWrite<?> write : batch) {
+                write.run(connection);
+            }
+            return null;
+        }).whenComplete((result, e) -> {
+            if (e == null) {
+                batch.forEach(PendingWrite::complete);
+                return;
+            }
+
+            plugin.getLogger().severe("[DATABASE] Failed to commit a batch of " + batch.size() + " writes: " + e.getMessage());
+            for (PendingWrite<?> write : batch) {
+                write.future.completeExceptionally(e);
+            }
+        });
+    }
+}
@@ -3,15 +3,14 @@ package com.jouriroosjen.hardcoreSMPPlugin.database;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.*;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Comparator;
-import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.*;
 
 /**
  * Handles database schema migrations using embedded SQL files.
@@ -19,21 +18,36 @@ import java.util.regex.Pattern;
  * and be located in the {@code resources/migrations} folder.
  * <br/>
  * Example: {@code V2__create_deaths_table.sql}
+ * <p>
+ * The build generates {@code migrations/index.txt}, listing every migration with its version and checksum.
+ * Each applied migration is recorded with its checksum in the {@code schema_migrations} table and the latest
+ * version is mirrored in {@code PRAGMA user_version}, so a startup with a current schema costs a single query.
+ * Every migration runs as a single script in its own transaction, so a migration that rebuilds a table is
+ * applied completely or not at all.
+ * </p>
+ * <p>
+ * Foreign keys are switched off for the whole run, outside of any transaction, so rebuilding a table never
+ * cascades into its children, even when a run resumes halfway through a rebuild. Before they're switched back
+ * on, {@code PRAGMA foreign_key_check} makes sure the migrated rows still line up.
+ * </p>
  *
  * @author Jouri Roosjen
- * @version 1.0.0
+ * @version 2.2.0
  */
 public class MigrationsManager {
+    private static final String INDEX_PATH = "migrations/index.txt";
+
     private final JavaPlugin plugin;
     private final Connection connection;
 
     /**
-     * Represents a database migration file with a version number and its resource path.
+     * Represents a database migration file with a version number, its checksum and its resource path.
      *
      * @param version      The migration version number
+     * @param checksum     The SHA-256 checksum of the SQL, with normalized line endings
      * @param resourcePath The path to the SQL file within the plugin's resources
      */
-    private record Migration(int version, String resourcePath) {
+    private record Migration(int version, String checksum, String resourcePath) {
     }
 
     /**
@@ -53,129 +67,324 @@ public class MigrationsManager {
      * @throws SQLException If an error occurs during the migration process
      */
     public void migrate() throws SQLException {
+        List<Migration> migrations = loadIndex();
+        int latestVersion = migrations.isEmpty() ? 0 : migrations.getLast().version;
+
+        // Fast path, nothing to do when the schema is already current
+        int userVersion = getUserVersion();
+        if (userVersion == latestVersion) return;
+
+        if (userVersion > latestVersion) {
+            plugin.getLogger().warning("[DATABASE] Schema version " + userVersion + " is newer than the latest known migration "
+                    + latestVersion + ", skipping migrations.");
+            return;
+        }
+
         ensureSchemaTableExists();
+        Map<Integer, String> appliedChecksums = getAppliedChecksums();
+        if (appliedChecksums.isEmpty()) appliedChecksums = adoptLegacyVersion(migrations);
 
-        int currentVersion = getCurrentVersion();
-        List<Migration> migrations = loadMigrations();
+        int appliedCount = 0;
+        boolean foreignKeysEnabled = getForeignKeysEnabled();
+        setForeignKeysEnabled(false);
+        try {
+            for (Migration migration : migrations) {
+                String appliedChecksum = appliedChecksums.get(migration.version);
 
-        for (Migration migration : migrations) {
-            if (migration.version > currentVersion) {
-                applyMigration(migration);
-                setCurrentVersion(migration.version);
+                if (appliedChecksum == null) {
+                    applyMigration(migration);
+                    appliedCount++;
+                } else if (!appliedChecksum.equals(migration.checksum)) {
+                    plugin.getLogger().warning("[DATABASE] Migration " + migration.resourcePath + " changed after it was applied.");
+                }
             }
+
+            checkForeignKeys();
+        } finally {
+            setForeignKeysEnabled(foreignKeysEnabled);
         }
 
-        plugin.getLogger().info("[DATABASE] Migrations migrated successfully.");
+        setUserVersion(latestVersion);
+        plugin.getLogger().info("[DATABASE] Applied " + appliedCount + " migrations, schema is at version " + latestVersion + ".");
     }
 
     /**
-     * Ensures the {@code schema_version} table exists and initializes it to version 0 if it does not.
+     * Checks whether foreign keys are enforced on the connection.
+     *
+     * @return {@code true} if foreign keys are enforced
+     * @throws SQLException If a database access error occurs
+     */
+    private boolean getForeignKeysEnabled() throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("PRAGMA foreign_keys")) {
+            return resultSet.next() && resultSet.getInt(1) == 1;
+        }
+    }
+
+    /**
+     * Switches the enforcement of foreign keys on the connection. Must be called outside a transaction,
+     * SQLite ignores it otherwise.
+     *
+     * @param enabled Whether foreign keys should be enforced
+     * @throws SQLException If a database access error occurs
+     */
+    private void setForeignKeysEnabled(boolean enabled) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA foreign_keys = " + (enabled ? "ON" : "OFF"));
+        }
+    }
+
+    /**
+     * Checks that every row still points at an existing parent row after migrating.
+     *
+     * @throws SQLException If a row references a missing parent, or a database access error occurs
+     */
+    private void checkForeignKeys() throws SQLException {
+        Map<String, Integer> violations = new TreeMap<>();
+
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("PRAGMA foreign_key_check")) {
+            while (resultSet.next()) {
+                violations.merge(resultSet.getString("table"), 1, Integer::sum);
+            }
+        }
+
+        if (!violations.isEmpty())
+            throw new SQLException("[DATABASE] Migrated rows reference missing parent rows: " + violations);
+    }
+
+    /**
+     * Loads the migration index generated at build time.
+     *
+     * @return A list of {@link Migration} objects, sorted by version number
+     * @throws SQLException If the index is missing or malformed
+     */
+    private List<Migration> loadIndex() throws SQLException {
+        try (InputStream input = plugin.getResource(INDEX_PATH)) {
+            if (input == null)
+                throw new SQLException("[DATABASE] Missing migration index " + INDEX_PATH + ", was the plugin built with Gradle?");
+
+            List<Migration> migrations = new ArrayList<>();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+
+                String[] parts = line.split(" ", 3);
+                if (parts.length != 3) throw new SQLException("[DATABASE] Malformed migration index line: " + line);
+
+                migrations.add(new Migration(Integer.parseInt(parts[0]), parts[1], "migrations/" + parts[2]));
+            }
+
+            migrations.sort(Comparator.comparingInt(Migration::version));
+            return migrations;
+        } catch (IOException | NumberFormatException e) {
+            throw new SQLException("[DATABASE] Failed to load migration index: ", e);
+        }
+    }
+
+    /**
+     * Ensures the {@code schema_migrations} table exists.
      *
      * @throws SQLException If a database access error occurs
      */
     private void ensureSchemaTableExists() throws SQLException {
         try (Statement statement = connection.createStatement()) {
             statement.execute("""
-                        CREATE TABLE IF NOT EXISTS schema_version (
-                            version INTEGER NOT NULL
+                        CREATE TABLE IF NOT EXISTS schema_migrations (
+                            version       INTEGER PRIMARY KEY,
+                            checksum      TEXT    NOT NULL,
+                            applied_at_ms INTEGER NOT NULL
                         )
                     """);
         }
+    }
 
-        try (Statement statement = connection.createStatement()) {
-            ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM schema_version");
+    /**
+     * Retrieves the checksums of all applied migrations.
+     *
+     * @return The checksums, keyed by version
+     * @throws SQLException If a database access error occurs
+     */
+    private Map<Integer, String> getAppliedChecksums() throws SQLException {
+        Map<Integer, String> checksums = new HashMap<>();
 
-            if (resultSet.next() && resultSet.getInt(1) == 0) {
-                try (PreparedStatement preparedStatement = connection.prepareStatement("INSERT INTO schema_version (version) VALUES (0)")) {
-                    preparedStatement.execute();
-                }
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT version, checksum FROM schema_migrations")) {
+            while (resultSet.next()) {
+                checksums.put(resultSet.getInt("version"), resultSet.getString("checksum"));
             }
         }
+        return checksums;
     }
 
     /**
-     * Loads all migration files from the resources folder and parses their version numbers.
+     * Records the migrations that were applied before checksums were tracked, based on the single version
+     * in the legacy {@code schema_version} table. Their current checksums are trusted.
      *
-     * @return A list of {@link Migration} objects, sorted by version number
+     * @param migrations All known migrations
+     * @return The checksums of the adopted migrations, keyed by version
+     * @throws SQLException If a database access error occurs
      */
-    private List<Migration> loadMigrations() {
-        try {
-            List<String> resources = Arrays.asList(
-                    "migrations/V1__create_players_table.sql",
-                    "migrations/V2__create_deaths_table.sql",
-                    "migrations/V3__create_piggy_bank_table.sql",
-                    "migrations/V4__create_buyback_assists_table.sql",
-                    "migrations/V5__create_penalties_table.sql",
-                    "migrations/V6__create_sessions_table.sql",
-                    "migrations/V7__create_statistic_types_table.sql",
-                    "migrations/V8__insert_statistic_types.sql",
-                    "migrations/V9__create_player_statistics_table.sql"
-            );
-
-            Pattern pattern = Pattern.compile("V(\\d+)__.*\\.sql");
+    private Map<Integer, String> adoptLegacyVersion(List<Migration> migrations) throws SQLException {
+        Map<Integer, String> checksums = new HashMap<>();
 
-            List<Migration> migrations = new ArrayList<>();
-            for (String resource : resources) {
-                Matcher matcher = pattern.matcher(resource);
-                if (matcher.find()) {
-                    int version = Integer.parseInt(matcher.group(1));
-                    migrations.add(new Migration(version, resource));
-                }
+        int legacyVersion = getLegacyVersion();
+        if (legacyVersion == 0) return checksums;
+
+        connection.setAutoCommit(false);
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO schema_migrations (version, checksum, applied_at_ms) VALUES (?, ?, ?)")) {
+            for (Migration migration : migrations) {
+                if (migration.version > legacyVersion) break;
+
+                statement.setInt(1, migration.version);
+                statement.setString(2, migration.checksum);
+                statement.setLong(3, System.currentTimeMillis());
+                statement.addBatch();
+                checksums.put(migration.version, migration.checksum);
             }
 
-            migrations.sort(Comparator.comparingInt(migration -> migration.version));
-            return migrations;
-        } catch (Exception e) {
-            throw new RuntimeException("[DATABASE] Failed to load migration list: ", e);
+            statement.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
         }
+
+        plugin.getLogger().info("[DATABASE] Adopted " + checksums.size() + " migrations from the legacy schema version.");
+        return checksums;
     }
 
     /**
-     * Applies a single migration by executing the SQL from the specified resource file.
+     * Retrieves the version from the legacy {@code schema_version} table.
+     *
+     * @return The legacy version number, {@code 0} if the table doesn't exist
+     * @throws SQLException If a database access error occurs
+     */
+    private int getLegacyVersion() throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = 'schema_version'")) {
+            if (!resultSet.next()) return 0;
+        }
+
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT version FROM schema_version")) {
+            return resultSet.next() ? resultSet.getInt("version") : 0;
+        }
+    }
+
+    /**
+     * Applies a single migration by executing the SQL from the specified resource file
+     * and records it, in one transaction.
      *
      * @param migration The {@link Migration} to apply
      * @throws SQLException If the migration fails or the file cannot be read
      */
     private void applyMigration(Migration migration) throws SQLException {
-        try (InputStream input = plugin.getResource(migration.resourcePath)) {
-            if (input == null)
-                throw new RuntimeException("[DATABASE] Missing migration file: " + migration.resourcePath);
+        String sql = readMigration(migration);
 
-            String sql = new BufferedReader(new InputStreamReader(input))
-                    .lines()
-                    .reduce("", (a, b) -> a + "\n" + b);
+        try {
+            connection.setAutoCommit(false);
+            try {
+                // The driver runs every statement of the script on executeUpdate, execute would stop after the first
+                try (Statement statement = connection.createStatement()) {
+                    statement.executeUpdate(sql);
+                }
 
-            try (Statement statement = connection.createStatement()) {
-                statement.execute(sql);
+                recordMigration(migration);
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
             }
-        } catch (Exception e) {
+        } catch (SQLException e) {
             throw new SQLException("[DATABASE] Failed to apply migration: " + migration.resourcePath, e);
         }
     }
 
     /**
-     * Retrieves the current schema version from the {@code schema_version} table.
+     * Reads the SQL of a migration and checks it against the checksum in the index.
      *
-     * @return The current version number
+     * @param migration The {@link Migration} to read
+     * @return The SQL of the migration
+     * @throws SQLException If the file is missing, can't be read or doesn't match its checksum
+     */
+    private String readMigration(Migration migration) throws SQLException {
+        try (InputStream input = plugin.getResource(migration.resourcePath)) {
+            if (input == null)
+                throw new SQLException("[DATABASE] Missing migration file: " + migration.resourcePath);
+
+            String sql = new String(input.readAllBytes(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+            if (!checksum(sql).equals(migration.checksum))
+                throw new SQLException("[DATABASE] Migration " + migration.resourcePath + " doesn't match its checksum in the index.");
+
+            return sql;
+        } catch (IOException e) {
+            throw new SQLException("[DATABASE] Failed to read migration: " + migration.resourcePath, e);
+        }
+    }
+
+    /**
+     * Records an applied migration and moves the user version along.
+     *
+     * @param migration The applied {@link Migration}
      * @throws SQLException If a database access error occurs
      */
-    private int getCurrentVersion() throws SQLException {
-        try (Statement statement = connection.createStatement()) {
-            ResultSet resultSet = statement.executeQuery("SELECT version FROM schema_version");
-            return resultSet.next() ? resultSet.getInt("version") : 0;
+    private void recordMigration(Migration migration) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO schema_migrations (version, checksum, applied_at_ms) VALUES (?, ?, ?)")) {
+            statement.setInt(1, migration.version);
+            statement.setString(2, migration.checksum);
+            statement.setLong(3, System.currentTimeMillis());
+            statement.execute();
+        }
+
+        setUserVersion(migration.version);
+    }
+
+    /**
+     * Retrieves the version the schema was last migrated to.
+     *
+     * @return The current version number, {@code 0} if the migrations never ran with checksums
+     * @throws SQLException If a database access error occurs
+     */
+    private int getUserVersion() throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("PRAGMA user_version")) {
+            return resultSet.next() ? resultSet.getInt(1) : 0;
         }
     }
 
     /**
-     * Updates the schema version in the {@code schema_version} table.
+     * Updates the version the schema was last migrated to.
      *
      * @param version The new version number to set
      * @throws SQLException If a database access error occurs
      */
-    private void setCurrentVersion(int version) throws SQLException {
-        try (PreparedStatement preparedStatement = connection.prepareStatement("UPDATE schema_version SET version = ?")) {
-            preparedStatement.setInt(1, version);
-            preparedStatement.executeUpdate();
+    private void setUserVersion(int version) throws SQLException {
+        // Pragmas can't be bound, the version is an int so it's safe to inline
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA user_version = " + version);
+        }
+    }
+
+    /**
+     * Calculates the SHA-256 checksum of a migration, the same way the build does.
+     *
+     * @param sql The SQL of the migration
+     * @return The hex encoded checksum
+     */
+    private static String checksum(String sql) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(sql.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         }
     }
 }
@@ -0,0 +1,129 @@
+package com.jouriroosjen.hardcoreSMPPlugin.database;
+
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps player UUIDs to the integer {@code players.id} every other table references.
+ * <p>
+ * All players are loaded once at startup and new players are added once their save is committed, so writers
+ * can resolve the id without asking the database. A miss falls back to a lookup by UUID. Inside a transaction
+ * that lookup may see a save that can still roll back, so it's only cached outside of one.
+ * </p>
+ *
+ * @author Jouri Roosjen
+ * @version 1.2.0
+ */
+public class PlayerIdCache {
+    private final JavaPlugin plugin;
+    private final DatabaseExecutor databaseExecutor;
+    private final Map<UUID, Integer> playerIds = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new {@code PlayerIdCache} instance.
+     *
+     * @param plugin           The main plugin instance
+     * @param databaseExecutor The database executor that owns the connection
+     */
+    public PlayerIdCache(JavaPlugin plugin, DatabaseExecutor databaseExecutor) {
+        this.plugin = plugin;
+        this.databaseExecutor = databaseExecutor;
+    }
+
+    /**
+     * Loads the ids of all players.
+     *
+     * @param connection The connection to read from.
+     * @throws SQLException If a database error occurs.
+     */
+    public void load(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT id, uuid FROM players");
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                try {
+                    playerIds.put(UUID.fromString(resultSet.getString("uuid")), resultSet.getInt("id"));
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().warning("[DATABASE] Invalid UUID found in database: " + resultSet.getString("uuid"));
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the id of a player, looking it up when it isn't cached yet.
+     *
+     * @param connection The connection to look the id up on when it isn't cached.
+     * @param playerUuid The UUID of the player.
+     * @return The id of the player.
+     * @throws SQLException If the player doesn't exist or a database error occurs.
+     */
+    public int getId(Connection connection, UUID playerUuid) throws SQLException {
+        OptionalInt playerId = findId(connection, playerUuid);
+        if (playerId.isEmpty()) throw new SQLException("Unknown player: " + playerUuid);
+
+        return playerId.getAsInt();
+    }
+
+    /**
+     * Finds the id of a player, looking it up when it isn't cached yet.
+     * Meant for reads, where a player that isn't saved yet simply has no rows.
+     *
+     * @param connection The connection to look the id up on when it isn't cached.
+     * @param playerUuid The UUID of the player.
+     * @return An optional filled with the id of the player, empty if the player doesn't exist.
+     * @throws SQLException If a database error occurs.
+     */
+    public OptionalInt findId(Connection connection, UUID playerUuid) throws SQLException {
+        Integer playerId = playerIds.get(playerUuid);
+        if (playerId != null) return OptionalInt.of(playerId);
+
+        PreparedStatement statement = databaseExecutor.prepare(connection, "SELECT id FROM players WHERE uuid = ?");
+        statement.setString(1, playerUuid.toString());
+
+        try (ResultSet resultSet = statement.executeQuery()) {
+            if (!resultSet.next()) return OptionalInt.empty();
+
+            playerId = resultSet.getInt("id");
+        }
+
+        if (connection.getAutoCommit()) playerIds.put(playerUuid, playerId);
+        return OptionalInt.of(playerId);
+    }
+
+    /**
+     * Checks whether the id of a player is cached, which is the case for every player that's in the database.
+     *
+     * @param playerUuid The UUID of the player.
+     * @return {@code true} if the player is known.
+     */
+    public boolean contains(UUID playerUuid) {
+        return playerIds.containsKey(playerUuid);
+    }
+
+    /**
+     * Caches the id of a player whose save was just committed.
+     *
+     * @param playerUuid The UUID of the player.
+     * @param playerId   The id the database assigned.
+     */
+    public void put(UUID playerUuid, int playerId) {
+        playerIds.put(playerUuid, playerId);
+    }
+
+    /**
+     * Gets the amount of cached players.
+     *
+     * @return The cache size.
+     */
+    public int size() {
+        return playerIds.size();
+    }
+}
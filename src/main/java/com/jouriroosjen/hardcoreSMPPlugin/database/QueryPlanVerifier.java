@@ -0,0 +1,199 @@
+package com.jouriroosjen.hardcoreSMPPlugin.database;
+
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks the query plans of the lookups the plugin runs on hot paths and warns about the ones that scan a whole table.
+ * <p>
+ * The plans are asked with {@code EXPLAIN QUERY PLAN}, which only prepares the statement, so nothing is read or written.
+ * Parameters are left unbound, SQLite plans with them as unknown values, which is the same plan a lookup by any
+ * value gets.
+ * </p>
+ *
+ * @author Jouri Roosjen
+ * @version 1.3.0
+ */
+public class QueryPlanVerifier {
+    /**
+     * A query whose plan is checked.
+     *
+     * @param name      The name shown in the log.
+     * @param sql       The SQL of the query.
+     * @param allowScan Whether a full scan is expected, for queries that read a whole table on purpose.
+     */
+    private record CheckedQuery(String name, String sql, boolean allowScan) {
+    }
+
+    private static final List<CheckedQuery> QUERIES = List.of(
+            new CheckedQuery("player exists", "SELECT 1 FROM players WHERE uuid = ? LIMIT 1", false),
+            new CheckedQuery("player id", "SELECT id FROM players WHERE uuid = ?", false),
+            new CheckedQuery("player is alive", "SELECT is_alive FROM players WHERE uuid = ?", false),
+            new CheckedQuery("player playtime", "SELECT (playtime_seconds) FROM players WHERE uuid = ?", false),
+            new CheckedQuery("player grace", "SELECT (has_grace) FROM players WHERE uuid = ?", false),
+            new CheckedQuery("player minimum playtime", "SELECT (has_minimum_playtime) FROM players WHERE uuid = ?", false),
+            new CheckedQuery("add playtime", "UPDATE players SET playtime_seconds = playtime_seconds + ? WHERE uuid = ?", false),
+            new CheckedQuery("revive player", "UPDATE players SET is_alive = 1, updated_at = datetime('now') WHERE uuid = ?", false),
+            new CheckedQuery("all players", "SELECT uuid FROM players", true),
+            new CheckedQuery("latest death of player", "SELECT (id) FROM deaths WHERE player_id = ? ORDER BY created_at_ms DESC, id DESC LIMIT 1", false),
+            new CheckedQuery("latest death", """
+                    SELECT players.uuid FROM deaths
+                    JOIN players ON players.id = deaths.player_id
+                    ORDER BY deaths.created_at_ms DESC, deaths.id DESC
+                    LIMIT 1
+                    """, false),
+            new CheckedQuery("debt of player", "SELECT SUM(amount) AS total_debt FROM piggy_bank WHERE player_id = ?", false),
+            new CheckedQuery("piggy bank total", "SELECT SUM(amount) AS total FROM piggy_bank", true),
+            new CheckedQuery("assists of death", """
+                    SELECT players.uuid AS giving_player_uuid, buyback_assists.amount
+                    FROM buyback_assists
+                    JOIN players ON players.id = buyback_assists.giving_player_id
+                    WHERE buyback_assists.receiving_player_death_id = ?
+                    """, false),
+            new CheckedQuery("assisted amount of death", "SELECT COALESCE(SUM(amount), 0) AS assisted_amount FROM buyback_assists WHERE receiving_player_death_id = ?", false),
+            new CheckedQuery("latest assist", """
+                    SELECT players.uuid FROM buyback_assists
+                    JOIN players ON players.id = buyback_assists.giving_player_id
+                    ORDER BY buyback_assists.created_at_ms DESC, buyback_assists.id DESC
+                    LIMIT 1
+                    """, false),
+            new CheckedQuery("statistics of player", "SELECT statistic_type, value FROM player_statistics WHERE player_id = ?", false),
+            new CheckedQuery("all statistics", """
+                    SELECT players.uuid, player_statistics.statistic_type, player_statistics.value
+                    FROM player_statistics
+                    JOIN players ON players.id = player_statistics.player_id
+                    """, true),
+            new CheckedQuery("statistic sum since", """
+                    SELECT COALESCE(SUM(value), 0) AS total
+                    FROM (
+                        SELECT value FROM player_statistic_rollups
+                        WHERE player_uuid = ? AND statistic_type = ? AND granularity = ? AND bucket_start >= ?
+                        UNION ALL
+                        SELECT value FROM player_statistic_rollups
+                        WHERE player_uuid = ? AND statistic_type = ? AND granularity = ? AND bucket_start >= ?
+                    )
+                    """, false),
+            new CheckedQuery("statistic top since", """
+                    SELECT player_uuid, SUM(value) AS total
+                    FROM (
+                        SELECT player_uuid, value FROM player_statistic_rollups
+                        WHERE statistic_type = ? AND granularity = ? AND bucket_start >= ?
+                        UNION ALL
+                        SELECT player_uuid, value FROM player_statistic_rollups
+                        WHERE statistic_type = ? AND granularity = ? AND bucket_start >= ?
+                    )
+                    GROUP BY player_uuid
+                    ORDER BY total DESC
+                    LIMIT ?
+                    """, false),
+            new CheckedQuery("compact rollups", "DELETE FROM player_statistic_rollups WHERE granularity = ? AND bucket_start < ?", true),
+            new CheckedQuery("expired sessions", "SELECT id FROM sessions WHERE created_at_ms < ? ORDER BY created_at_ms, id LIMIT ?", false),
+            new CheckedQuery("expired piggy bank entries", "SELECT id FROM piggy_bank WHERE created_at_ms < ? AND is_summary = 0 ORDER BY created_at_ms, id LIMIT ?", false),
+            new CheckedQuery("expired penalties", "SELECT id FROM penalties WHERE created_at_ms < ? ORDER BY created_at_ms, id LIMIT ?", false),
+            new CheckedQuery("expired deaths", "SELECT id FROM deaths WHERE created_at_ms < ? ORDER BY created_at_ms, id LIMIT ?", false)
+    );
+
+    private final JavaPlugin plugin;
+    private final DatabaseExecutor databaseExecutor;
+
+    /**
+     * Constructs a new {@code QueryPlanVerifier} instance.
+     *
+     * @param plugin           The main plugin instance
+     * @param databaseExecutor The database executor that owns the connection
+     */
+    public QueryPlanVerifier(JavaPlugin plugin, DatabaseExecutor databaseExecutor) {
+        this.plugin = plugin;
+        this.databaseExecutor = databaseExecutor;
+    }
+
+    /**
+     * Checks all query plans on a read connection and logs the result.
+     */
+    public void verifyAsync() {
+        databaseExecutor.submitRead(this::verify)
+                .whenComplete((problems, error) -> {
+                    if (error != null) {
+                        plugin.getLogger().warning("[DATABASE] Failed to verify query plans: " + error.getMessage());
+                        return;
+                    }
+
+                    if (problems == 0)
+                        plugin.getLogger().info("[DATABASE] All " + QUERIES.size() + " query plans use an index.");
+                    else
+                        plugin.getLogger().warning("[DATABASE] " + problems + " of " + QUERIES.size() + " query plans scan a whole table.");
+                });
+    }
+
+    /**
+     * Checks the plan of every query and warns about each unexpected full scan.
+     *
+     * @param connection The connection to plan the queries on.
+     * @return The amount of queries with an unexpected full scan.
+     * @throws SQLException If a query can't be planned, e.g. because a table or column is missing.
+     */
+    private int verify(Connection connection) throws SQLException {
+        int problems = 0;
+
+        for (CheckedQuery query : QUERIES) {
+            List<String> scans = findScans(connection, query.sql());
+            if (scans.isEmpty() || query.allowScan()) continue;
+
+            problems++;
+            plugin.getLogger().warning("[DATABASE] Query '" + query.name() + "' does a full scan: " + String.join(", ", scans));
+        }
+
+        return problems;
+    }
+
+    /**
+     * Gets the steps of a query plan that scan a table.
+     * Scans of subqueries are left out, they only walk rows an earlier step already found.
+     * So are index scans of a {@code LIMIT} query that needs no sort, those walk the index in order and stop early.
+     *
+     * @param connection The connection to plan the query on.
+     * @param sql        The SQL of the query.
+     * @return The scanning steps, empty when every table is searched through an index.
+     * @throws SQLException If the query can't be planned.
+     */
+    private List<String> findScans(Connection connection, String sql) throws SQLException {
+        List<String> details = new ArrayList<>();
+
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN QUERY PLAN " + sql);
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                String detail = resultSet.getString("detail");
+                if (detail != null) details.add(detail);
+            }
+        }
+
+        boolean isOrderedWalk = sql.contains("LIMIT") && details.stream().noneMatch(detail -> detail.startsWith("USE TEMP B-TREE"));
+
+        List<String> scans = new ArrayList<>();
+        for (String detail : details) {
+            if (!detail.startsWith("SCAN ") || isSubqueryScan(detail)) continue;
+            if (isOrderedWalk && detail.contains(" INDEX ")) continue;
+
+            scans.add(detail);
+        }
+
+        return scans;
+    }
+
+    /**
+     * Checks whether a scanning step walks a subquery or constant row instead of a table.
+     * The wording differs between SQLite versions, e.g. {@code SCAN (subquery-2)} and {@code SCAN SUBQUERY 2}.
+     *
+     * @param detail The detail of the plan step.
+     * @return {@code true} if the step doesn't scan a table.
+     */
+    private static boolean isSubqueryScan(String detail) {
+        return detail.startsWith("SCAN (") || detail.startsWith("SCAN SUBQUERY") || detail.startsWith("SCAN CONSTANT ROW");
+    }
+}
@@ -0,0 +1,319 @@
+package com.jouriroosjen.hardcoreSMPPlugin.database;
+
+import com.jouriroosjen.hardcoreSMPPlugin.database.dao.*;
+import com.jouriroosjen.hardcoreSMPPlugin.enums.PlayerStatisticsEnum;
+import com.jouriroosjen.hardcoreSMPPlugin.statistics.StatisticsLeaderboard;
+import com.jouriroosjen.hardcoreSMPPlugin.statistics.StatisticsRollups;
+import com.jouriroosjen.hardcoreSMPPlugin.storage.*;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The {@link Storage} of the plugin, backed by the SQLite database.
+ * <p>
+ * Reads are single tasks on the read connections of the {@link DatabaseExecutor}. Gameplay writes go through the
+ * {@link GroupCommitQueue}, which commits them in groups, each write atomic within its own savepoint. Statistics
+ * already arrive in batches from their own pipeline, so they go to the writer directly, but flush the queue first
+ * so they're never written before a pending save of their player. Loading the playtime progress does the same,
+ * so it always includes the writes of a player's previous session. The DAOs only hold the SQL per table,
+ * combining them is done here.
+ * </p>
+ *
+ * @author Jouri Roosjen
+ * @version 1.4.0
+ */
+public class SqliteStorage implements Storage {
+    private final JavaPlugin plugin;
+    private final DatabaseExecutor databaseExecutor;
+    private final PlayerIdCache playerIdCache;
+    private final GroupCommitQueue writeQueue;
+
+    private final PlayerDao playerDao;
+    private final DeathDao deathDao;
+    private final PiggyBankDao piggyBankDao;
+    private final BuybackAssistDao buybackAssistDao;
+    private final PenaltyDao penaltyDao;
+    private final SessionDao sessionDao;
+    private final StatisticsDao statisticsDao;
+    private final JournalWatermarkDao journalWatermarkDao;
+    private final StatisticsRollups rollups;
+
+    /**
+     * Constructs a new {@code SqliteStorage} instance.
+     *
+     * @param plugin           The main plugin instance
+     * @param databaseExecutor The database executor that owns the connections
+     * @param playerIdCache    The cache of player ids, also tells which players are already saved
+     * @param writeQueue       The queue that commits the gameplay writes in groups
+     */
+    public SqliteStorage(JavaPlugin plugin, DatabaseExecutor databaseExecutor, PlayerIdCache playerIdCache, GroupCommitQueue writeQueue) {
+        this.plugin = plugin;
+        this.databaseExecutor = databaseExecutor;
+        this.playerIdCache = playerIdCache;
+        this.writeQueue = writeQueue;
+
+        this.playerDao = new PlayerDao(databaseExecutor);
+        this.deathDao = new DeathDao(databaseExecutor, playerIdCache);
+        this.piggyBankDao = new PiggyBankDao(databaseExecutor, playerIdCache);
+        this.buybackAssistDao = new BuybackAssistDao(databaseExecutor, playerIdCache);
+        this.penaltyDao = new PenaltyDao(databaseExecutor, playerIdCache);
+        this.sessionDao = new SessionDao(databaseExecutor, playerIdCache);
+        this.statisticsDao = new StatisticsDao(databaseExecutor, playerIdCache);
+        this.journalWatermarkDao = new JournalWatermarkDao(databaseExecutor);
+        this.rollups = new StatisticsRollups(databaseExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> savePlayer(UUID playerUuid, String username) {
+        if (playerIdCache.contains(playerUuid)) return CompletableFuture.completedFuture(false);
+
+        return writeQueue.submit(connection -> {
+            // Later writes in the same batch find the new row through the connection, not through the cache
+            if (playerIdCache.findId(connection, playerUuid).isPresent()) return OptionalInt.empty();
+
+            return OptionalInt.of(playerDao.insert(connection, playerUuid, username));
+        }).thenApply(playerId -> {
+            // The batch is committed now, so the id can't roll back anymore
+            playerId.ifPresent(id -> playerIdCache.put(playerUuid, id));
+            return playerId.isPresent();
+        });
+    }
+
+    @Override
+    public CompletableFuture<PlayerProgress> getProgress(UUID playerUuid) {
+        // The last session and milestones of a player that just left may still be queued, so read on the writer
+        // after them instead of on a read connection that could run before they're committed
+        writeQueue.flush();
+        return databaseExecutor.submit(connection -> playerDao.getProgress(connection, playerUuid));
+    }
+
+    @Override
+    public CompletableFuture<Void> addPlaytime(UUID playerUuid, long seconds) {
+        return writeQueue.submit(connection -> {
+            playerDao.addPlaytime(connection, playerUuid, seconds);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> revokeGrace(UUID playerUuid) {
+        return writeQueue.submit(connection -> {
+            playerDao.revokeGrace(connection, playerUuid);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> markMinimumPlaytimeReached(UUID playerUuid) {
+        return writeQueue.submit(connection -> {
+            playerDao.markMinimumPlaytimeReached(connection, playerUuid);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> closeSession(UUID playerUuid, long seconds, long unsavedSeconds) {
+        // Add the playtime and record the session in one write, so a crash can never count a session twice
+        return writeQueue.submit(connection -> {
+            playerDao.addPlaytime(connection, playerUuid, unsavedSeconds);
+            sessionDao.insert(connection, playerUuid, seconds);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> recordDeath(UUID playerUuid, String cause) {
+        return writeQueue.submit(connection -> {
+            deathDao.insert(connection, playerUuid, cause);
+            playerDao.markDead(connection, playerUuid);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Optional<UUID>> findLatestDeath() {
+        return databaseExecutor.submitRead(deathDao::findLatestDeadPlayer);
+    }
+
+    @Override
+    public CompletableFuture<Double> getTotalDebt(UUID playerUuid) {
+        return databaseExecutor.submitRead(connection -> piggyBankDao.getTotalDebt(connection, playerUuid));
+    }
+
+    @Override
+    public CompletableFuture<Double> getPiggyBankTotal() {
+        return databaseExecutor.submitRead(piggyBankDao::getTotal);
+    }
+
+    @Override
+    public CompletableFuture<BuybackQuote> quoteBuyback(UUID playerUuid) {
+        BuybackPrices prices = BuybackPrices.fromConfig(plugin.getConfig());
+
+        return databaseExecutor.submitRead(connection -> {
+            if (!playerDao.isDead(connection, playerUuid)) return new BuybackQuote(false, 0, 0);
+
+            OptionalInt deathId = deathDao.findLatestDeathId(connection, playerUuid);
+            double assistedAmount = deathId.isPresent() ? buybackAssistDao.getAssistedAmount(connection, deathId.getAsInt()) : 0;
+
+            return new BuybackQuote(true, prices.priceFor(playerDao.hasGrace(connection, playerUuid)), assistedAmount);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> settleBuyback(UUID playerUuid) {
+        BuybackPrices prices = BuybackPrices.fromConfig(plugin.getConfig());
+
+        return writeQueue.submit(connection -> {
+            // A second confirm may have queued behind the first one, so check again in the same transaction
+            if (!playerDao.isDead(connection, playerUuid)) return false;
+
+            int buybackPrice = prices.priceFor(playerDao.hasGrace(connection, playerUuid));
+            double totalAssistedAmount = 0;
+
+            OptionalInt deathId = deathDao.findLatestDeathId(connection, playerUuid);
+            if (deathId.isPresent()) {
+                for (BuybackAssistDao.BuybackAssist assist : buybackAssistDao.findByDeath(connection, deathId.getAsInt())) {
+                    piggyBankDao.insert(connection, assist.givingPlayer(), assist.amount(), true, false);
+                    totalAssistedAmount += assist.amount();
+                }
+            }
+
+            // Let the player pay remaining amount
+            piggyBankDao.insert(connection, playerUuid, buybackPrice - totalAssistedAmount, false, false);
+            playerDao.markAlive(connection, playerUuid);
+            return true;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> assistBuyback(UUID sender, UUID target, int percentage) {
+        BuybackPrices prices = BuybackPrices.fromConfig(plugin.getConfig());
+
+        return writeQueue.submit(connection -> {
+            int buybackPrice = prices.priceFor(playerDao.hasGrace(connection, target));
+            double assistAmount = BuybackPrices.calculateAssistAmount(percentage, buybackPrice);
+
+            OptionalInt deathId = deathDao.findLatestDeathId(connection, target);
+            if (deathId.isEmpty()) throw new SQLException("No death found for player: " + target);
+
+            double availableAmount = BuybackPrices.maxAssistedAmount(buybackPrice) - buybackAssistDao.getAssistedAmount(connection, deathId.getAsInt());
+            if (availableAmount < assistAmount) return false;
+
+            buybackAssistDao.insert(connection, sender, target, deathId.getAsInt(), assistAmount);
+            return true;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Optional<UUID>> findLatestAssist() {
+        return databaseExecutor.submitRead(buybackAssistDao::findLatestGivingPlayer);
+    }
+
+    @Override
+    public CompletableFuture<Void> createPenalty(UUID playerUuid, double amount, String reason) {
+        return writeQueue.submit(connection -> {
+            penaltyDao.insert(connection, playerUuid, amount, reason);
+            piggyBankDao.insert(connection, playerUuid, amount, false, true);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<double[]> loadStatistics(UUID playerUuid) {
+        return databaseExecutor.submitRead(connection -> statisticsDao.find(connection, playerUuid));
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, double[]>> loadAllStatistics() {
+        return databaseExecutor.submitRead(statisticsDao::findAll);
+    }
+
+    @Override
+    public CompletableFuture<Optional<JournalWatermark>> loadJournalWatermark() {
+        return databaseExecutor.submitRead(journalWatermarkDao::find);
+    }
+
+    @Override
+    public CompletableFuture<Void> writeStatistics(List<StatisticDelta> deltas, long nowMillis, JournalWatermark watermark) {
+        writeQueue.flush();
+        return databaseExecutor.submitTransaction(connection -> {
+            statisticsDao.upsertBatch(connection, deltas);
+            rollups.upsertBatch(connection, deltas, nowMillis);
+            if (watermark != null) journalWatermarkDao.save(connection, watermark);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Integer> writeStatisticsIndividually(List<StatisticDelta> deltas, long nowMillis, JournalWatermark watermark) {
+        writeQueue.flush();
+        return databaseExecutor.submitTransaction(connection -> {
+            int rejected = 0;
+
+            for (StatisticDelta delta : deltas) {
+                if (!writeStatistic(connection, delta, nowMillis)) rejected++;
+            }
+
+            // Rejected deltas are skipped for good, so the watermark moves past them as well
+            if (watermark != null) journalWatermarkDao.save(connection, watermark);
+            return rejected;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Double> sumStatisticSince(UUID playerUuid, PlayerStatisticsEnum statistic, long sinceMillis) {
+        return databaseExecutor.submitRead(connection -> rollups.sumSince(connection, playerUuid, statistic, sinceMillis));
+    }
+
+    @Override
+    public CompletableFuture<List<StatisticsLeaderboard.Entry>> topStatisticSince(PlayerStatisticsEnum statistic, long sinceMillis, int limit) {
+        return databaseExecutor.submitRead(connection -> rollups.topSince(connection, statistic, sinceMillis, limit));
+    }
+
+    @Override
+    public CompletableFuture<Integer> compactStatisticRollups(long hourlyCutoffMillis, long dailyCutoffMillis) {
+        return databaseExecutor.submitTransaction(connection -> rollups.compact(connection, hourlyCutoffMillis, dailyCutoffMillis));
+    }
+
+    /**
+     * Waits on the executor instead, so waits on the server thread are still recorded.
+     */
+    @Override
+    public <T> T await(CompletableFuture<T> future) throws SQLException {
+        return databaseExecutor.await(future);
+    }
+
+    /**
+     * Adds a single delta to the lifetime total and its hourly rollup, which succeed or fail together.
+     *
+     * @param connection The writer connection of the running transaction
+     * @param delta      The delta to add
+     * @param nowMillis  The moment the delta is attributed to
+     * @return {@code true} if the delta was added, {@code false} if it was rejected
+     * @throws SQLException If the savepoint can't be set or rolled back
+     */
+    private boolean writeStatistic(Connection connection, StatisticDelta delta, long nowMillis) throws SQLException {
+        Savepoint savepoint = connection.setSavepoint();
+
+        try {
+            statisticsDao.upsert(connection, delta);
+            rollups.upsert(connection, delta, nowMillis);
+
+            connection.releaseSavepoint(savepoint);
+            return true;
+        } catch (SQLException e) {
+            connection.rollback(savepoint);
+            plugin.getLogger().warning("Failed to process statistic job: " + delta + " - " + e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.jouriroosjen.hardcoreSMPPlugin.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the prepared statements of a single connection around, keyed by their SQL, so SQLite doesn't have to
+ * parse and plan the same statement again for every call.
+ * <p>
+ * A cache belongs to the thread that owns its connection and must only be used from that thread. Statements handed
+ * out by it must not be closed by the caller. The least recently used statement is evicted when the cache is full,
+ * but only closed once the current task is done, since the task may still be using it.
+ * Every statement is instrumented by {@link StatementMetrics} before it's handed out.
+ * </p>
+ *
+ * @author Jouri Roosjen
+ * @version 1.1.0
+ */
+public class StatementCache {
+    private final Connection connection;
+    private final int capacity;
+    private final StatementMetrics statementMetrics;
+    private final Map<String, PreparedStatement> statements;
+    private final List<PreparedStatement> closeAfterTask;
+
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+
+    /**
+     * Constructs a new {@code StatementCache} instance.
+     *
+     * @param connection       The connection to prepare the statements on
+     * @param capacity         The maximum amount of cached statements, {@code 0} disables caching
+     * @param statementMetrics The metrics to record the executions of the statements in
+     */
+    public StatementCache(Connection connection, int capacity, StatementMetrics statementMetrics) {
+        this.connection = connection;
+        this.capacity = capacity;
+        this.statementMetrics = statementMetrics;
+        this.closeAfterTask = new ArrayList<>();
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= StatementCache.this.capacity) return false;
+
+                closeAfterTask.add(eldest.getValue());
+                return true;
+            }
+        };
+
+        this.hits = new AtomicLong(0);
+        this.misses = new AtomicLong(0);
+    }
+
+    /**
+     * Gets the connection the statements are prepared on.
+     *
+     * @return The connection.
+     */
+    public Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Gets the cached statement for the given SQL, preparing it on a miss.
+     *
+     * @param sql The SQL of the statement.
+     * @return The prepared statement, which must not be closed.
+     * @throws SQLException If the statement can't be prepared.
+     */
+    public PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement statement = statements.get(sql);
+        if (statement != null) {
+            hits.incrementAndGet();
+            return statement;
+        }
+
+        misses.incrementAndGet();
+        statement = statementMetrics.instrument(sql, connection.prepareStatement(sql));
+
+        if (capacity == 0) closeAfterTask.add(statement);
+        else statements.put(sql, statement);
+
+        return statement;
+    }
+
+    /**
+     * Closes the statements that were evicted or never cached while the last task ran.
+     */
+    public void afterTask() {
+        if (closeAfterTask.isEmpty()) return;
+
+        for (PreparedStatement statement : closeAfterTask) {
+            closeQuietly(statement);
+        }
+        closeAfterTask.clear();
+    }
+
+    /**
+     * Closes all statements, cached or not.
+     */
+    public void close() {
+        afterTask();
+
+        for (PreparedStatement statement : statements.values()) {
+            closeQuietly(statement);
+        }
+        statements.clear();
+    }
+
+    /**
+     * Gets the amount of statements that were served from the cache.
+     *
+     * @return The cache hits.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the amount of statements that had to be prepared.
+     *
+     * @return The cache misses.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Resets the hit and miss counters.
+     */
+    public void resetCounters() {
+        hits.set(0);
+        misses.set(0);
+    }
+
+    /**
+     * Closes a statement, ignoring errors since there's nothing left to do with it.
+     *
+     * @param statement The statement to close.
+     */
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+        }
+    }
+}
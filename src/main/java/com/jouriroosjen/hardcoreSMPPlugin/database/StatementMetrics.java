@@ -0,0 +1,205 @@
+package com.jouriroosjen.hardcoreSMPPlugin.database;
+
+import com.jouriroosjen.hardcoreSMPPlugin.storage.Storage;
+import com.jouriroosjen.hardcoreSMPPlugin.utils.Histogram;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long every statement takes, per SQL, and logs the ones that are slower than the configured threshold.
+ * <p>
+ * Statements are instrumented by {@link StatementCache}, only their {@code execute} calls are timed, so reading
+ * the rows of a result set afterward isn't included. The server thread never runs statements itself, but it can
+ * block on {@link DatabaseExecutor#call} or a {@link Storage#await}, so those waits are recorded and flagged separately.
+ * </p>
+ *
+ * @author Jouri Roosjen
+ * @version 1.0.1
+ */
+public class StatementMetrics {
+    private static final int MAX_LOGGED_SQL_LENGTH = 200;
+
+    // Frames of these classes are skipped when looking for the code that waited
+    private static final Set<String> INFRASTRUCTURE_CLASSES = Set.of(
+            DatabaseExecutor.class.getName(),
+            StatementMetrics.class.getName(),
+            SqliteStorage.class.getName(),
+            Storage.class.getName()
+    );
+
+    private final JavaPlugin plugin;
+    private final long slowThresholdNanos;
+    private final Map<String, Histogram> latenciesMicros;
+    private final Histogram serverThreadWaitsMicros;
+
+    /**
+     * Latency summary of a single statement.
+     *
+     * @param sql       The SQL of the statement, with its whitespace collapsed
+     * @param calls     The amount of times it was executed since the last reset
+     * @param p50Millis The median time an execution took
+     * @param p99Millis The 99th percentile time an execution took
+     * @param maxMillis The longest time an execution took
+     */
+    public record StatementStats(String sql, long calls, double p50Millis, double p99Millis, double maxMillis) {
+    }
+
+    /**
+     * Constructs a new {@code StatementMetrics} instance.
+     *
+     * @param plugin              The main plugin instance
+     * @param slowThresholdMillis Executions taking at least this long are logged, {@code 0} disables the log
+     */
+    public StatementMetrics(JavaPlugin plugin, long slowThresholdMillis) {
+        this.plugin = plugin;
+        this.slowThresholdNanos = slowThresholdMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis) : Long.MAX_VALUE;
+        this.latenciesMicros = new ConcurrentHashMap<>();
+        this.serverThreadWaitsMicros = new Histogram();
+    }
+
+    /**
+     * Wraps a statement so its executions are recorded under the given SQL.
+     *
+     * @param sql       The SQL the statement was prepared with.
+     * @param statement The statement to wrap.
+     * @return The instrumented statement.
+     */
+    public PreparedStatement instrument(String sql, PreparedStatement statement) {
+        String key = normalize(sql);
+        Histogram latency = latenciesMicros.computeIfAbsent(key, ignored -> new Histogram());
+
+        return (PreparedStatement) Proxy.newProxyInstance(StatementMetrics.class.getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().startsWith("execute")) return invoke(statement, method, args);
+
+                    long startTime = System.nanoTime();
+                    try {
+                        return invoke(statement, method, args);
+                    } finally {
+                        long elapsedNanos = System.nanoTime() - startTime;
+                        latency.record(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+                        if (elapsedNanos >= slowThresholdNanos) logSlowStatement(key, elapsedNanos);
+                    }
+                });
+    }
+
+    /**
+     * Records the time the server thread spent waiting for a database task.
+     * Waits that are slower than the threshold are logged together with the code that waited.
+     *
+     * @param elapsedNanos How long the server thread waited.
+     */
+    public void recordServerThreadWait(long elapsedNanos) {
+        serverThreadWaitsMicros.record(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+        if (elapsedNanos < slowThresholdNanos) return;
+
+        String caller = StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> !INFRASTRUCTURE_CLASSES.contains(frame.getClassName()))
+                .findFirst()
+                .map(frame -> frame.getClassName() + "." + frame.getMethodName() + ":" + frame.getLineNumber())
+                .orElse("unknown"));
+
+        plugin.getLogger().warning(String.format("[DATABASE] Server thread blocked %.1fms on the database in %s",
+                elapsedNanos / 1_000_000.0, caller));
+    }
+
+    /**
+     * Gets the statements with the highest 99th percentile latency.
+     *
+     * @param limit The maximum amount of statements to return.
+     * @return The statement summaries, slowest first.
+     */
+    public List<StatementStats> getSlowestStatements(int limit) {
+        return latenciesMicros.entrySet().stream()
+                .filter(entry -> entry.getValue().getCount() > 0)
+                .map(entry -> new StatementStats(
+                        entry.getKey(),
+                        entry.getValue().getCount(),
+                        entry.getValue().getPercentile(50) / 1000.0,
+                        entry.getValue().getPercentile(99) / 1000.0,
+                        entry.getValue().getMax() / 1000.0))
+                .sorted(Comparator.comparingDouble(StatementStats::p99Millis).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Gets the amount of times the server thread waited for the database.
+     *
+     * @return The amount of server thread waits.
+     */
+    public long getServerThreadWaits() {
+        return serverThreadWaitsMicros.getCount();
+    }
+
+    /**
+     * Gets the longest time the server thread waited for the database.
+     *
+     * @return The longest wait in milliseconds.
+     */
+    public double getServerThreadWaitMaxMillis() {
+        return serverThreadWaitsMicros.getMax() / 1000.0;
+    }
+
+    /**
+     * Resets the recorded latencies of all statements and the server thread waits.
+     */
+    public void reset() {
+        latenciesMicros.values().forEach(Histogram::reset);
+        serverThreadWaitsMicros.reset();
+    }
+
+    /**
+     * Logs a slow statement together with the thread it ran on.
+     *
+     * @param sql          The normalized SQL of the statement.
+     * @param elapsedNanos How long the execution took.
+     */
+    private void logSlowStatement(String sql, long elapsedNanos) {
+        boolean isServerThread = plugin.getServer().isPrimaryThread();
+        String loggedSql = sql.length() > MAX_LOGGED_SQL_LENGTH ? sql.substring(0, MAX_LOGGED_SQL_LENGTH) + "..." : sql;
+
+        plugin.getLogger().warning(String.format("[DATABASE] Slow statement took %.1fms on %s%s: %s",
+                elapsedNanos / 1_000_000.0,
+                Thread.currentThread().getName(),
+                isServerThread ? " (SERVER THREAD)" : "",
+                loggedSql));
+    }
+
+    /**
+     * Invokes a method on the wrapped statement, rethrowing the original exception.
+     *
+     * @param statement The wrapped statement.
+     * @param method    The method to invoke.
+     * @param args      The arguments of the call.
+     * @return The result of the call.
+     * @throws Throwable The exception thrown by the statement.
+     */
+    private static Object invoke(PreparedStatement statement, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(statement, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Collapses the whitespace of a statement, so text blocks show up on a single line.
+     *
+     * @param sql The SQL to normalize.
+     * @return The SQL on a single line.
+     */
+    private static String normalize(String sql) {
+        return sql.strip().replaceAll("\\s+", " ");
+    }
+}
@@ -0,0 +1,140 @@
+package com.jouriroosjen.hardcoreSMPPlugin.database.dao;
+
+import com.jouriroosjen.hardcoreSMPPlugin.database.DatabaseExecutor;
+import com.jouriroosjen.hardcoreSMPPlugin.database.PlayerIdCache;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Data access for the {@code buyback_assists} table.
+ *
+ * @author Jouri Roosjen
+ * @version 1.1.0
+ */
+public class BuybackAssistDao {
+    private final DatabaseExecutor databaseExecutor;
+    private final PlayerIdCache playerIdCache;
+
+    /**
+     * Represents a buyback assist
+     *
+     * @param givingPlayer The players who's giving the assist
+     * @param amount       The assisted amount
+     */
+    public record BuybackAssist(UUID givingPlayer, double amount) {
+    }
+
+    /**
+     * Constructs a new {@code BuybackAssistDao} instance.
+     *
+     * @param databaseExecutor The database executor that owns the connection
+     * @param playerIdCache    The cache of player ids
+     */
+    public BuybackAssistDao(DatabaseExecutor databaseExecutor, PlayerIdCache playerIdCache) {
+        this.databaseExecutor = databaseExecutor;
+        this.playerIdCache = playerIdCache;
+    }
+
+    /**
+     * Gets all assists for a given death.
+     *
+     * @param connection The connection of the running task
+     * @param deathId    The corresponding death ID
+     * @return A list containing all the assists
+     * @throws SQLException If a database error occurs
+     */
+    public List<BuybackAssist> findByDeath(Connection connection, int deathId) throws SQLException {
+        List<BuybackAssist> assists = new ArrayList<>();
+        PreparedStatement statement = databaseExecutor.prepare(connection, """
+                SELECT players.uuid AS giving_player_uuid, buyback_assists.amount
+                FROM buyback_assists
+                JOIN players ON players.id = buyback_assists.giving_player_id
+                WHERE buyback_assists.receiving_player_death_id = ?
+                """);
+        statement.setInt(1, deathId);
+
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                UUID givingPlayer = UUID.fromString(resultSet.getString("giving_player_uuid"));
+                double amount = resultSet.getDouble("amount");
+
+                assists.add(new BuybackAssist(givingPlayer, amount));
+            }
+        }
+        return assists;
+    }
+
+    /**
+     * Gets the total amount that was assisted with for a given death.
+     *
+     * @param connection The connection of the running task
+     * @param deathId    The corresponding death ID
+     * @return The total assisted amount
+     * @throws SQLException If a database error occurs
+     */
+    public double getAssistedAmount(Connection connection, int deathId) throws SQLException {
+        PreparedStatement statement = databaseExecutor.prepare(connection, """
+                SELECT COALESCE(SUM(amount), 0) AS assisted_amount
+                FROM buyback_assists
+                WHERE receiving_player_death_id = ?
+                """);
+        statement.setInt(1, deathId);
+
+        try (ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() ? resultSet.getDouble("assisted_amount") : 0;
+        }
+    }
+
+    /**
+     * Finds the player that gave the last assist.
+     *
+     * @param connection The connection of the running task
+     * @return An optional filled with the UUID of the giving player if found, otherwise empty
+     * @throws SQLException If a database error occurs
+     */
+    public Optional<UUID> findLatestGivingPlayer(Connection connection) throws SQLException {
+        PreparedStatement statement = databaseExecutor.prepare(connection, """
+                SELECT players.uuid FROM buyback_assists
+                JOIN players ON players.id = buyback_assists.giving_player_id
+                ORDER BY buyback_assists.created_at_ms DESC, buyback_assists.id DESC
+                LIMIT 1
+                """);
+
+        try (ResultSet resultSet = statement.executeQuery()) {
+            if (resultSet.next()) {
+                return Optional.of(UUID.fromString(resultSet.getString("uuid")));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Adds a buyback assist.
+     *
+     * @param connection The writer connection of the running task
+     * @param sender     The UUID of the giving player
+     * @param target     The UUID of the receiving player
+     * @param deathId    The ID of the corresponding death of the receiving player
+     * @param amount     The amount of the assist
+     * @throws SQLException If a database error occurs
+     */
+    public void insert(Connection connection, UUID sender, UUID target, int deathId, double amount) throws SQLException {
+        PreparedStatement statement = databaseExecutor.prepare(connection, """
+                INSERT INTO buyback_assists (giving_player_id, receiving_player_id, receiving_player_death_id, amount, created_at_ms)
+                VALUES (?, ?, ?, ?, ?)
+                """);
+        statement.setInt(1, playerIdCache.getId(connection, sender));
+        statement.setInt(2, playerIdCache.getId(connection, target));
+        statement.setInt(3, deathId);
+        statement.setDouble(4, amount);
+        statement.setLong(5, System.currentTimeMillis());
+        statement.execute();
+    }
+}
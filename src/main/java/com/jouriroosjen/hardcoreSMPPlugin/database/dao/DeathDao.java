@@ -0,0 +1,104 @@
+package com.jouriroosjen.hardcoreSMPPlugin.database.dao;
+
+import com.jouriroosjen.hardcoreSMPPlugin.database.DatabaseExecutor;
+import com.jouriroosjen.hardcoreSMPPlugin.database.PlayerIdCache;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.UUID;
+
+/**
+ * Data access for the {@code deaths} table.
+ *
+ * @author Jouri Roosjen
+ * @version 1.1.0
+ */
+public class DeathDao {
+    private final DatabaseExecutor databaseExecutor;
+    private final PlayerIdCache playerIdCache;
+
+    /**
+     * Constructs a new {@code DeathDao} instance.
+     *
+     * @param databaseExecutor The database executor that owns the connection
+     * @param playerIdCache    The cache of player ids
+     */
+    public DeathDao(DatabaseExecutor databaseExecutor, PlayerIdCache playerIdCache) {
+        this.databaseExecutor = databaseExecutor;
+        this.playerIdCache = playerIdCache;
+    }
+
+    /**
+     * Finds the ID of the player's last death.
+     *
+     * @param connection The connection of the running task
+     * @param playerUuid The UUID of the player
+     * @return An optional filled with the death ID if found, otherwise empty
+     * @throws SQLException If a database error occurs
+     */
+    public OptionalInt findLatestDeathId(Connection connection, UUID playerUuid) throws SQLException {
+        OptionalInt playerId = playerIdCache.findId(connection, playerUuid);
+        if (playerId.isEmpty()) return OptionalInt.empty();
+
+        PreparedStatement statement = databaseExecutor.prepare(connection, """
+                SELECT (id) FROM deaths
+                WHERE player_id = ?
+                ORDER BY created_at_ms DESC, id DESC
+                LIMIT 1
+                """);
+        statement.setInt(1, playerId.getAsInt());
+
+        try (ResultSet resultSet = statement.executeQuery()) {
+            if (resultSet.next()) {
+                return OptionalInt.of(resultSet.getInt("id"));
+            }
+        }
+        return OptionalInt.empty();
+    }
+
+    /**
+     * Finds the player that died last.
+     *
+     * @param connection The connection of the running task
+     * @return An optional filled with the UUID of the player if found, otherwise empty
+     * @throws SQLException If a database error occurs
+     */
+    public Optional<UUID> findLatestDeadPlayer(Connection connection) throws SQLException {
+        PreparedStatement statement = databaseExecutor.prepare(connection, """
+                SELECT players.uuid FROM deaths
+                JOIN players ON players.id = deaths.player_id
+                ORDER BY deaths.created_at_ms DESC, deaths.id DESC
+                LIMIT 1
+                """);
+
+        try (ResultSet resultSet = statement.executeQuery()) {
+            if (resultSet.next()) {
+                return Optional.of(UUID.fromString(resultSet.getString("uuid")));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Records a death.
+     *
+     * @param connection The writer connection of the running task
+     * @param playerUuid The UUID of the player that died
+     * @param cause      The cause of the death
+     * @throws SQLException If a database error occurs
+     */
+    public void insert(Connection connection, UUID playerUuid, String cause) throws SQLException {
+        PreparedStatement statement = databaseExecutor.prepare(connection, """
+                INSERT INTO deaths (player_id, cause, created_at_ms)
+                VALUES (?, ?, ?)
+                """);
+        statement.setInt(1, playerIdCache.getId(connection, playerUuid));
+        statement.setString(2, cause);
+        statement.setLong(3, System.currentTimeMillis());
+        statement.execute();
+    }
+}
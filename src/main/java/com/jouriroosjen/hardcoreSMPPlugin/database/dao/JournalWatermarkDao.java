@@ -0,0 +1,69 @@
+package com.jouriroosjen.hardcoreSMPPlugin.database.dao;
+
+import com.jouriroosjen.hardcoreSMPPlugin.database.DatabaseExecutor;
+import com.jouriroosjen.hardcoreSMPPlugin.storage.JournalWatermark;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+
+/**
+ * Data access for the single row in the {@code statistics_journal_watermark} table.
+ *
+ * @author Jouri Roosjen
+ * @version 1.0.0
+ */
+public class JournalWatermarkDao {
+    private final DatabaseExecutor databaseExecutor;
+
+    /**
+     * Constructs a new {@code JournalWatermarkDao} instance.
+     *
+     * @param databaseExecutor The database executor that owns the connection
+     */
+    public JournalWatermarkDao(DatabaseExecutor databaseExecutor) {
+        this.databaseExecutor = databaseExecutor;
+    }
+
+    /**
+     * Finds the last committed journal record.
+     *
+     * @param connection The connection of the running task
+     * @return The watermark, empty if no journaled delta was ever committed
+     * @throws SQLException If a database error occurs
+     */
+    public Optional<JournalWatermark> find(Connection connection) throws SQLException {
+        PreparedStatement statement = databaseExecutor.prepare(connection, """
+                SELECT generation, sequence
+                FROM statistics_journal_watermark
+                WHERE id = 1
+                """);
+
+        try (ResultSet resultSet = statement.executeQuery()) {
+            if (!resultSet.next()) return Optional.empty();
+            return Optional.of(new JournalWatermark(resultSet.getLong("generation"), resultSet.getInt("sequence")));
+        }
+    }
+
+    /**
+     * Moves the watermark along. Has to run in the transaction that commits the deltas it covers.
+     *
+     * @param connection The writer connection of the running task
+     * @param watermark  The last journal record of the committed deltas
+     * @throws SQLException If a database error occurs
+     */
+    public void save(Connection connection, JournalWatermark watermark) throws SQLException {
+        PreparedStatement statement = databaseExecutor.prepare(connection, """
+                INSERT INTO statistics_journal_watermark (id, generation, sequence)
+                VALUES (1, ?, ?)
+                ON CONFLICT (id) DO UPDATE SET
+                    generation = excluded.generation,
+                    sequence = excluded.sequence
+                """);
+        statement.setLong(1, watermark.generation());
+        statement.setInt(2, watermark.sequence());
+        statement.execute();
+    }
+}
@@ -0,0 +1,52 @@
+package com.jouriroosjen.hardcoreSMPPlugin.database.dao;
+
+import com.jouriroosjen.hardcoreSMPPlugin.database.DatabaseExecutor;
+import com.jouriroosjen.hardcoreSMPPlugin.database.PlayerIdCache;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Data access for the {@code penalties} table.
+ *
+ * @author Jouri Roosjen
+ * @version 2.0.0
+ */
+public class PenaltyDao {
+    private final DatabaseExecutor databaseExecutor;
+    private final PlayerIdCache playerIdCache;
+
+    /**
+     * Constructs a new {@code PenaltyDao} instance.
+     *
+     * @param databaseExecutor The database executor that owns the connection
+     * @param playerIdCache    The cache of player ids
+     */
+    public PenaltyDao(DatabaseExecutor databaseExecutor, PlayerIdCache playerIdCache) {
+        this.databaseExecutor = databaseExecutor;
+        this.playerIdCache = playerIdCache;
+    }
+
+    /**
+     * Records a penalty. Crediting its amount to the piggy bank is up to the caller.
+     *
+     * @param connection The writer connection of the running task
+     * @param playerUuid The UUID of the player receiving the penalty
+     * @param amount     The amount of the penalty
+     * @param reason     The reason for the penalty
+     * @throws SQLException If a database error occurs
+     */
+    public void insert(Connection connection, UUID playerUuid, double amount, String reason) throws SQLException {
+        PreparedStatement statement = databaseExecutor.prepare(connection, """
+                INSERT INTO penalties (player_id, reason, amount, created_at_ms)
+                VALUES (?, ?, ?, ?)
+                """);
+        statement.setInt(1, playerIdCache.getId(connection, playerUuid));
+        statement.setString(2, reason);
+        statement.setDouble(3, amount);
+        statement.setLong(4, System.currentTimeMillis());
+        statement.execute();
+    }
+}
@@ -0,0 +1,106 @@
+package com.jouriroosjen.hardcoreSMPPlugin.database.dao;
+
+import com.jouriroosjen.hardcoreSMPPlugin.database.DatabaseExecutor;
+import com.jouriroosjen.hardcoreSMPPlugin.database.PlayerIdCache;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.OptionalInt;
+import java.util.UUID;
+
+/**
+ * Data access for the {@code piggy_bank} table.
+ *
+ * @author Jouri Roosjen
+ * @version 2.0.0
+ */
+public class PiggyBankDao {
+    private final DatabaseExecutor databaseExecutor;
+    private final PlayerIdCache playerIdCache;
+
+    /**
+     * Constructs a new {@code PiggyBankDao} instance.
+     *
+     * @param databaseExecutor The database executor that owns the connection
+     * @param playerIdCache    The cache of player ids
+     */
+    public PiggyBankDao(DatabaseExecutor databaseExecutor, PlayerIdCache playerIdCache) {
+        this.databaseExecutor = databaseExecutor;
+        this.playerIdCache = playerIdCache;
+    }
+
+    /**
+     * Gets the total debt of the given player.
+     *
+     * @param connection The connection of the running task
+     * @param playerUuid The UUID of the player
+     * @return The total debt, {@code 0} for unknown players
+     * @throws SQLException If a database error occurs
+     */
+    public double getTotalDebt(Connection connection, UUID playerUuid) throws SQLException {
+        OptionalInt playerId = playerIdCache.findId(connection, playerUuid);
+        if (playerId.isEmpty()) return 0.0;
+
+        PreparedStatement statement = databaseExecutor.prepare(connection, """
+                SELECT SUM(amount) AS total_debt
+                FROM piggy_bank
+                WHERE player_id = ?
+                """);
+        statement.setInt(1, playerId.getAsInt());
+
+        try (ResultSet resultSet = statement.executeQuery()) {
+            if (resultSet.next()) {
+                return resultSet.getDouble("total_debt");
+            }
+        }
+
+        return 0.0;
+    }
+
+    /**
+     * Gets the total amount currently in the piggy bank.
+     *
+     * @param connection The connection of the running task
+     * @return The total amount of all players
+     * @throws SQLException If a database error occurs
+     */
+    public double getTotal(Connection connection) throws SQLException {
+        PreparedStatement statement = databaseExecutor.prepare(connection, """
+                SELECT SUM(amount) AS total
+                FROM piggy_bank
+                """);
+
+        try (ResultSet resultSet = statement.executeQuery()) {
+            if (resultSet.next()) {
+                return resultSet.getDouble("total");
+            }
+        }
+
+        return 0.0;
+    }
+
+    /**
+     * Adds an amount to the piggy bank.
+     *
+     * @param connection The writer connection of the running task
+     * @param playerUuid The player that has credited this amount
+     * @param amount     The amount to be added to the bank
+     * @param isAssist   Whether this amount is from an assist
+     * @param isPenalty  Whether this amount is from a penalty
+     * @throws SQLException If a database error occurs
+     */
+    public void insert(Connection connection, UUID playerUuid, double amount, boolean isAssist, boolean isPenalty) throws SQLException {
+        PreparedStatement statement = databaseExecutor.prepare(connection, """
+                INSERT INTO piggy_bank (player_id, amount, is_assist, is_penalty, created_at_ms)
+                VALUES (?, ?, ?, ?, ?)
+                """);
+        statement.setInt(1, playerIdCache.getId(connection, playerUuid));
+        statement.setDouble(2, amount);
+        statement.setInt(3, isAssist ? 1 : 0);
+        statement.setInt(4, isPenalty ? 1 : 0);
+        statement.setLong(5, System.currentTimeMillis());
+        statement.execute();
+    }
+}
@@ -0,0 +1,185 @@
+package com.jouriroosjen.hardcoreSMPPlugin.database.dao;
+
+import com.jouriroosjen.hardcoreSMPPlugin.database.DatabaseExecutor;
+import com.jouriroosjen.hardcoreSMPPlugin.storage.PlayerProgress;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+/**
+ * Data access for the {@code players} table.
+ * The methods are meant to be combined inside a single database task, which is owned by the caller.
+ *
+ * @author Jouri Roosjen
+ * @version 2.0.0
+ */
+public class PlayerDao {
+    private final DatabaseExecutor databaseExecutor;
+
+    /**
+     * Constructs a new {@code PlayerDao} instance.
+     *
+     * @param databaseExecutor The database executor that owns the connection
+     */
+    public PlayerDao(DatabaseExecutor databaseExecutor) {
+        this.databaseExecutor = databaseExecutor;
+    }
+
+    /**
+     * Saves a new player.
+     *
+     * @param connection The writer connection of the running task
+     * @param playerUuid The UUID of the player
+     * @param username   The player's in-game name
+     * @return The id the player got
+     * @throws SQLException If a database error occurs
+     */
+    public int insert(Connection connection, UUID playerUuid, String username) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO players (uuid, username, created_at_ms) VALUES (?, ?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+            statement.setString(1, playerUuid.toString());
+            statement.setString(2, username);
+            statement.setLong(3, System.currentTimeMillis());
+            statement.execute();
+
+            try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                if (!generatedKeys.next()) throw new SQLException("No id generated for player: " + playerUuid);
+                return generatedKeys.getInt(1);
+            }
+        }
+    }
+
+    /**
+     * Checks if the player is currently marked as dead.
+     *
+     * @param connection The connection of the running task
+     * @param playerUuid The UUID of the player
+     * @return {@code true} if the player is dead, {@code false} if alive or unknown
+     * @throws SQLException If a database error occurs
+     */
+    public boolean isDead(Connection connection, UUID playerUuid) throws SQLException {
+        PreparedStatement statement = databaseExecutor.prepare(connection, "SELECT is_alive FROM players WHERE uuid = ?");
+        statement.setString(1, playerUuid.toString());
+
+        try (ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() && resultSet.getInt("is_alive") == 0;
+        }
+    }
+
+    /**
+     * Checks if the player died during their grace period.
+     *
+     * @param connection The connection of the running task
+     * @param playerUuid The UUID of the player
+     * @return {@code true} if the player has grace
+     * @throws SQLException If a database error occurs
+     */
+    public boolean hasGrace(Connection connection, UUID playerUuid) throws SQLException {
+        PreparedStatement statement = databaseExecutor.prepare(connection, "SELECT (has_grace) FROM players WHERE uuid = ?");
+        statement.setString(1, playerUuid.toString());
+
+        try (ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() && resultSet.getBoolean("has_grace");
+        }
+    }
+
+    /**
+     * Gets the stored playtime and the playtime milestones of a player.
+     *
+     * @param connection The connection of the running task
+     * @param playerUuid The UUID of the player
+     * @return The progress of the player, {@link PlayerProgress#UNKNOWN} if the player doesn't exist
+     * @throws SQLException If a database error occurs
+     */
+    public PlayerProgress getProgress(Connection connection, UUID playerUuid) throws SQLException {
+        PreparedStatement statement = databaseExecutor.prepare(connection,
+                "SELECT playtime_seconds, has_grace, has_minimum_playtime FROM players WHERE uuid = ?");
+        statement.setString(1, playerUuid.toString());
+
+        try (ResultSet resultSet = statement.executeQuery()) {
+            if (!resultSet.next()) return PlayerProgress.UNKNOWN;
+
+            return new PlayerProgress(
+                    resultSet.getLong("playtime_seconds"),
+                    resultSet.getBoolean("has_grace"),
+                    resultSet.getBoolean("has_minimum_playtime")
+            );
+        }
+    }
+
+    /**
+     * Adds playtime to the total of a player.
+     *
+     * @param connection The writer connection of the running task
+     * @param playerUuid The UUID of the player
+     * @param seconds    The playtime to add, in seconds
+     * @throws SQLException If a database error occurs
+     */
+    public void addPlaytime(Connection connection, UUID playerUuid, long seconds) throws SQLException {
+        PreparedStatement statement = databaseExecutor.prepare(connection,
+                "UPDATE players SET playtime_seconds = playtime_seconds + ?, updated_at = datetime('now') WHERE uuid = ?");
+        statement.setLong(1, seconds);
+        statement.setString(2, playerUuid.toString());
+        statement.execute();
+    }
+
+    /**
+     * Ends the grace period of a player.
+     *
+     * @param connection The writer connection of the running task
+     * @param playerUuid The UUID of the player
+     * @throws SQLException If a database error occurs
+     */
+    public void revokeGrace(Connection connection, UUID playerUuid) throws SQLException {
+        PreparedStatement statement = databaseExecutor.prepare(connection,
+                "UPDATE players SET has_grace = 0, updated_at = datetime('now') WHERE uuid = ?");
+        statement.setString(1, playerUuid.toString());
+        statement.execute();
+    }
+
+    /**
+     * Marks that a player reached the minimum playtime.
+     *
+     * @param connection The writer connection of the running task
+     * @param playerUuid The UUID of the player
+     * @throws SQLException If a database error occurs
+     */
+    public void markMinimumPlaytimeReached(Connection connection, UUID playerUuid) throws SQLException {
+        PreparedStatement statement = databaseExecutor.prepare(connection,
+                "UPDATE players SET has_minimum_playtime = 1, updated_at = datetime('now') WHERE uuid = ?");
+        statement.setString(1, playerUuid.toString());
+        statement.execute();
+    }
+
+    /**
+     * Marks the player as dead.
+     *
+     * @param connection The writer connection of the running task
+     * @param playerUuid The UUID of the player
+     * @throws SQLException If a database error occurs
+     */
+    public void markDead(Connection connection, UUID playerUuid) throws SQLException {
+        PreparedStatement statement = databaseExecutor.prepare(connection,
+                "UPDATE players SET is_alive = 0, updated_at = datetime('now') WHERE uuid = ?");
+        statement.setString(1, playerUuid.toString());
+        statement.execute();
+    }
+
+    /**
+     * Marks the player as alive again.
+     *
+     * @param connection The writer connection of the running task
+     * @param playerUuid The UUID of the player
+     * @throws SQLException If a database error occurs
+     */
+    public void markAlive(Connection connection, UUID playerUuid) throws SQLException {
+        PreparedStatement statement = databaseExecutor.prepare(connection,
+                "UPDATE players SET is_alive = 1, updated_at = datetime('now') WHERE uuid = ?");
+        statement.setString(1, playerUuid.toString());
+        statement.execute();
+    }
+}
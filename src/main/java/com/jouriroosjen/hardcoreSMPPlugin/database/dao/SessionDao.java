@@ -0,0 +1,50 @@
+package com.jouriroosjen.hardcoreSMPPlugin.database.dao;
+
+import com.jouriroosjen.hardcoreSMPPlugin.database.DatabaseExecutor;
+import com.jouriroosjen.hardcoreSMPPlugin.database.PlayerIdCache;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Data access for the {@code sessions} table.
+ *
+ * @author Jouri Roosjen
+ * @version 1.0.0
+ */
+public class SessionDao {
+    private final DatabaseExecutor databaseExecutor;
+    private final PlayerIdCache playerIdCache;
+
+    /**
+     * Constructs a new {@code SessionDao} instance.
+     *
+     * @param databaseExecutor The database executor that owns the connection
+     * @param playerIdCache    The cache of player ids
+     */
+    public SessionDao(DatabaseExecutor databaseExecutor, PlayerIdCache playerIdCache) {
+        this.databaseExecutor = databaseExecutor;
+        this.playerIdCache = playerIdCache;
+    }
+
+    /**
+     * Records a finished session.
+     *
+     * @param connection The writer connection of the running task
+     * @param playerUuid The UUID of the player
+     * @param seconds    The length of the session, in seconds
+     * @throws SQLException If a database error occurs
+     */
+    public void insert(Connection connection, UUID playerUuid, long seconds) throws SQLException {
+        PreparedStatement statement = databaseExecutor.prepare(connection, """
+                INSERT INTO sessions (player_id, playtime_seconds, created_at_ms)
+                VALUES (?, ?, ?)
+                """);
+        statement.setInt(1, playerIdCache.getId(connection, playerUuid));
+        statement.setLong(2, seconds);
+        statement.setLong(3, System.currentTimeMillis());
+        statement.execute();
+    }
+}
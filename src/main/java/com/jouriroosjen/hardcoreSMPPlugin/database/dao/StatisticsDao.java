@@ -0,0 +1,164 @@
+package com.jouriroosjen.hardcoreSMPPlugin.database.dao;
+
+import com.jouriroosjen.hardcoreSMPPlugin.database.DatabaseExecutor;
+import com.jouriroosjen.hardcoreSMPPlugin.database.PlayerIdCache;
+import com.jouriroosjen.hardcoreSMPPlugin.enums.PlayerStatisticsEnum;
+import com.jouriroosjen.hardcoreSMPPlugin.storage.StatisticDelta;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.UUID;
+
+/**
+ * Data access for the lifetime totals in the {@code player_statistics} table.
+ *
+ * @author Jouri Roosjen
+ * @version 1.0.0
+ */
+public class StatisticsDao {
+    private final DatabaseExecutor databaseExecutor;
+    private final PlayerIdCache playerIdCache;
+
+    private static final int STATISTIC_COUNT = PlayerStatisticsEnum.values().length;
+
+    private static final String SELECT_STATISTICS_SQL = """
+            SELECT statistic_type, value
+            FROM player_statistics
+            WHERE player_id = ?
+            """;
+
+    private static final String SELECT_ALL_STATISTICS_SQL = """
+            SELECT players.uuid, player_statistics.statistic_type, player_statistics.value
+            FROM player_statistics
+            JOIN players ON players.id = player_statistics.player_id
+            """;
+
+    private static final String UPSERT_STATISTIC_SQL = """
+            INSERT INTO player_statistics (player_id, statistic_type, value)
+            VALUES (?, ?, ?)
+            ON CONFLICT (player_id, statistic_type)
+            DO UPDATE SET
+                value = value + ?,
+                updated_at = datetime('now')
+            """;
+
+    /**
+     * Constructs a new {@code StatisticsDao} instance.
+     *
+     * @param databaseExecutor The database executor that owns the connection
+     * @param playerIdCache    The cache of player ids
+     */
+    public StatisticsDao(DatabaseExecutor databaseExecutor, PlayerIdCache playerIdCache) {
+        this.databaseExecutor = databaseExecutor;
+        this.playerIdCache = playerIdCache;
+    }
+
+    /**
+     * Loads all statistics of a player.
+     *
+     * @param connection The connection of the running task
+     * @param playerUuid The UUID of the player
+     * @return The stored values, indexed by statistic ordinal
+     * @throws SQLException If a database error occurs
+     */
+    public double[] find(Connection connection, UUID playerUuid) throws SQLException {
+        double[] values = new double[STATISTIC_COUNT];
+
+        OptionalInt playerId = playerIdCache.findId(connection, playerUuid);
+        if (playerId.isEmpty()) return values;
+
+        PreparedStatement statement = databaseExecutor.prepare(connection, SELECT_STATISTICS_SQL);
+        statement.setInt(1, playerId.getAsInt());
+
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                PlayerStatisticsEnum statistic = PlayerStatisticsEnum.fromId(resultSet.getInt("statistic_type"));
+                if (statistic != null) values[statistic.ordinal()] = resultSet.getDouble("value");
+            }
+        }
+
+        return values;
+    }
+
+    /**
+     * Loads all statistics of all players.
+     * Only runs on startup, so the statement isn't cached.
+     *
+     * @param connection The connection of the running task
+     * @return The stored values of every player, indexed by statistic ordinal
+     * @throws SQLException If a database error occurs
+     */
+    public Map<UUID, double[]> findAll(Connection connection) throws SQLException {
+        Map<UUID, double[]> values = new HashMap<>();
+
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_ALL_STATISTICS_SQL);
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                PlayerStatisticsEnum statistic = PlayerStatisticsEnum.fromId(resultSet.getInt("statistic_type"));
+                if (statistic == null) continue;
+
+                UUID playerUuid = UUID.fromString(resultSet.getString("uuid"));
+                values.computeIfAbsent(playerUuid, ignored -> new double[STATISTIC_COUNT])[statistic.ordinal()] = resultSet.getDouble("value");
+            }
+        }
+
+        return values;
+    }
+
+    /**
+     * Adds all deltas to the lifetime totals with a single batched statement.
+     *
+     * @param connection The writer connection of the running task
+     * @param deltas     The deltas to add
+     * @throws SQLException If a database error occurs
+     */
+    public void upsertBatch(Connection connection, List<StatisticDelta> deltas) throws SQLException {
+        PreparedStatement statement = databaseExecutor.prepare(connection, UPSERT_STATISTIC_SQL);
+
+        try {
+            for (StatisticDelta delta : deltas) {
+                bind(connection, statement, delta);
+                statement.addBatch();
+            }
+
+            statement.executeBatch();
+        } finally {
+            // The statement is cached, a failed batch must not be left behind for the next flush
+            statement.clearBatch();
+        }
+    }
+
+    /**
+     * Adds a single delta to the lifetime totals.
+     *
+     * @param connection The writer connection of the running task
+     * @param delta      The delta to add
+     * @throws SQLException If a database error occurs
+     */
+    public void upsert(Connection connection, StatisticDelta delta) throws SQLException {
+        PreparedStatement statement = databaseExecutor.prepare(connection, UPSERT_STATISTIC_SQL);
+        bind(connection, statement, delta);
+        statement.executeUpdate();
+    }
+
+    /**
+     * Binds the parameters of a delta to the upsert statement.
+     *
+     * @param connection The connection the statement belongs to, used when the player id isn't cached
+     * @param statement  The prepared upsert statement
+     * @param delta      The delta to bind
+     * @throws SQLException If a database error occurs
+     */
+    private void bind(Connection connection, PreparedStatement statement, StatisticDelta delta) throws SQLException {
+        statement.setInt(1, playerIdCache.getId(connection, delta.playerUuid()));
+        statement.setInt(2, delta.statistic().getId());
+        statement.setDouble(3, delta.value());
+        statement.setDouble(4, delta.value());
+    }
+}
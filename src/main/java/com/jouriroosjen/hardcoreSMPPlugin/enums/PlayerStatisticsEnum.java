@@ -71,4 +71,17 @@ public enum PlayerStatisticsEnum {
     public int getId() {
         return id;
     }
+
+    /**
+     * Get the value that corresponds to the given ID.
+     *
+     * @param id The ID to look up.
+     * @return The matching value, or {@code null} if none exists.
+     */
+    public static PlayerStatisticsEnum fromId(int id) {
+        for (PlayerStatisticsEnum statistic : values()) {
+            if (statistic.id == id) return statistic;
+        }
+        return null;
+    }
 }
@@ -0,0 +1,56 @@
+package com.jouriroosjen.hardcoreSMPPlugin.enums;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The bucket sizes the statistic rollups are kept in.
+ *
+ * @author Jouri Roosjen
+ * @version 1.0.0
+ */
+public enum RollupGranularityEnum {
+    HOURLY(0, TimeUnit.HOURS.toMillis(1)),
+    DAILY(1, TimeUnit.DAYS.toMillis(1));
+
+    private final int id;
+    private final long bucketMillis;
+
+    /**
+     * Constructs a new {@code RollupGranularityEnum} instance.
+     *
+     * @param id           The ID stored in the database.
+     * @param bucketMillis The length of a bucket in milliseconds.
+     */
+    RollupGranularityEnum(int id, long bucketMillis) {
+        this.id = id;
+        this.bucketMillis = bucketMillis;
+    }
+
+    /**
+     * Get the corresponding ID of a value.
+     *
+     * @return The ID of this value.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Get the length of a bucket.
+     *
+     * @return The length of a bucket in milliseconds.
+     */
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    /**
+     * Get the start of the bucket that contains the given timestamp.
+     *
+     * @param epochMillis The timestamp in epoch milliseconds.
+     * @return The start of the bucket in epoch milliseconds.
+     */
+    public long bucketStart(long epochMillis) {
+        return epochMillis - Math.floorMod(epochMillis, bucketMillis);
+    }
+}
@@ -2,6 +2,7 @@ package com.jouriroosjen.hardcoreSMPPlugin.listeners;
 
 import com.jouriroosjen.hardcoreSMPPlugin.enums.HologramEnum;
 import com.jouriroosjen.hardcoreSMPPlugin.managers.HologramManager;
+import com.jouriroosjen.hardcoreSMPPlugin.storage.Storage;
 import com.jouriroosjen.hardcoreSMPPlugin.utils.ImageUtils;
 import com.jouriroosjen.hardcoreSMPPlugin.utils.PlayerAvatarUtil;
 import github.scarsz.discordsrv.DiscordSRV;
@@ -26,21 +27,17 @@ import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.net.URL;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
-import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
 /**
  * Listener class for handling player death events in the server.
  *
  * @author Jouri Roosjen
- * @version 2.0.0
+ * @version 2.3.0
  */
 public class PlayerDeathListener implements Listener {
     private final JavaPlugin plugin;
-    private final Connection connection;
+    private final Storage storage;
     private final HologramManager hologramManager;
 
     private static final int MAX_HUNGER = 20;
@@ -52,12 +49,12 @@ public class PlayerDeathListener implements Listener {
      * Constructs a new {@code PlayerDeathListener} instance.
      *
      * @param plugin          The main plugin instance
-     * @param connection      The active database connection
+     * @param storage         The storage the deaths are saved in
      * @param hologramManager The hologram manager instance
      */
-    public PlayerDeathListener(JavaPlugin plugin, Connection connection, HologramManager hologramManager) {
+    public PlayerDeathListener(JavaPlugin plugin, Storage storage, HologramManager hologramManager) {
         this.plugin = plugin;
-        this.connection = connection;
+        this.storage = storage;
         this.hologramManager = hologramManager;
     }
 
@@ -95,18 +92,16 @@ public class PlayerDeathListener implements Listener {
         updatePlayerState(player);
         broadcastDeathMessage(playerName);
 
-        // Handle database operations asynchronously to avoid blocking main thread
-        CompletableFuture<Void> databaseOperations = CompletableFuture.runAsync(() -> {
-            try {
-                saveDeathAndUpdateStatus(player.getUniqueId(), deathCause);
-            } catch (SQLException e) {
+        // Save the death in the background to avoid blocking main thread
+        CompletableFuture<Void> databaseOperations = storage.recordDeath(player.getUniqueId(), deathCause);
+
+        // Update hologram after database operations complete
+        databaseOperations.whenComplete((result, e) -> {
+            if (e != null) {
                 plugin.getLogger().severe("[DATABASE] Failed to save death and update status for player " + playerName);
                 e.printStackTrace();
             }
-        });
 
-        // Update hologram after database operations complete
-        databaseOperations.thenRun(() -> {
             // Run hologram update back on main thread
             new BukkitRunnable() {
                 @Override
@@ -341,52 +336,4 @@ public class PlayerDeathListener implements Listener {
             return "UNKNOWN";
         }
     }
-
-    /**
-     * Saves death to database and updates player alive status.
-     *
-     * @param playerUuid The UUID of the player who died.
-     * @param cause      The cause of death.
-     * @throws SQLException If a database error occurs.
-     */
-    private void saveDeathAndUpdateStatus(UUID playerUuid, String cause) throws SQLException {
-        connection.setAutoCommit(false);
-
-        try (PreparedStatement deathStatement = connection.prepareStatement("""
-                INSERT INTO deaths (player_uuid, cause) 
-                VALUES (?, ?)
-                """);
-             PreparedStatement statusStatement = connection.prepareStatement("""
-                     UPDATE players SET
-                         is_alive = 0,
-                         updated_at = datetime('now') 
-                     WHERE uuid = ?
-                     """)) {
-            // Insert death record
-            deathStatement.setString(1, playerUuid.toString());
-            deathStatement.setString(2, cause);
-            deathStatement.execute();
-
-            // Update alive status
-            statusStatement.setString(1, playerUuid.toString());
-            statusStatement.executeUpdate();
-
-            // Commit transaction
-            connection.commit();
-
-        } catch (SQLException e) {
-            try {
-                connection.rollback();
-            } catch (SQLException rollbackEx) {
-                plugin.getLogger().severe("Failed to rollback transaction: " + rollbackEx.getMessage());
-            }
-            throw e;
-        } finally {
-            try {
-                connection.setAutoCommit(true);
-            } catch (SQLException e) {
-                plugin.getLogger().warning("Failed to reset auto-commit: " + e.getMessage());
-            }
-        }
-    }
 }
@@ -1,5 +1,6 @@
 package com.jouriroosjen.hardcoreSMPPlugin.listeners;
 
+import com.jouriroosjen.hardcoreSMPPlugin.managers.PlayerStatisticsManager;
 import com.jouriroosjen.hardcoreSMPPlugin.managers.PlaytimeManager;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -12,18 +13,21 @@ import java.util.UUID;
  * Handles player quit events.
  *
  * @author Jouri Roosjen
- * @version 1.0.1
+ * @version 1.1.0
  */
 public class PlayerQuitListener implements Listener {
     private final PlaytimeManager playtimeManager;
+    private final PlayerStatisticsManager playerStatisticsManager;
 
     /**
      * Constructs a new {@code PlayerQuitListener} instance.
      *
-     * @param playtimeManager The {@code playtimeManager} instance.
+     * @param playtimeManager         The {@code playtimeManager} instance.
+     * @param playerStatisticsManager The {@code playerStatisticsManager} instance.
      */
-    public PlayerQuitListener(PlaytimeManager playtimeManager) {
+    public PlayerQuitListener(PlaytimeManager playtimeManager, PlayerStatisticsManager playerStatisticsManager) {
         this.playtimeManager = playtimeManager;
+        this.playerStatisticsManager = playerStatisticsManager;
     }
 
     /**
@@ -36,5 +40,6 @@ public class PlayerQuitListener implements Listener {
         UUID playerUuid = event.getPlayer().getUniqueId();
 
         playtimeManager.stopSession(playerUuid);
+        playerStatisticsManager.unregisterPlayer(playerUuid);
     }
 }
@@ -1,6 +1,7 @@
 package com.jouriroosjen.hardcoreSMPPlugin.managers;
 
 import com.jouriroosjen.hardcoreSMPPlugin.enums.HologramEnum;
+import com.jouriroosjen.hardcoreSMPPlugin.storage.Storage;
 import eu.decentsoftware.holograms.api.DHAPI;
 import eu.decentsoftware.holograms.api.DecentHolograms;
 import eu.decentsoftware.holograms.api.holograms.Hologram;
@@ -11,9 +12,6 @@ import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.UUID;
 
@@ -21,24 +19,24 @@ import java.util.UUID;
  * Manages the holograms for this plugin.
  *
  * @author Jouri Roosjen
- * @version 1.0.0
+ * @version 1.2.0
  */
 public class HologramManager extends eu.decentsoftware.holograms.api.holograms.HologramManager {
     private final JavaPlugin plugin;
-    private final Connection connection;
+    private final Storage storage;
 
     /**
      * Constructs a new {@code HologramManager} instance.
      *
      * @param decentHolograms The initialised {@code DecentHolograms} instance.
      * @param plugin          The main plugin instance.
-     * @param connection      The active database connection.
+     * @param storage         The storage to read the hologram data from.
      */
-    public HologramManager(DecentHolograms decentHolograms, JavaPlugin plugin, Connection connection) {
+    public HologramManager(DecentHolograms decentHolograms, JavaPlugin plugin, Storage storage) {
         super(decentHolograms);
 
         this.plugin = plugin;
-        this.connection = connection;
+        this.storage = storage;
     }
 
     /**
@@ -228,58 +226,26 @@ public class HologramManager extends eu.decentsoftware.holograms.api.holograms.H
      * @throws SQLException If a database error occurs.
      */
     private double getPiggyBankTotal() throws SQLException {
-        try (PreparedStatement statement = connection.prepareStatement("""
-                SELECT SUM(amount) AS total
-                FROM piggy_bank
-                """)) {
-            ResultSet resultSet = statement.executeQuery();
-
-            if (resultSet.next()) {
-                return resultSet.getDouble("total");
-            }
-        }
-        return 0;
+        return storage.await(storage.getPiggyBankTotal());
     }
 
     /**
      * Get the player UUID of the latest death
      *
-     * @return A player UUID
+     * @return A player UUID, {@code null} if nobody died yet
      * @throws SQLException If a database error occurs
      */
     private UUID getLatestDeathUuid() throws SQLException {
-        try (PreparedStatement statement = connection.prepareStatement("""
-                SELECT (player_uuid) FROM deaths
-                ORDER BY datetime(created_at) DESC
-                LIMIT 1
-                """)) {
-            ResultSet resultSet = statement.executeQuery();
-
-            if (resultSet.next()) {
-                return UUID.fromString(resultSet.getString("player_uuid"));
-            }
-        }
-        return null;
+        return storage.await(storage.findLatestDeath()).orElse(null);
     }
 
     /**
      * Get the player UUID of the latest assist
      *
-     * @return A player UUID
+     * @return A player UUID, {@code null} if nobody assisted yet
      * @throws SQLException If a database error occurs
      */
     private UUID getLatestAssistUuid() throws SQLException {
-        try (PreparedStatement statement = connection.prepareStatement("""
-                SELECT (giving_player_uuid) FROM buyback_assists
-                ORDER BY datetime(created_at) DESC
-                LIMIT 1
-                """)) {
-            ResultSet resultSet = statement.executeQuery();
-
-            if (resultSet.next()) {
-                return UUID.fromString(resultSet.getString("giving_player_uuid"));
-            }
-        }
-        return null;
+        return storage.await(storage.findLatestAssist()).orElse(null);
     }
 }
@@ -1,84 +1,187 @@
 package com.jouriroosjen.hardcoreSMPPlugin.managers;
 
 import com.jouriroosjen.hardcoreSMPPlugin.enums.PlayerStatisticsEnum;
+import com.jouriroosjen.hardcoreSMPPlugin.enums.RollupGranularityEnum;
+import com.jouriroosjen.hardcoreSMPPlugin.statistics.StatisticsAccumulator;
+import com.jouriroosjen.hardcoreSMPPlugin.statistics.StatisticsHealth;
+import com.jouriroosjen.hardcoreSMPPlugin.statistics.StatisticsJournal;
+import com.jouriroosjen.hardcoreSMPPlugin.statistics.StatisticsLeaderboard;
+import com.jouriroosjen.hardcoreSMPPlugin.storage.JournalWatermark;
+import com.jouriroosjen.hardcoreSMPPlugin.storage.StatisticDelta;
+import com.jouriroosjen.hardcoreSMPPlugin.storage.Storage;
+import com.jouriroosjen.hardcoreSMPPlugin.utils.Histogram;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.scheduler.BukkitRunnable;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
+import java.io.File;
+import java.io.IOException;
 import java.sql.SQLException;
-import java.util.Map;
-import java.util.UUID;
+import java.util.*;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.logging.Level;
 
 /**
  * Manages the player statistics.
  *
  * @author Jouri Roosjen
- * @version 2.0.0
+ * @version 3.12.0
  */
 public class PlayerStatisticsManager {
     private final JavaPlugin plugin;
-    private final Connection connection;
+    private final Storage storage;
 
-    private final AtomicBoolean isRunning;
     private final AtomicBoolean isShuttingDown;
+    private final Thread writerThread;
+    private final ReentrantLock writerLock;
 
     private final AtomicLong processedJobs;
     private final AtomicLong failedJobs;
-
-    private final BlockingQueue<StatisticJob> jobQueue;
-    private final Map<StatisticKey, Double> batchedIncrements;
+    private final AtomicLong overflowedJobs;
+    private final AtomicInteger queueHighWaterMark;
+    private final Histogram batchSizes;
+    private final Histogram flushLatencyMicros;
+    private volatile long lastCommitMillis;
+    private volatile long currentFlushIntervalMillis;
+
+    // Guarded by the writer lock
+    private int overflowedThisCycle;
+    private boolean queueAlertRaised;
+    private long nextHealthLogMillis;
+    private long nextFailureLogMillis;
+    private int suppressedFailureLogs;
+
+    private final BlockingQueue<JournaledDelta> jobQueue;
+    private final StatisticsAccumulator accumulator;
+    private final StatisticsJournal journal;
+
+    // Guarded by the writer lock. A batch that failed, retried before anything newer so the watermark only moves forward
+    private final List<JournaledDelta> retryBatch;
+    // Guarded by the writer lock. Journal records of a previous run that weren't checked against the watermark yet
+    private List<StatisticsJournal.Entry> unrecoveredEntries;
+    // Guarded by the writer lock. Whether the last flush committed every swept delta
+    private boolean isDrained;
+
+    // Values of online players, including every delta that has been swept out of the accumulator
+    private final Map<UUID, double[]> statisticsCache;
+    private final StampedLock cacheLock;
+    private final Queue<CacheEvent> cacheEvents;
+
+    private final StatisticsLeaderboard leaderboard;
+    private final long hourlyRollupRetentionMillis;
+    private final long dailyRollupRetentionMillis;
+
+    // Guarded by the writer lock
+    private long nextRollupCompactionMillis;
+
+    private final int maxBatchSize;
+    private final long healthLogIntervalMillis;
+    private final long minFlushIntervalMillis;
+    private final long maxFlushIntervalMillis;
 
     // Processing settings
-    private static final int BATCH_SIZE = 50;
-    private static final long BATCH_PROCESS_INTERVAL = 20L;
+    private static final int DEFAULT_MAX_BATCH_SIZE = 2000;
+    private static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000L;
+    private static final long DEFAULT_MIN_FLUSH_INTERVAL_MILLIS = 250L;
+    private static final long DEFAULT_MAX_FLUSH_INTERVAL_MILLIS = 5000L;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10000L;
     private static final int MAX_QUEUE_SIZE = 10000;
+    private static final int QUEUE_ALERT_THRESHOLD = MAX_QUEUE_SIZE * 8 / 10;
+    private static final int QUEUE_RECOVERED_THRESHOLD = MAX_QUEUE_SIZE / 2;
+    private static final int DEFAULT_PLAYER_SLOTS = 256;
+    private static final int DEFAULT_LEADERBOARD_SIZE = 10;
+    private static final long DEFAULT_HOURLY_ROLLUP_RETENTION_HOURS = 48L;
+    private static final long DEFAULT_DAILY_ROLLUP_RETENTION_DAYS = 90L;
+    private static final long ROLLUP_COMPACTION_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final long DEFAULT_HEALTH_LOG_INTERVAL_MINUTES = 15L;
+    private static final long FAILURE_LOG_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final String JOURNAL_FILE_NAME = "statistics.journal";
+
+    private static final PlayerStatisticsEnum[] STATISTICS = PlayerStatisticsEnum.values();
 
     /**
-     * Represents a statistic update job.
+     * Represents a request for the writer thread to warm or evict the cached statistics of a player.
      *
-     * @param playerUuid The unique ID of the player this job belongs to.
-     * @param statistic  The statistic that should be updated.
-     * @param value      The value to update the statistic with.
+     * @param playerUuid The unique ID of the player.
+     * @param warm       {@code true} to load the player into the cache, {@code false} to evict them.
      */
-    private record StatisticJob(UUID playerUuid, PlayerStatisticsEnum statistic, double value) {
+    private record CacheEvent(UUID playerUuid, boolean warm) {
     }
 
     /**
-     * Represents a statistic batch key.
+     * Represents a queued delta together with its record in the journal.
      *
-     * @param playerUuid The unique ID of the player to find in the batch.
-     * @param statistic  The statistic to find in the batch.
+     * @param delta    The delta to write.
+     * @param sequence The sequence of its journal record, {@code -1} if it isn't journaled.
      */
-    private record StatisticKey(UUID playerUuid, PlayerStatisticsEnum statistic) {
+    private record JournaledDelta(StatisticDelta delta, int sequence) {
     }
 
     /**
      * Constructs a new {@code PlayerStatisticsManager} instance.
      *
-     * @param plugin     The main plugin instance.
-     * @param connection The active database connection.
+     * @param plugin  The main plugin instance.
+     * @param storage The storage the statistics are written to.
      */
-    public PlayerStatisticsManager(JavaPlugin plugin, Connection connection) {
+    public PlayerStatisticsManager(JavaPlugin plugin, Storage storage) {
         this.plugin = plugin;
-        this.connection = connection;
+        this.storage = storage;
 
-        this.isRunning = new AtomicBoolean(false);
         this.isShuttingDown = new AtomicBoolean(false);
+        this.writerLock = new ReentrantLock();
 
         this.processedJobs = new AtomicLong(0);
         this.failedJobs = new AtomicLong(0);
+        this.overflowedJobs = new AtomicLong(0);
+        this.queueHighWaterMark = new AtomicInteger(0);
+        this.batchSizes = new Histogram();
+        this.flushLatencyMicros = new Histogram();
 
         this.jobQueue = new LinkedBlockingQueue<>(MAX_QUEUE_SIZE);
-        this.batchedIncrements = new ConcurrentHashMap<>();
+        this.retryBatch = new ArrayList<>();
+        this.unrecoveredEntries = List.of();
+        this.isDrained = true;
+        this.accumulator = new StatisticsAccumulator(plugin.getConfig().getInt("statistics.player-slots", DEFAULT_PLAYER_SLOTS));
+
+        this.statisticsCache = new ConcurrentHashMap<>();
+        this.cacheLock = new StampedLock();
+        this.cacheEvents = new ConcurrentLinkedQueue<>();
+
+        this.leaderboard = new StatisticsLeaderboard(Math.max(1, plugin.getConfig().getInt("statistics.leaderboard-size", DEFAULT_LEADERBOARD_SIZE)));
+        this.hourlyRollupRetentionMillis = TimeUnit.HOURS.toMillis(Math.max(1L, plugin.getConfig().getLong("statistics.rollups.hourly-retention-hours", DEFAULT_HOURLY_ROLLUP_RETENTION_HOURS)));
+        this.dailyRollupRetentionMillis = TimeUnit.DAYS.toMillis(Math.max(0L, plugin.getConfig().getLong("statistics.rollups.daily-retention-days", DEFAULT_DAILY_ROLLUP_RETENTION_DAYS)));
+
+        this.maxBatchSize = Math.max(1, plugin.getConfig().getInt("statistics.max-batch-size", DEFAULT_MAX_BATCH_SIZE));
+        this.minFlushIntervalMillis = Math.max(50L, plugin.getConfig().getLong("statistics.flush-interval.min-ms", DEFAULT_MIN_FLUSH_INTERVAL_MILLIS));
+        this.maxFlushIntervalMillis = Math.max(minFlushIntervalMillis, plugin.getConfig().getLong("statistics.flush-interval.max-ms", DEFAULT_MAX_FLUSH_INTERVAL_MILLIS));
+        this.healthLogIntervalMillis = TimeUnit.MINUTES.toMillis(Math.max(0L, plugin.getConfig().getLong("statistics.health-log-interval-minutes", DEFAULT_HEALTH_LOG_INTERVAL_MINUTES)));
+        this.nextHealthLogMillis = System.currentTimeMillis() + healthLogIntervalMillis;
+
+        // Players that are already online (e.g. after a reload) won't fire a join event
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            registerPlayer(player.getUniqueId());
+        }
 
-        startWorkerThread();
-        startBatchProcessor();
+        // Recover the increments that didn't make it to the database before the worker starts
+        this.journal = openJournal();
+        replayJournal();
+        loadLeaderboard();
+
+        // SQLite calls are native and would pin a virtual thread to its carrier, so use a platform thread
+        this.writerThread = Thread.ofPlatform()
+                .name("HardcoreSMP-StatisticsWriter")
+                .daemon(true)
+                .start(this::runWriter);
     }
 
     /**
@@ -97,146 +200,775 @@ public class PlayerStatisticsManager {
         if (playerUuid == null || playerStatistic == null || Double.isNaN(incrementValue) || Double.isInfinite(incrementValue))
             return;
 
-        StatisticKey key = new StatisticKey(playerUuid, playerStatistic);
+        accumulator.add(playerUuid, playerStatistic, incrementValue);
+    }
+
+    /**
+     * Gets the current value of a player statistic, including increments that haven't been written yet.
+     * Online players are served from memory, other players are read from the database.
+     *
+     * @param playerUuid The UUID of the player.
+     * @param statistic  The statistic to get.
+     * @return The current value of the statistic.
+     * @throws SQLException If the player isn't cached and a database error occurs.
+     */
+    public double getStatistic(UUID playerUuid, PlayerStatisticsEnum statistic) throws SQLException {
+        return getCurrentValues(playerUuid)[statistic.ordinal()];
+    }
+
+    /**
+     * Gets the current values of all statistics of a player, including increments that haven't been written yet.
+     * Online players are served from memory, other players are read from the database.
+     *
+     * @param playerUuid The UUID of the player.
+     * @return A map containing the current value of every statistic.
+     * @throws SQLException If the player isn't cached and a database error occurs.
+     */
+    public Map<PlayerStatisticsEnum, Double> getAll(UUID playerUuid) throws SQLException {
+        Map<PlayerStatisticsEnum, Double> statistics = new EnumMap<>(PlayerStatisticsEnum.class);
+        double[] values = getCurrentValues(playerUuid);
+
+        for (PlayerStatisticsEnum statistic : STATISTICS) {
+            statistics.put(statistic, values[statistic.ordinal()]);
+        }
+
+        return statistics;
+    }
+
+    /**
+     * Gets the current values of all statistics of a player, including increments that haven't been written yet.
+     * An uncached player is loaded without holding the cache lock, so the writer's sweep never waits on the database.
+     *
+     * @param playerUuid The UUID of the player.
+     * @return The current values, indexed by statistic ordinal.
+     * @throws SQLException If the player isn't cached and a database error occurs.
+     */
+    private double[] getCurrentValues(UUID playerUuid) throws SQLException {
+        double[] values = readCurrentValues(playerUuid, null);
+        if (values != null) return values;
+
+        return readCurrentValues(playerUuid, loadStatistics(playerUuid));
+    }
+
+    /**
+     * Adds the pending increments of a player to their cached values, or to the given stored values if they
+     * aren't cached, while holding the read lock.
+     *
+     * @param playerUuid The UUID of the player.
+     * @param stored     The values loaded from the storage, {@code null} to only use the cache.
+     * @return A copy of the current values indexed by statistic ordinal, {@code null} if there was nothing to add to.
+     */
+    private double[] readCurrentValues(UUID playerUuid, double[] stored) {
+        long stamp = cacheLock.readLock();
+        try {
+            // The player may have been cached while the stored values loaded, the cache is more current then
+            double[] values = statisticsCache.get(playerUuid);
+            if (values == null) values = stored;
+            if (values == null) return null;
+
+            double[] current = new double[STATISTICS.length];
+            for (PlayerStatisticsEnum statistic : STATISTICS) {
+                current[statistic.ordinal()] = values[statistic.ordinal()] + accumulator.peek(playerUuid, statistic);
+            }
+            return current;
+        } finally {
+            cacheLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Gets the current top players of a statistic, highest first.
+     * The ranking is kept in memory and updated every flush, so this never touches the database.
+     *
+     * @param statistic The statistic to rank on.
+     * @return An unmodifiable list of the top entries.
+     */
+    public List<StatisticsLeaderboard.Entry> getLeaderboard(PlayerStatisticsEnum statistic) {
+        return leaderboard.getTop(statistic);
+    }
+
+    /**
+     * Gets the value a player gained for a statistic since the given moment, including increments that haven't been written yet.
+     * The window is rounded down to whole hours, or to whole days for moments older than the hourly rollup retention.
+     * Holds the writer lock, so nothing moves between the rollups and the pending increments while they're read,
+     * which means this waits for a running flush and shouldn't be called on the main thread.
+     *
+     * @param playerUuid  The UUID of the player.
+     * @param statistic   The statistic to get.
+     * @param sinceMillis The start of the window in epoch milliseconds.
+     * @return The value gained within the window.
+     * @throws SQLException If a database error occurs.
+     */
+    public double getStatisticSince(UUID playerUuid, PlayerStatisticsEnum statistic, long sinceMillis) throws SQLException {
+        writerLock.lock();
+        try {
+            double value = storage.await(storage.sumStatisticSince(playerUuid, statistic, sinceMillis));
+
+            for (JournaledDelta job : retryBatch) {
+                value += pendingValue(job, playerUuid, statistic);
+            }
+            for (JournaledDelta job : jobQueue) {
+                value += pendingValue(job, playerUuid, statistic);
+            }
+
+            return value + accumulator.peek(playerUuid, statistic);
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the value a pending job adds to a statistic of a player.
+     *
+     * @param job        The pending job.
+     * @param playerUuid The UUID of the player.
+     * @param statistic  The statistic.
+     * @return The value of the job, or {@code 0} if it's for another player or statistic.
+     */
+    private static double pendingValue(JournaledDelta job, UUID playerUuid, PlayerStatisticsEnum statistic) {
+        StatisticDelta delta = job.delta();
+        return delta.statistic() == statistic && delta.playerUuid().equals(playerUuid) ? delta.value() : 0;
+    }
 
-        batchedIncrements.merge(key, incrementValue, Double::sum);
+    /**
+     * Gets the top players of a statistic since the given moment, highest first.
+     * The window is rounded down to whole hours, or to whole days for moments older than the hourly rollup retention.
+     *
+     * @param statistic   The statistic to rank on.
+     * @param sinceMillis The start of the window in epoch milliseconds.
+     * @param limit       The maximum amount of entries.
+     * @return The top entries within the window.
+     * @throws SQLException If a database error occurs.
+     */
+    public List<StatisticsLeaderboard.Entry> getLeaderboardSince(PlayerStatisticsEnum statistic, long sinceMillis, int limit) throws SQLException {
+        return storage.await(storage.topStatisticSince(statistic, sinceMillis, limit));
     }
 
     /**
-     * Starts a new thread for the statistic job queue.
+     * Assigns an accumulator slot to a player, so their increments stay allocation-free,
+     * and asks the writer to load their statistics into the cache.
+     *
+     * @param playerUuid The UUID of the player that joined.
      */
-    private void startWorkerThread() {
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                isRunning.set(true);
+    public void registerPlayer(UUID playerUuid) {
+        if (!accumulator.assignSlot(playerUuid))
+            plugin.getLogger().warning("No free statistics slot for " + playerUuid + ", falling back to the overflow buffer.");
 
-                while (!isShuttingDown.get() || !jobQueue.isEmpty()) {
-                    try {
-                        int processed = 0;
+        cacheEvents.add(new CacheEvent(playerUuid, true));
+        if (writerThread != null) LockSupport.unpark(writerThread);
+    }
 
-                        while (processed < BATCH_SIZE && !jobQueue.isEmpty()) {
-                            StatisticJob job = jobQueue.poll();
+    /**
+     * Releases the accumulator slot of a player once their pending increments are flushed,
+     * and asks the writer to evict their statistics from the cache.
+     *
+     * @param playerUuid The UUID of the player that left.
+     */
+    public void unregisterPlayer(UUID playerUuid) {
+        accumulator.releaseSlot(playerUuid);
+        cacheEvents.add(new CacheEvent(playerUuid, false));
+    }
 
-                            if (job != null) {
-                                processJob(job);
-                                processed++;
-                            }
-                        }
+    /**
+     * The loop of the single writer thread.
+     * It sleeps until the flush interval passes or it gets signalled, sweeps the accumulator into the queue,
+     * writes the queue to the database and adapts the flush interval to the amount of work it found.
+     * While flushes keep failing, the interval doubles up to the maximum so a broken database isn't hammered.
+     */
+    private void runWriter() {
+        List<JournaledDelta> batch = new ArrayList<>(maxBatchSize);
+        long flushIntervalMillis = Math.clamp(DEFAULT_FLUSH_INTERVAL_MILLIS, minFlushIntervalMillis, maxFlushIntervalMillis);
+        currentFlushIntervalMillis = flushIntervalMillis;
+
+        while (true) {
+            boolean stopping = isShuttingDown.get();
+
+            // Deltas that didn't fit in the queue last cycle are waiting in the accumulator, so don't wait for them,
+            // unless the last flush failed, then retrying right away would only fail again
+            if (!stopping && (overflowedThisCycle == 0 || !isDrained)) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis));
+                stopping = isShuttingDown.get();
+            }
 
-                        if (processed == 0) {
-                            Thread.sleep(50);
-                        }
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        break;
-                    } catch (Exception e) {
-                        plugin.getLogger().severe("Error in statistics worker thread: " + e.getMessage());
-                        e.printStackTrace();
+            writerLock.lock();
+            try {
+                int flushed = sweepAndFlush(batch);
+                flushIntervalMillis = isDrained
+                        ? adaptFlushInterval(flushIntervalMillis, flushed)
+                        : Math.min(maxFlushIntervalMillis, flushIntervalMillis * 2);
+                currentFlushIntervalMillis = flushIntervalMillis;
+
+                if (!stopping) {
+                    // Both rely on the database holding every swept delta, which isn't the case while a batch waits for a retry
+                    if (isDrained) {
+                        processCacheEvents();
+                        compactRollupsIfDue();
                     }
+                    logHealthIfDue();
                 }
-
-                isRunning.set(false);
+            } catch (Exception e) {
+                if (logFailure(Level.SEVERE, "Error in statistics writer thread: " + e.getMessage())) e.printStackTrace();
+            } finally {
+                batch.clear();
+                writerLock.unlock();
             }
-        }.runTaskAsynchronously(plugin);
+
+            // A failed last flush leaves its deltas in the journal for the next start
+            if (stopping && (overflowedThisCycle == 0 || !isDrained)) return;
+        }
+    }
+
+    /**
+     * Synchronously sweeps the accumulator and writes everything to the database on the calling thread.
+     * Blocks while the writer thread is busy with a cycle of its own. Don't call this from the main thread.
+     *
+     * @return The amount of jobs that were flushed.
+     */
+    public int flush() {
+        List<JournaledDelta> batch = new ArrayList<>(maxBatchSize);
+
+        writerLock.lock();
+        try {
+            return sweepAndFlush(batch);
+        } finally {
+            writerLock.unlock();
+        }
     }
 
     /**
-     * Starts a new thread for the increments batch processor.
+     * Sweeps the accumulator into the job queue and writes the queue to the database.
+     * The caller must hold the writer lock.
+     *
+     * @param batch A reusable list to collect the batches in.
+     * @return The amount of jobs that were flushed.
+     */
+    private int sweepAndFlush(List<JournaledDelta> batch) {
+        overflowedThisCycle = 0;
+
+        // Sweeping and caching has to look atomic to readers, otherwise they could miss or double count a delta
+        long stamp = cacheLock.writeLock();
+        try {
+            processBatchedIncrements();
+        } finally {
+            cacheLock.unlockWrite(stamp);
+        }
+
+        recordQueueDepth();
+
+        if (overflowedThisCycle > 0)
+            logFailure(Level.WARNING, "Statistics job queue is full! Folded " + overflowedThisCycle + " deltas back into the accumulator.");
+
+        return flushQueue(batch);
+    }
+
+    /**
+     * Writes the batch that failed last cycle and then everything in the job queue to the database, one batch at a time.
+     * A batch that fails again stops the cycle and is kept for the next one, so batches commit in journal order.
+     * The journal is truncated once the queue is empty and every batch was committed.
+     * Whether that happened is kept in {@code isDrained}.
+     *
+     * @param batch A reusable list to collect the batches in.
+     * @return The amount of jobs that were committed.
      */
-    private void startBatchProcessor() {
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                processBatchedIncrements();
+    private int flushQueue(List<JournaledDelta> batch) {
+        isDrained = false;
+
+        // Nothing newer may commit before the old records are checked, it would move the watermark past them
+        if (!recoverJournal()) return 0;
+
+        int flushed = 0;
+
+        if (!retryBatch.isEmpty()) {
+            if (!processBatch(retryBatch)) return 0;
+
+            flushed += retryBatch.size();
+            retryBatch.clear();
+        }
+
+        while (jobQueue.drainTo(batch, maxBatchSize) > 0) {
+            if (!processBatch(batch)) {
+                retryBatch.addAll(batch);
+                return flushed;
             }
-        }.runTaskTimerAsynchronously(plugin, BATCH_PROCESS_INTERVAL, BATCH_PROCESS_INTERVAL);
+
+            flushed += batch.size();
+            batch.clear();
+        }
+
+        if (journal != null) journal.truncate();
+
+        isDrained = true;
+        return flushed;
+    }
+
+    /**
+     * Calculates the next flush interval based on the load of the last cycle.
+     * Under heavy load the interval is halved to keep batches small, when idle it's doubled,
+     * and otherwise it drifts back towards the default.
+     *
+     * @param currentMillis The current flush interval in milliseconds.
+     * @param flushed       The amount of jobs flushed in the last cycle.
+     * @return The next flush interval in milliseconds.
+     */
+    private long adaptFlushInterval(long currentMillis, int flushed) {
+        long next;
+        if (flushed >= maxBatchSize) {
+            next = currentMillis / 2;
+        } else if (flushed == 0) {
+            next = currentMillis * 2;
+        } else if (currentMillis < DEFAULT_FLUSH_INTERVAL_MILLIS) {
+            next = Math.min(DEFAULT_FLUSH_INTERVAL_MILLIS, currentMillis * 2);
+        } else {
+            next = Math.max(DEFAULT_FLUSH_INTERVAL_MILLIS, currentMillis / 2);
+        }
+
+        return Math.clamp(next, minFlushIntervalMillis, maxFlushIntervalMillis);
     }
 
     /**
      * Processes the batched increments.
+     * A delta only counts towards the cache and the leaderboard once it's queued. A delta that doesn't fit goes
+     * back into the accumulator, where readers already see it, and is counted when a later sweep queues it.
      */
     private void processBatchedIncrements() {
-        if (batchedIncrements.isEmpty()) return;
+        accumulator.drain((playerUuid, statistic, value) -> {
+            if (!queueJob(new StatisticDelta(playerUuid, statistic, value))) return;
+
+            double[] values = statisticsCache.get(playerUuid);
+            if (values != null) values[statistic.ordinal()] += value;
+
+            leaderboard.add(playerUuid, statistic, value);
+        });
+
+        leaderboard.publish();
+    }
+
+    /**
+     * Folds old hourly rollups into daily rollups, at most once every {@code ROLLUP_COMPACTION_INTERVAL_MILLIS}.
+     */
+    private void compactRollupsIfDue() {
+        long now = System.currentTimeMillis();
+        if (now < nextRollupCompactionMillis) return;
 
-        Map<StatisticKey, Double> toProcess = new ConcurrentHashMap<>(batchedIncrements);
-        batchedIncrements.clear();
+        nextRollupCompactionMillis = now + ROLLUP_COMPACTION_INTERVAL_MILLIS;
 
-        for (Map.Entry<StatisticKey, Double> entry : toProcess.entrySet()) {
-            StatisticKey key = entry.getKey();
-            Double value = entry.getValue();
+        // Only whole days are folded, so a daily rollup never overlaps an hourly rollup that is still kept
+        long hourlyCutoff = RollupGranularityEnum.DAILY.bucketStart(now - hourlyRollupRetentionMillis);
+        long dailyCutoff = dailyRollupRetentionMillis > 0 ? RollupGranularityEnum.DAILY.bucketStart(now - dailyRollupRetentionMillis) : 0;
+
+        try {
+            int folded = storage.await(storage.compactStatisticRollups(hourlyCutoff, dailyCutoff));
+            if (folded > 0) plugin.getLogger().info("Folded " + folded + " hourly statistic rollups into daily rollups.");
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to compact statistic rollups!");
+            e.printStackTrace();
+        }
+    }
 
-            StatisticJob job = new StatisticJob(key.playerUuid, key.statistic, value);
-            queueJob(job);
+    /**
+     * Builds the leaderboards from all statistics in the storage.
+     */
+    private void loadLeaderboard() {
+        try {
+            for (Map.Entry<UUID, double[]> entry : storage.await(storage.loadAllStatistics()).entrySet()) {
+                for (PlayerStatisticsEnum statistic : STATISTICS) {
+                    // Statistics a player never gained are zero, they don't belong on the leaderboard
+                    double value = entry.getValue()[statistic.ordinal()];
+                    if (value != 0) leaderboard.set(entry.getKey(), statistic, value);
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to load the statistic leaderboards!");
+            e.printStackTrace();
         }
+
+        leaderboard.publish();
     }
 
     /**
-     * Add a new statistic job to the queue.
+     * Warms and evicts cached players in the order they joined and left.
+     * Only runs right after a flush that drained the queue, when the database holds every swept delta,
+     * so a freshly loaded player matches the cache exactly.
+     */
+    private void processCacheEvents() {
+        CacheEvent event;
+        while ((event = cacheEvents.poll()) != null) {
+            if (!event.warm()) {
+                long stamp = cacheLock.writeLock();
+                try {
+                    statisticsCache.remove(event.playerUuid());
+                } finally {
+                    cacheLock.unlockWrite(stamp);
+                }
+                continue;
+            }
+
+            if (statisticsCache.containsKey(event.playerUuid())) continue;
+
+            try {
+                double[] values = loadStatistics(event.playerUuid());
+
+                long stamp = cacheLock.writeLock();
+                try {
+                    statisticsCache.put(event.playerUuid(), values);
+                } finally {
+                    cacheLock.unlockWrite(stamp);
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().severe("Failed to load statistics of " + event.playerUuid() + " into the cache!");
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Loads all statistics of a player from the storage.
+     *
+     * @param playerUuid The UUID of the player.
+     * @return The stored values, indexed by statistic ordinal.
+     * @throws SQLException If a database error occurs.
+     */
+    private double[] loadStatistics(UUID playerUuid) throws SQLException {
+        return storage.await(storage.loadStatistics(playerUuid));
+    }
+
+    /**
+     * Add a new statistic job to the queue and record it in the journal.
      *
      * @param job The statistic job to add.
+     * @return {@code true} if the job was queued, {@code false} if it went back into the accumulator.
+     */
+    private boolean queueJob(StatisticDelta job) {
+        if (jobQueue.remainingCapacity() == 0) {
+            // Coalesce the delta back into the accumulator, the next sweep will pick it up again
+            accumulator.add(job.playerUuid(), job.statistic(), job.value());
+            overflowedJobs.incrementAndGet();
+            overflowedThisCycle++;
+            return false;
+        }
+
+        int sequence = -1;
+        if (journal != null) {
+            try {
+                sequence = journal.append(job.playerUuid(), job.statistic(), job.value());
+            } catch (IOException e) {
+                logFailure(Level.SEVERE, "Failed to write statistic job to the journal: " + e.getMessage());
+            }
+        }
+
+        // Only the writer fills the queue while holding the writer lock, so the capacity checked above is still there
+        jobQueue.add(new JournaledDelta(job, sequence));
+        return true;
+    }
+
+    /**
+     * Updates the queue high-water mark and raises, or clears, the queue depth alert.
+     */
+    private void recordQueueDepth() {
+        int depth = jobQueue.size();
+        queueHighWaterMark.accumulateAndGet(depth, Math::max);
+
+        if (!queueAlertRaised && depth >= QUEUE_ALERT_THRESHOLD) {
+            queueAlertRaised = true;
+            plugin.getLogger().warning("Statistics job queue is at " + depth + "/" + MAX_QUEUE_SIZE + " jobs, the database writer is falling behind!");
+        } else if (queueAlertRaised && depth <= QUEUE_RECOVERED_THRESHOLD) {
+            queueAlertRaised = false;
+            plugin.getLogger().info("Statistics job queue recovered to " + depth + "/" + MAX_QUEUE_SIZE + " jobs.");
+        }
+    }
+
+    /**
+     * Takes a snapshot of the health of the statistics pipeline.
+     *
+     * @return The current health metrics.
+     */
+    public StatisticsHealth getHealth() {
+        long lastCommit = lastCommitMillis;
+
+        return new StatisticsHealth(
+                jobQueue.size(),
+                queueHighWaterMark.get(),
+                MAX_QUEUE_SIZE,
+                processedJobs.get(),
+                failedJobs.get(),
+                overflowedJobs.get(),
+                batchSizes.getCount(),
+                batchSizes.getPercentile(50),
+                batchSizes.getPercentile(99),
+                batchSizes.getMax(),
+                flushLatencyMicros.getPercentile(50) / 1000.0,
+                flushLatencyMicros.getPercentile(95) / 1000.0,
+                flushLatencyMicros.getPercentile(99) / 1000.0,
+                flushLatencyMicros.getMax() / 1000.0,
+                lastCommit == 0 ? -1 : System.currentTimeMillis() - lastCommit,
+                currentFlushIntervalMillis
+        );
+    }
+
+    /**
+     * Resets the queue high-water mark and the batch size and flush latency distributions,
+     * so a fresh measurement can be taken (e.g. right before peak hours).
+     */
+    public void resetHealth() {
+        queueHighWaterMark.set(jobQueue.size());
+        batchSizes.reset();
+        flushLatencyMicros.reset();
+    }
+
+    /**
+     * Writes the pipeline health to the log, at most once every {@code statistics.health-log-interval-minutes}.
+     */
+    private void logHealthIfDue() {
+        if (healthLogIntervalMillis == 0) return;
+
+        long now = System.currentTimeMillis();
+        if (now < nextHealthLogMillis) return;
+
+        nextHealthLogMillis = now + healthLogIntervalMillis;
+        plugin.getLogger().info("Statistics health: " + getHealth().toLogLine());
+    }
+
+    /**
+     * Logs a failure of the pipeline, at most once every {@code FAILURE_LOG_INTERVAL_MILLIS}, so a database that
+     * keeps failing doesn't flood the log. The caller must hold the writer lock.
+     *
+     * @param level   The level to log at.
+     * @param message The message to log.
+     * @return {@code true} if the message was logged, {@code false} if it was suppressed.
      */
-    private void queueJob(StatisticJob job) {
-        if (!jobQueue.offer(job)) {
-            failedJobs.incrementAndGet();
-            plugin.getLogger().warning("Statistics job queue is full! Dropping job: " + job);
+    private boolean logFailure(Level level, String message) {
+        long now = System.currentTimeMillis();
+        if (now < nextFailureLogMillis) {
+            suppressedFailureLogs++;
+            return false;
         }
+
+        nextFailureLogMillis = now + FAILURE_LOG_INTERVAL_MILLIS;
+        if (suppressedFailureLogs > 0) {
+            message += " (suppressed " + suppressedFailureLogs + " failures in the last minute)";
+            suppressedFailureLogs = 0;
+        }
+
+        plugin.getLogger().log(level, message);
+        return true;
+    }
+
+    /**
+     * Gets the amount of jobs currently waiting in the queue.
+     *
+     * @return The current queue depth.
+     */
+    public int getQueueDepth() {
+        return jobQueue.size();
     }
 
     /**
-     * Process a statistic job.
+     * Gets the highest queue depth seen since the manager started.
      *
-     * @param job The statistic job to process.
+     * @return The queue high-water mark.
      */
-    private void processJob(StatisticJob job) {
+    public int getQueueHighWaterMark() {
+        return queueHighWaterMark.get();
+    }
+
+    /**
+     * Gets the capacity of the job queue.
+     *
+     * @return The maximum queue depth.
+     */
+    public int getQueueCapacity() {
+        return MAX_QUEUE_SIZE;
+    }
+
+    /**
+     * Gets the amount of jobs that didn't fit in the queue and were folded back into the accumulator.
+     *
+     * @return The total amount of overflowed jobs.
+     */
+    public long getOverflowedJobs() {
+        return overflowedJobs.get();
+    }
+
+    /**
+     * Opens the statistics journal in the plugin's data folder.
+     *
+     * @return The opened journal, or {@code null} if it couldn't be opened.
+     */
+    private StatisticsJournal openJournal() {
         try {
-            executeIncrement(job.playerUuid, job.statistic, job.value);
-            processedJobs.incrementAndGet();
-        } catch (Exception e) {
-            plugin.getLogger().warning("Failed to process statistic job: " + job + " - " + e.getMessage());
-            failedJobs.incrementAndGet();
+            return new StatisticsJournal(new File(plugin.getDataFolder(), JOURNAL_FILE_NAME));
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to open the statistics journal, increments won't survive a crash!");
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Applies all increments that are still in the journal from a previous run.
+     * If they can't be applied yet, the writer keeps retrying them before anything else.
+     */
+    private void replayJournal() {
+        if (journal == null) return;
+
+        unrecoveredEntries = journal.readPending();
+        if (!recoverJournal() || retryBatch.isEmpty()) return;
+
+        if (processBatch(retryBatch)) {
+            retryBatch.clear();
+            journal.truncate();
+        } else {
+            plugin.getLogger().severe("Failed to replay the statistics journal, the writer will keep retrying it.");
         }
     }
 
     /**
-     * Executes an increment job.
+     * Moves the journal records of a previous run that aren't covered by the stored watermark into the retry batch.
+     * The records at or below the watermark were committed right before the previous run stopped.
+     * If the watermark can't be loaded, the flush doesn't drain, so the writer backs off before it tries again.
      *
-     * @param playerUuid      The unique ID of the player whom's statistic should be incremented.
-     * @param playerStatistic The statistic to increment.
-     * @param value           The value to increment with.
-     * @throws SQLException If a database error occurs.
+     * @return {@code true} if there are no unchecked records left, {@code false} if the watermark couldn't be loaded.
      */
-    private void executeIncrement(UUID playerUuid, PlayerStatisticsEnum playerStatistic, double value) throws SQLException {
-        try (PreparedStatement statement = connection.prepareStatement("""
-                INSERT INTO player_statistics (player_uuid, statistic_type, value)
-                VALUES (?, ?, ?)
-                ON CONFLICT (player_uuid, statistic_type)
-                DO UPDATE SET
-                    value = value + ?,
-                    updated_at = datetime('now')
-                """)) {
-            statement.setString(1, playerUuid.toString());
-            statement.setInt(2, playerStatistic.getId());
-            statement.setDouble(3, value);
-            statement.setDouble(4, value);
-            statement.executeUpdate();
+    private boolean recoverJournal() {
+        if (unrecoveredEntries.isEmpty()) return true;
+
+        JournalWatermark watermark;
+        try {
+            watermark = storage.await(storage.loadJournalWatermark()).orElse(null);
+        } catch (SQLException e) {
+            logFailure(Level.SEVERE, "Failed to load the statistics journal watermark, the journal is replayed once it loads - " + e.getMessage());
+            return false;
+        }
+
+        long generation = journal.getGeneration();
+        int skipped = 0;
+
+        for (StatisticsJournal.Entry entry : unrecoveredEntries) {
+            if (watermark != null && watermark.covers(generation, entry.sequence())) {
+                skipped++;
+                continue;
+            }
+
+            retryBatch.add(new JournaledDelta(new StatisticDelta(entry.playerUuid(), entry.statistic(), entry.value()), entry.sequence()));
         }
+
+        plugin.getLogger().info("Replaying " + retryBatch.size() + " statistic increments from the journal, skipped "
+                + skipped + " that were already committed.");
+
+        unrecoveredEntries = List.of();
+        return true;
     }
 
     /**
-     * Gracefully shutdown the manager and it's threads.
+     * Process a batch of statistic jobs in a single transaction, together with the journal watermark of its last job.
+     * If the batch gets rejected, the jobs are retried one by one so a single bad job
+     * (e.g. a player that isn't saved yet) doesn't take the rest of the batch down with it.
+     *
+     * @param batch The statistic jobs to process.
+     * @return {@code true} if the batch was committed, {@code false} if it has to be retried.
+     */
+    private boolean processBatch(List<JournaledDelta> batch) {
+        long startTime = System.nanoTime();
+
+        List<StatisticDelta> deltas = new ArrayList<>(batch.size());
+        int lastSequence = -1;
+        for (JournaledDelta job : batch) {
+            deltas.add(job.delta());
+            if (job.sequence() >= 0) lastSequence = job.sequence();
+        }
+
+        JournalWatermark watermark = lastSequence >= 0 ? new JournalWatermark(journal.getGeneration(), lastSequence) : null;
+
+        try {
+            executeBatch(deltas, watermark);
+            processedJobs.addAndGet(batch.size());
+            recordFlush(batch.size(), startTime);
+            return true;
+        } catch (SQLException e) {
+            logFailure(Level.WARNING, "Failed to process statistics batch of " + batch.size() + " jobs, retrying individually - " + e.getMessage());
+
+            try {
+                executeIndividually(deltas, watermark);
+                recordFlush(batch.size(), startTime);
+                return true;
+            } catch (SQLException retryException) {
+                logFailure(Level.SEVERE, "Failed to process statistics batch of " + batch.size() + " jobs, retrying next cycle - " + retryException.getMessage());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Records the size and latency of a committed batch.
+     *
+     * @param size      The amount of jobs in the batch.
+     * @param startTime The {@link System#nanoTime()} at which processing the batch started.
+     */
+    private void recordFlush(int size, long startTime) {
+        batchSizes.record(size);
+        flushLatencyMicros.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime));
+        lastCommitMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Writes all jobs of a batch at once, together with the matching hourly rollups.
+     *
+     * @param batch     The statistic jobs to execute.
+     * @param watermark The journal watermark of the last job, {@code null} if none of the jobs are journaled.
+     * @throws SQLException If a database error occurs.
+     */
+    private void executeBatch(List<StatisticDelta> batch, JournalWatermark watermark) throws SQLException {
+        storage.await(storage.writeStatistics(batch, System.currentTimeMillis(), watermark));
+    }
+
+    /**
+     * Writes all jobs of a batch one by one, skipping the jobs that fail.
+     *
+     * @param batch     The statistic jobs to execute.
+     * @param watermark The journal watermark of the last job, {@code null} if none of the jobs are journaled.
+     * @throws SQLException If the write itself fails.
+     */
+    private void executeIndividually(List<StatisticDelta> batch, JournalWatermark watermark) throws SQLException {
+        int rejected = storage.await(storage.writeStatisticsIndividually(batch, System.currentTimeMillis(), watermark));
+
+        processedJobs.addAndGet(batch.size() - rejected);
+        failedJobs.addAndGet(rejected);
+    }
+
+    /**
+     * Gracefully shutdown the manager.
+     * Signals the writer to do a final flush and waits for it, at most {@code SHUTDOWN_TIMEOUT_MILLIS}.
      */
     public void shutdown() {
         isShuttingDown.set(true);
 
-        processBatchedIncrements();
+        long startTime = System.nanoTime();
+        long processedBefore = processedJobs.get();
+
+        LockSupport.unpark(writerThread);
+
+        try {
+            writerThread.join(SHUTDOWN_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        long flushed = processedJobs.get() - processedBefore;
+
+        if (writerThread.isAlive()) {
+            plugin.getLogger().warning("Statistics writer did not stop within " + elapsedMillis + " ms after flushing " + flushed
+                    + " deltas. " + jobQueue.size() + " queued deltas will be replayed from the journal on the next start.");
+            return;
+        }
+
+        plugin.getLogger().info("Statistics writer stopped in " + elapsedMillis + " ms, flushed " + flushed + " deltas.");
 
-        while (isRunning.get()) {
+        if (journal != null) {
             try {
-                Thread.sleep(100);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
+                journal.close();
+            } catch (IOException e) {
+                plugin.getLogger().warning("Failed to close the statistics journal: " + e.getMessage());
             }
         }
     }
@@ -1,5 +1,8 @@
 package com.jouriroosjen.hardcoreSMPPlugin.managers;
 
+import com.jouriroosjen.hardcoreSMPPlugin.storage.PlayerProgress;
+import com.jouriroosjen.hardcoreSMPPlugin.storage.Storage;
+import com.jouriroosjen.hardcoreSMPPlugin.utils.MainThreadExecutor;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
@@ -9,79 +12,181 @@ import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.scheduler.BukkitTask;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
 
 /**
  * Manages player playtime sessions and persists playtime data to the database.
+ * <p>
+ * The progress of every online player is loaded once when they join and kept in memory, so the tracker never
+ * has to ask the storage. If that load fails, the tracker retries it every minute. Changes are written back in the background. All state is only touched on the
+ * server thread.
+ * </p>
  *
  * @author Jouri Roosjen
- * @version 1.0.0
+ * @version 2.0.1
  */
 public class PlaytimeManager {
     private final JavaPlugin plugin;
-    private final Connection connection;
+    private final Storage storage;
+    private final Executor mainThread;
     private final BukkitTask playtimeTracker;
     private final BukkitTask playtimeBackupsTask;
 
-    private final Map<UUID, Long> sessionStartTimes = new HashMap<>();
+    private final Map<UUID, PlayerState> playerStates = new HashMap<>();
+
+    /**
+     * The playtime state of an online player.
+     */
+    private static final class PlayerState {
+        private final long sessionStartMillis;
+
+        /**
+         * The moment up to which the session's playtime is included in {@link #savedPlaytimeSeconds}.
+         */
+        private long savedUntilMillis;
+        private long savedPlaytimeSeconds;
+        private boolean hasGrace;
+        private boolean hasMinimumPlaytime;
+        private boolean isLoaded;
+        private boolean isLoading;
+
+        private PlayerState(long sessionStartMillis) {
+            this.sessionStartMillis = sessionStartMillis;
+            this.savedUntilMillis = sessionStartMillis;
+        }
+
+        /**
+         * Fills the state with the stored progress of the player.
+         *
+         * @param progress The stored progress
+         */
+        private void load(PlayerProgress progress) {
+            savedPlaytimeSeconds = progress.playtimeSeconds();
+            hasGrace = progress.hasGrace();
+            hasMinimumPlaytime = progress.hasMinimumPlaytime();
+            isLoaded = true;
+            isLoading = false;
+        }
+
+        /**
+         * Gets the playtime of the session that isn't saved yet, in whole seconds.
+         *
+         * @param now The current time in epoch milliseconds
+         * @return The unsaved playtime in seconds
+         */
+        private long unsavedSeconds(long now) {
+            return (now - savedUntilMillis) / 1000;
+        }
+
+        /**
+         * Gets the total playtime, including the unsaved part of the session.
+         *
+         * @param now The current time in epoch milliseconds
+         * @return The total playtime in seconds
+         */
+        private long totalPlaytimeSeconds(long now) {
+            return savedPlaytimeSeconds + unsavedSeconds(now);
+        }
+    }
 
     /**
      * Constructs a new {@code PlaytimeManager} instance.
      *
-     * @param plugin     The main plugin instance
-     * @param connection The active database connection
+     * @param plugin  The main plugin instance
+     * @param storage The storage the playtime is saved in
      */
-    public PlaytimeManager(JavaPlugin plugin, Connection connection) {
+    public PlaytimeManager(JavaPlugin plugin, Storage storage) {
         this.plugin = plugin;
-        this.connection = connection;
+        this.storage = storage;
+        this.mainThread = new MainThreadExecutor(plugin);
 
         this.playtimeTracker = startPlaytimeTracker();
         this.playtimeBackupsTask = startPlaytimeBackupTask();
     }
 
     /**
-     * Starts tracking the play session for a specific player.
+     * Starts tracking the play session for a specific player and loads their progress in the background.
+     * The tracker skips the player until the progress is loaded.
      *
-     * @param uuid The UUID of the player
+     * @param uuid        The UUID of the player
+     * @param playerSaved A future that completes once the player is saved, the progress is loaded after it
      */
-    public void startSession(UUID uuid) {
-        sessionStartTimes.put(uuid, System.currentTimeMillis());
+    public void startSession(UUID uuid, CompletableFuture<?> playerSaved) {
+        PlayerState state = new PlayerState(System.currentTimeMillis());
+        playerStates.put(uuid, state);
+
+        loadProgress(uuid, state, playerSaved);
+    }
+
+    /**
+     * Loads the progress of a player into their state in the background.
+     * If it fails, the state stays unloaded and the tracker tries again on its next run.
+     *
+     * @param uuid  The UUID of the player
+     * @param state The state of the player's current session
+     * @param after A future that has to complete before the progress is loaded
+     */
+    private void loadProgress(UUID uuid, PlayerState state, CompletableFuture<?> after) {
+        state.isLoading = true;
+
+        after.thenCompose(ignored -> storage.getProgress(uuid)).whenCompleteAsync((progress, e) -> {
+            // The player may have left, or left and joined again, while the progress was loaded
+            if (playerStates.get(uuid) != state) return;
+
+            if (e != null) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to load the playtime of: " + uuid + ", retrying next minute", e);
+                state.isLoading = false;
+                return;
+            }
+
+            state.load(progress);
+        }, mainThread);
     }
 
     /**
-     * Stops and clears all active player sessions.
+     * Stops and clears all active player sessions, and waits until they're saved.
+     * All sessions are submitted before waiting, so they're committed together.
      */
     public void stopAllSessions() {
-        for (Map.Entry<UUID, Long> entry : sessionStartTimes.entrySet()) {
-            stopSession(entry.getKey());
+        List<CompletableFuture<Void>> closures = new ArrayList<>();
+
+        // Stopping a session removes it from the map, so iterate over a copy
+        for (UUID uuid : new ArrayList<>(playerStates.keySet())) {
+            CompletableFuture<Void> closure = stopSession(uuid);
+            if (closure != null) closures.add(closure);
+        }
+
+        try {
+            storage.await(CompletableFuture.allOf(closures.toArray(CompletableFuture[]::new)));
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to save all sessions: " + e.getMessage());
         }
     }
 
     /**
-     * Stops a specific player's session.
+     * Stops a specific player's session and saves it in the background.
      *
      * @param uuid The UUID of the player
+     * @return A future that completes once the session is saved, {@code null} if the player had no session
      */
-    public void stopSession(UUID uuid) {
-        Long startTime = sessionStartTimes.remove(uuid);
-        if (startTime == null) return;
+    public CompletableFuture<Void> stopSession(UUID uuid) {
+        PlayerState state = playerStates.remove(uuid);
+        if (state == null) return null;
 
-        long endTime = System.currentTimeMillis();
-        long elapsedTimeInSeconds = (endTime - startTime) / 1000;
+        long now = System.currentTimeMillis();
+        long elapsedTimeInSeconds = (now - state.sessionStartMillis) / 1000;
 
-        try {
-            updatePlaytime(uuid, elapsedTimeInSeconds);
-            addSessionToDatabase(uuid, elapsedTimeInSeconds);
-        } catch (SQLException e) {
-            plugin.getLogger().severe("Failed to correctly handle session closure of: " + uuid);
-            e.printStackTrace();
-        }
+        return storage.closeSession(uuid, elapsedTimeInSeconds, state.unsavedSeconds(now)).whenComplete((result, e) -> {
+            if (e != null) plugin.getLogger().log(Level.SEVERE, "Failed to correctly handle session closure of: " + uuid, e);
+        });
     }
 
     /**
@@ -99,7 +204,9 @@ public class PlaytimeManager {
     }
 
     /**
-     * Start a playtime tracker that runs every minute and check grace and minimum playtime status
+     * Start a playtime tracker that runs every minute and check grace and minimum playtime status.
+     * It only reads the in-memory state, the milestones are written back in the background.
+     * Players whose progress failed to load get another load instead.
      *
      * @return The BukkitTask that's started
      */
@@ -109,241 +216,112 @@ public class PlaytimeManager {
             public void run() {
                 int graceTimeInSeconds = plugin.getConfig().getInt("timings.grace-period", 7200);
                 int minimumPlaytimeInSeconds = plugin.getConfig().getInt("timings.minimum-playtime", 90000);
+                long now = System.currentTimeMillis();
 
-                for (Map.Entry<UUID, Long> entry : sessionStartTimes.entrySet()) {
-                    UUID uuid = entry.getKey();
-                    Long startTime = entry.getValue();
-                    if (startTime == null) continue;
-
-                    long now = System.currentTimeMillis();
-                    long elapsedTimeInSeconds = (now - startTime) / 1000;
-
-                    long databasePlaytime;
-                    try {
-                        databasePlaytime = getUserPlaytimeFromDatabase(uuid);
-                    } catch (SQLException e) {
-                        plugin.getLogger().severe("Failed to get playtime for: " + uuid);
-                        e.printStackTrace();
-
+                for (Map.Entry<UUID, PlayerState> entry : playerStates.entrySet()) {
+                    PlayerState state = entry.getValue();
+                    if (!state.isLoaded) {
+                        if (!state.isLoading) loadProgress(entry.getKey(), state, CompletableFuture.completedFuture(null));
                         continue;
                     }
 
-                    long totalPlaytimeInSeconds = databasePlaytime + elapsedTimeInSeconds;
-                    String playerName = plugin.getServer().getPlayer(uuid).getName();
-
-                    // Check user grace status
-                    try {
-                        if (getUserHasGrace(uuid) && totalPlaytimeInSeconds > graceTimeInSeconds) {
-                            disableUserGrace(uuid);
-
-                            String graceOverMessage = plugin.getConfig().getString("messages.grace-over", "%player% is no longer protected and pays in full now!")
-                                    .replace("%player%", playerName);
-
-                            Component messageComponent = Component.text("[SERVER] ")
-                                    .color(NamedTextColor.GOLD)
-                                    .decorate(TextDecoration.BOLD)
-                                    .append(Component.text(graceOverMessage));
-
-                            for (Player player : plugin.getServer().getOnlinePlayers()) {
-                                player.playSound(player, Sound.ENTITY_EXPERIENCE_ORB_PICKUP, 2, 1);
-                            }
-                            plugin.getServer().broadcast(messageComponent);
-                        }
-                    } catch (SQLException e) {
-                        plugin.getLogger().severe("Failed to check/update grace status for: " + uuid);
-                        e.printStackTrace();
-                    }
-
-                    // Check user minimum playtime status
-                    try {
-                        if (!getUserHasMinimumPlaytime(uuid) && totalPlaytimeInSeconds > minimumPlaytimeInSeconds) {
-                            setUserReachedMinimumPlaytime(uuid);
-
-                            String graceOverMessage = plugin.getConfig().getString("messages.minimum-playtime-reached", "%player% has reached the minimum playtime!")
-                                    .replace("%player%", playerName);
-
-                            Component messageComponent = Component.text("[SERVER] ")
-                                    .color(NamedTextColor.GREEN)
-                                    .decorate(TextDecoration.BOLD)
-                                    .append(Component.text(graceOverMessage));
-
-                            for (Player player : plugin.getServer().getOnlinePlayers()) {
-                                player.playSound(player, Sound.ENTITY_EXPERIENCE_ORB_PICKUP, 2, 1);
-                            }
-                            plugin.getServer().broadcast(messageComponent);
-                        }
-                    } catch (SQLException e) {
-                        plugin.getLogger().severe("Failed to check/change minimum playtime status for: " + uuid);
-                        e.printStackTrace();
-                    }
+                    checkMilestones(entry.getKey(), state, state.totalPlaytimeSeconds(now), graceTimeInSeconds, minimumPlaytimeInSeconds);
                 }
             }
         }.runTaskTimer(plugin, 20L, 1200L); // Runs every 1200 tick (1 minute)
     }
 
     /**
-     * Start a playtime backup task that runs every 5 minutes.
-     * It updates the player's playtime in the database in case of a crash.
+     * Ends the grace period and marks the minimum playtime of a player once their playtime passes them,
+     * and announces it to everyone.
      *
-     * @return The BukkitTask that's started
+     * @param uuid                     The UUID of the player
+     * @param state                    The in-memory state of the player
+     * @param totalPlaytimeInSeconds   The saved playtime plus the unsaved part of the session, in seconds
+     * @param graceTimeInSeconds       The playtime after which the grace period ends, in seconds
+     * @param minimumPlaytimeInSeconds The minimum playtime, in seconds
      */
-    private BukkitTask startPlaytimeBackupTask() {
-        return new BukkitRunnable() {
-            @Override
-            public void run() {
-                for (Map.Entry<UUID, Long> entry : sessionStartTimes.entrySet()) {
-                    UUID uuid = entry.getKey();
-                    Long startTime = entry.getValue();
-                    if (startTime == null) continue;
+    private void checkMilestones(UUID uuid, PlayerState state, long totalPlaytimeInSeconds, int graceTimeInSeconds, int minimumPlaytimeInSeconds) {
+        Player trackedPlayer = plugin.getServer().getPlayer(uuid);
+        if (trackedPlayer == null) return;
 
-                    long now = System.currentTimeMillis();
-                    long elapsedTimeInSeconds = (now - startTime) / 1000;
+        String playerName = trackedPlayer.getName();
 
-                    try {
-                        updatePlaytime(uuid, elapsedTimeInSeconds);
-                    } catch (SQLException e) {
-                        plugin.getLogger().severe("Failed to update playtime (" + elapsedTimeInSeconds + ") for: " + uuid);
-                        e.printStackTrace();
-                    }
-                }
-            }
-        }.runTaskTimer(plugin, 20L, 6000L); // Runs every 6000 tick (5 minutes)
-    }
+        // Check user grace status
+        if (state.hasGrace && totalPlaytimeInSeconds > graceTimeInSeconds) {
+            state.hasGrace = false;
+            storage.revokeGrace(uuid).whenComplete((result, e) -> {
+                if (e != null) plugin.getLogger().log(Level.SEVERE, "Failed to check/update grace status for: " + uuid, e);
+            });
 
-    /**
-     * Gets the player's playtime stored in the database.
-     *
-     * @param uuid The player's UUID
-     * @return The playtime in seconds
-     * @throws SQLException If a database error occurs
-     */
-    private long getUserPlaytimeFromDatabase(UUID uuid) throws SQLException {
-        try (PreparedStatement statement = connection.prepareStatement("""
-                SELECT (playtime_seconds)
-                FROM players
-                WHERE uuid = ?
-                """)) {
-            statement.setString(1, uuid.toString());
-
-            try (ResultSet resultSet = statement.executeQuery()) {
-                if (resultSet.next()) return resultSet.getLong("playtime_seconds");
-            }
-        }
-        return 0;
-    }
+            String graceOverMessage = plugin.getConfig().getString("messages.grace-over", "%player% is no longer protected and pays in full now!")
+                    .replace("%player%", playerName);
 
-    /**
-     * Gets the player's grace status from the database
-     *
-     * @param uuid The player's UUID
-     * @return {@code true} if user still has grace, {@code false} otherwise
-     * @throws SQLException If a database error occurs
-     */
-    private boolean getUserHasGrace(UUID uuid) throws SQLException {
-        try (PreparedStatement statement = connection.prepareStatement("""
-                SELECT (has_grace)
-                FROM players
-                WHERE uuid = ?
-                """)) {
-            statement.setString(1, uuid.toString());
-
-            try (ResultSet resultSet = statement.executeQuery()) {
-                if (resultSet.next()) return resultSet.getBoolean("has_grace");
+            Component messageComponent = Component.text("[SERVER] ")
+                    .color(NamedTextColor.GOLD)
+                    .decorate(TextDecoration.BOLD)
+                    .append(Component.text(graceOverMessage));
+
+            for (Player player : plugin.getServer().getOnlinePlayers()) {
+                player.playSound(player, Sound.ENTITY_EXPERIENCE_ORB_PICKUP, 2, 1);
             }
+            plugin.getServer().broadcast(messageComponent);
         }
-        return false;
-    }
 
-    /**
-     * Gets the player's minimum playtime status from the database
-     *
-     * @param uuid The player's UUID
-     * @return {@code true} if user has reached the minimum playtime, {@code false} otherwise
-     * @throws SQLException If a database error occurs
-     */
-    private boolean getUserHasMinimumPlaytime(UUID uuid) throws SQLException {
-        try (PreparedStatement statement = connection.prepareStatement("""
-                SELECT (has_minimum_playtime)
-                FROM players
-                WHERE uuid = ?
-                """)) {
-            statement.setString(1, uuid.toString());
-
-            try (ResultSet resultSet = statement.executeQuery()) {
-                if (resultSet.next()) return resultSet.getBoolean("has_minimum_playtime");
+        // Check user minimum playtime status
+        if (!state.hasMinimumPlaytime && totalPlaytimeInSeconds > minimumPlaytimeInSeconds) {
+            state.hasMinimumPlaytime = true;
+            storage.markMinimumPlaytimeReached(uuid).whenComplete((result, e) -> {
+                if (e != null) plugin.getLogger().log(Level.SEVERE, "Failed to check/change minimum playtime status for: " + uuid, e);
+            });
+
+            String graceOverMessage = plugin.getConfig().getString("messages.minimum-playtime-reached", "%player% has reached the minimum playtime!")
+                    .replace("%player%", playerName);
+
+            Component messageComponent = Component.text("[SERVER] ")
+                    .color(NamedTextColor.GREEN)
+                    .decorate(TextDecoration.BOLD)
+                    .append(Component.text(graceOverMessage));
+
+            for (Player player : plugin.getServer().getOnlinePlayers()) {
+                player.playSound(player, Sound.ENTITY_EXPERIENCE_ORB_PICKUP, 2, 1);
             }
+            plugin.getServer().broadcast(messageComponent);
         }
-        return false;
     }
 
     /**
-     * Updates the total playtime of a player in the database by adding the given amount of time.
+     * Start a playtime backup task that runs every 5 minutes.
+     * It adds the playtime since the previous backup to the player's total in case of a crash.
      *
-     * @param uuid        The UUID of the player
-     * @param elapsedTime The session duration to add, in seconds
-     * @throws SQLException If a database error occurs
+     * @return The BukkitTask that's started
      */
-    private void updatePlaytime(UUID uuid, long elapsedTime) throws SQLException {
-        try (PreparedStatement statement = connection.prepareStatement("""
-                UPDATE players
-                SET playtime_seconds = playtime_seconds + ?
-                WHERE uuid = ?
-                """)) {
-            statement.setLong(1, elapsedTime);
-            statement.setString(2, uuid.toString());
-            statement.executeUpdate();
-        }
-    }
+    private BukkitTask startPlaytimeBackupTask() {
+        return new BukkitRunnable() {
+            @Override
+            public void run() {
+                long now = System.currentTimeMillis();
 
-    /**
-     * Updates the grace status of a player to false.
-     *
-     * @param uuid The UUID of the player
-     * @throws SQLException If a database error occurs
-     */
-    private void disableUserGrace(UUID uuid) throws SQLException {
-        try (PreparedStatement statement = connection.prepareStatement("""
-                UPDATE players
-                SET has_grace = 0
-                WHERE uuid = ?
-                """)) {
-            statement.setString(1, uuid.toString());
-            statement.executeUpdate();
-        }
-    }
+                for (Map.Entry<UUID, PlayerState> entry : playerStates.entrySet()) {
+                    UUID uuid = entry.getKey();
+                    PlayerState state = entry.getValue();
 
-    /**
-     * Updates the minimum playtime status of a player to true.
-     *
-     * @param uuid The UUID of the player
-     * @throws SQLException If a database error occurs
-     */
-    private void setUserReachedMinimumPlaytime(UUID uuid) throws SQLException {
-        try (PreparedStatement statement = connection.prepareStatement("""
-                UPDATE players
-                SET has_minimum_playtime = 1
-                WHERE uuid = ?
-                """)) {
-            statement.setString(1, uuid.toString());
-            statement.executeUpdate();
-        }
-    }
+                    // Updating a player that isn't saved yet does nothing, so wait until the progress is loaded
+                    if (!state.isLoaded) continue;
 
-    /**
-     * Inserts a players session in the sessions table
-     *
-     * @param uuid                 The player's UUID
-     * @param elapsedTimeInSeconds The session time in seconds
-     * @throws SQLException If a database error occurs
-     */
-    private void addSessionToDatabase(UUID uuid, long elapsedTimeInSeconds) throws SQLException {
-        try (PreparedStatement statement = connection.prepareStatement("""
-                        INSERT INTO sessions (player_uuid, playtime_seconds)
-                        VALUES (?,?)
-                """)) {
-            statement.setString(1, uuid.toString());
-            statement.setLong(2, elapsedTimeInSeconds);
-            statement.execute();
-        }
+                    long unsavedSeconds = state.unsavedSeconds(now);
+                    if (unsavedSeconds <= 0) continue;
+
+                    // Only move along whole seconds, the remainder is saved with the next backup
+                    state.savedUntilMillis += unsavedSeconds * 1000;
+                    state.savedPlaytimeSeconds += unsavedSeconds;
+
+                    storage.addPlaytime(uuid, unsavedSeconds).whenComplete((result, e) -> {
+                        if (e != null)
+                            plugin.getLogger().log(Level.SEVERE, "Failed to update playtime (" + unsavedSeconds + ") for: " + uuid, e);
+                    });
+                }
+            }
+        }.runTaskTimer(plugin, 20L, 6000L); // Runs every 6000 tick (5 minutes)
     }
 }
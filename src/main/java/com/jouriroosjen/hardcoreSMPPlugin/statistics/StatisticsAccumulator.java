@@ -0,0 +1,238 @@
+package com.jouriroosjen.hardcoreSMPPlugin.statistics;
+
+import com.jouriroosjen.hardcoreSMPPlugin.enums.PlayerStatisticsEnum;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Allocation-free accumulator for pending statistic increments.
+ * <p>
+ * Every online player is assigned a slot on join. Each slot owns one row of a dense
+ * {@code slot × statistic} matrix of primitive doubles, so incrementing a statistic is a
+ * map lookup followed by a CAS on a single cell. A per-slot bitmask tracks which cells are
+ * dirty, which lets {@link #drain(DeltaConsumer)} visit only the cells that changed.
+ * </p>
+ * <p>
+ * Increments for players without a slot (offline players, or when all slots are taken)
+ * fall back to a coalescing overflow map.
+ * </p>
+ *
+ * @author Jouri Roosjen
+ * @version 1.0.0
+ */
+public class StatisticsAccumulator {
+    private static final PlayerStatisticsEnum[] STATISTICS = PlayerStatisticsEnum.values();
+    private static final int STRIDE = STATISTICS.length;
+
+    private final int capacity;
+
+    private final AtomicLongArray cells;
+    private final AtomicLongArray dirtyMasks;
+    private final AtomicReferenceArray<UUID> slotOwners;
+
+    private final Map<UUID, Integer> slots;
+    private final Map<StatisticKey, Double> overflow;
+
+    private final int[] freeSlots;
+    private int freeSlotCount;
+
+    private int[] retiringSlots;
+    private int retiringSlotCount;
+    private int[] retiredSlots;
+    private int retiredSlotCount;
+
+    static {
+        if (STRIDE > Long.SIZE)
+            throw new IllegalStateException("The dirty mask only supports up to " + Long.SIZE + " statistics!");
+    }
+
+    /**
+     * Represents a statistic key for increments that could not be placed in a slot.
+     *
+     * @param playerUuid The unique ID of the player.
+     * @param statistic  The statistic.
+     */
+    private record StatisticKey(UUID playerUuid, PlayerStatisticsEnum statistic) {
+    }
+
+    /**
+     * Receives the drained deltas.
+     */
+    @FunctionalInterface
+    public interface DeltaConsumer {
+        /**
+         * Accepts a single drained delta.
+         *
+         * @param playerUuid The unique ID of the player.
+         * @param statistic  The statistic.
+         * @param value      The accumulated value since the previous drain.
+         */
+        void accept(UUID playerUuid, PlayerStatisticsEnum statistic, double value);
+    }
+
+    /**
+     * Constructs a new {@code StatisticsAccumulator} instance.
+     *
+     * @param capacity The maximum amount of player slots.
+     */
+    public StatisticsAccumulator(int capacity) {
+        this.capacity = capacity;
+
+        this.cells = new AtomicLongArray(capacity * STRIDE);
+        this.dirtyMasks = new AtomicLongArray(capacity);
+        this.slotOwners = new AtomicReferenceArray<>(capacity);
+
+        this.slots = new ConcurrentHashMap<>();
+        this.overflow = new ConcurrentHashMap<>();
+
+        this.freeSlots = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            freeSlots[i] = capacity - 1 - i;
+        }
+        this.freeSlotCount = capacity;
+
+        this.retiringSlots = new int[capacity];
+        this.retiredSlots = new int[capacity];
+    }
+
+    /**
+     * Assigns a slot to the given player if they don't have one yet.
+     *
+     * @param playerUuid The unique ID of the player.
+     * @return {@code true} if the player has a slot, {@code false} if all slots are taken.
+     */
+    public synchronized boolean assignSlot(UUID playerUuid) {
+        if (slots.containsKey(playerUuid)) return true;
+        if (freeSlotCount == 0) return false;
+
+        int slot = freeSlots[--freeSlotCount];
+        slotOwners.set(slot, playerUuid);
+        slots.put(playerUuid, slot);
+        return true;
+    }
+
+    /**
+     * Releases the slot of the given player.
+     * The slot is only handed out again after it has been swept by two drains,
+     * so increments that raced with the release still end up on the right player.
+     *
+     * @param playerUuid The unique ID of the player.
+     */
+    public synchronized void releaseSlot(UUID playerUuid) {
+        Integer slot = slots.remove(playerUuid);
+        if (slot == null) return;
+
+        retiringSlots[retiringSlotCount++] = slot;
+    }
+
+    /**
+     * Adds the given value to a statistic of a player.
+     *
+     * @param playerUuid The unique ID of the player.
+     * @param statistic  The statistic to increment.
+     * @param value      The value to add.
+     */
+    public void add(UUID playerUuid, PlayerStatisticsEnum statistic, double value) {
+        Integer slot = slots.get(playerUuid);
+        if (slot == null) {
+            overflow.merge(new StatisticKey(playerUuid, statistic), value, Double::sum);
+            return;
+        }
+
+        int ordinal = statistic.ordinal();
+        int index = slot * STRIDE + ordinal;
+
+        long current;
+        do {
+            current = cells.get(index);
+        } while (!cells.compareAndSet(index, current, Double.doubleToRawLongBits(Double.longBitsToDouble(current) + value)));
+
+        // The dirty bit is set after the value is added, so a drain never clears a bit for a value it didn't sweep
+        long bit = 1L << ordinal;
+        long mask = dirtyMasks.get(slot);
+        while ((mask & bit) == 0 && !dirtyMasks.compareAndSet(slot, mask, mask | bit)) {
+            mask = dirtyMasks.get(slot);
+        }
+    }
+
+    /**
+     * Gets the value that has been accumulated for a statistic but not drained yet.
+     *
+     * @param playerUuid The unique ID of the player.
+     * @param statistic  The statistic.
+     * @return The pending value.
+     */
+    public double peek(UUID playerUuid, PlayerStatisticsEnum statistic) {
+        Integer slot = slots.get(playerUuid);
+        if (slot == null) {
+            Double value = overflow.get(new StatisticKey(playerUuid, statistic));
+            return value == null ? 0 : value;
+        }
+
+        return Double.longBitsToDouble(cells.get(slot * STRIDE + statistic.ordinal()));
+    }
+
+    /**
+     * Sweeps all dirty cells, resets them and hands every non-zero value to the consumer.
+     * Only one thread should drain at a time.
+     *
+     * @param consumer The consumer receiving the drained deltas.
+     */
+    public void drain(DeltaConsumer consumer) {
+        for (int slot = 0; slot < capacity; slot++) {
+            long mask = dirtyMasks.getAndSet(slot, 0L);
+            if (mask == 0L) continue;
+
+            UUID owner = slotOwners.get(slot);
+            int base = slot * STRIDE;
+
+            while (mask != 0L) {
+                int ordinal = Long.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+
+                double value = Double.longBitsToDouble(cells.getAndSet(base + ordinal, 0L));
+                if (value != 0) consumer.accept(owner, STATISTICS[ordinal], value);
+            }
+        }
+
+        if (!overflow.isEmpty()) {
+            for (StatisticKey key : overflow.keySet()) {
+                Double value = overflow.remove(key);
+                if (value != null && value != 0) consumer.accept(key.playerUuid(), key.statistic(), value);
+            }
+        }
+
+        recycleSlots();
+    }
+
+    /**
+     * Returns slots that were released before the previous drain to the free list,
+     * and moves the slots released since then one step closer to being reused.
+     */
+    private synchronized void recycleSlots() {
+        for (int i = 0; i < retiredSlotCount; i++) {
+            int slot = retiredSlots[i];
+            slotOwners.set(slot, null);
+            freeSlots[freeSlotCount++] = slot;
+        }
+
+        int[] swap = retiredSlots;
+        retiredSlots = retiringSlots;
+        retiredSlotCount = retiringSlotCount;
+        retiringSlots = swap;
+        retiringSlotCount = 0;
+    }
+
+    /**
+     * Gets the amount of players currently holding a slot.
+     *
+     * @return The amount of occupied slots.
+     */
+    public int getAssignedSlots() {
+        return slots.size();
+    }
+}
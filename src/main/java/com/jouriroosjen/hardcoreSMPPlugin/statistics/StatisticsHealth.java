@@ -0,0 +1,58 @@
+package com.jouriroosjen.hardcoreSMPPlugin.statistics;
+
+/**
+ * Point-in-time snapshot of the health of the statistics pipeline.
+ *
+ * @param queueDepth            The amount of jobs waiting in the queue.
+ * @param queueHighWaterMark    The highest queue depth seen since the last reset.
+ * @param queueCapacity         The maximum queue depth.
+ * @param processedJobs         The amount of jobs written to the database.
+ * @param droppedJobs           The amount of jobs the database rejected.
+ * @param overflowedJobs        The amount of jobs folded back into the accumulator because the queue was full.
+ * @param batches               The amount of batches written since the last reset.
+ * @param batchSizeP50          The median batch size.
+ * @param batchSizeP99          The 99th percentile batch size.
+ * @param batchSizeMax          The largest batch size.
+ * @param flushLatencyP50Millis The median time it took to write and commit a batch.
+ * @param flushLatencyP95Millis The 95th percentile time it took to write and commit a batch.
+ * @param flushLatencyP99Millis The 99th percentile time it took to write and commit a batch.
+ * @param flushLatencyMaxMillis The longest time it took to write and commit a batch.
+ * @param millisSinceLastCommit The time since the last successful commit, or {@code -1} if nothing was committed yet.
+ * @param flushIntervalMillis   The current flush interval of the writer.
+ * @author Jouri Roosjen
+ * @version 1.0.0
+ */
+public record StatisticsHealth(
+        int queueDepth,
+        int queueHighWaterMark,
+        int queueCapacity,
+        long processedJobs,
+        long droppedJobs,
+        long overflowedJobs,
+        long batches,
+        long batchSizeP50,
+        long batchSizeP99,
+        long batchSizeMax,
+        double flushLatencyP50Millis,
+        double flushLatencyP95Millis,
+        double flushLatencyP99Millis,
+        double flushLatencyMaxMillis,
+        long millisSinceLastCommit,
+        long flushIntervalMillis
+) {
+    /**
+     * Formats the snapshot as a single line for the server log.
+     *
+     * @return The formatted log line.
+     */
+    public String toLogLine() {
+        return String.format(
+                "queue=%d/%d (hwm %d), processed=%d, dropped=%d, overflowed=%d, batches=%d (p50 %d, p99 %d, max %d), "
+                        + "flush latency p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms, last commit=%s, interval=%dms",
+                queueDepth, queueCapacity, queueHighWaterMark, processedJobs, droppedJobs, overflowedJobs,
+                batches, batchSizeP50, batchSizeP99, batchSizeMax,
+                flushLatencyP50Millis, flushLatencyP95Millis, flushLatencyP99Millis, flushLatencyMaxMillis,
+                millisSinceLastCommit < 0 ? "never" : millisSinceLastCommit + "ms ago", flushIntervalMillis
+        );
+    }
+}
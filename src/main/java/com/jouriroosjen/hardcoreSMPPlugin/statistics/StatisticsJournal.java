@@ -0,0 +1,221 @@
+package com.jouriroosjen.hardcoreSMPPlugin.statistics;
+
+import com.jouriroosjen.hardcoreSMPPlugin.enums.PlayerStatisticsEnum;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped write-ahead journal for statistic deltas that haven't been committed yet.
+ * <p>
+ * Records are written straight into the page cache, so they survive a JVM crash without paying for an fsync.
+ * Every record carries a checksum that includes the journal generation. Truncating the journal only bumps
+ * the generation in the header, which invalidates all older records at once. A record is identified by its
+ * generation and its sequence within that generation, which the database stores as the watermark of the
+ * last committed record, so a replay can skip what was committed before a crash.
+ * </p>
+ * <p>
+ * Layout: a 16 byte header ({@code magic}, {@code version}, {@code generation}) followed by 32 byte records
+ * ({@code uuid msb}, {@code uuid lsb}, {@code statistic id}, {@code value}, {@code checksum}).
+ * </p>
+ *
+ * @author Jouri Roosjen
+ * @version 1.1.0
+ */
+public class StatisticsJournal implements AutoCloseable {
+    private static final int MAGIC = 0x48534A31; // "HSJ1"
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 16;
+    private static final int GENERATION_OFFSET = 8;
+    private static final int RECORD_SIZE = 32;
+    private static final int RECORD_PAYLOAD_SIZE = 28;
+
+    private static final int INITIAL_CAPACITY = HEADER_SIZE + RECORD_SIZE * 32768; // 1 MiB
+
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    private long generation;
+    private int position;
+
+    private final CRC32 crc = new CRC32();
+    private final ByteBuffer scratch = ByteBuffer.allocate(RECORD_SIZE);
+    private final ByteBuffer generationBytes = ByteBuffer.allocate(Long.BYTES);
+
+    /**
+     * Represents a delta read back from the journal.
+     *
+     * @param sequence   The sequence of the record within the current generation.
+     * @param playerUuid The unique ID of the player.
+     * @param statistic  The statistic.
+     * @param value      The delta.
+     */
+    public record Entry(int sequence, UUID playerUuid, PlayerStatisticsEnum statistic, double value) {
+    }
+
+    /**
+     * Constructs a new {@code StatisticsJournal} instance and opens, or creates, the journal file.
+     *
+     * @param file The journal file.
+     * @throws IOException If the file cannot be opened or mapped.
+     */
+    public StatisticsJournal(File file) throws IOException {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), INITIAL_CAPACITY));
+
+        if (buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION) {
+            setGeneration(buffer.getLong(GENERATION_OFFSET));
+        } else {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+
+            // A new journal never reuses the generation of a lost one, so an old watermark can't cover its records
+            setGeneration(System.currentTimeMillis());
+            buffer.putLong(GENERATION_OFFSET, generation);
+        }
+
+        this.position = HEADER_SIZE;
+    }
+
+    /**
+     * Reads all valid records of the current generation.
+     * Reading stops at the first record with an invalid checksum, which is either the end of the journal or a torn write.
+     *
+     * @return The pending entries, in the order they were appended.
+     */
+    public synchronized List<Entry> readPending() {
+        List<Entry> entries = new ArrayList<>();
+        int offset = HEADER_SIZE;
+
+        while (offset + RECORD_SIZE <= buffer.capacity()) {
+            buffer.get(offset, scratch.array(), 0, RECORD_SIZE);
+            if (scratch.getInt(RECORD_PAYLOAD_SIZE) != checksum()) break;
+
+            PlayerStatisticsEnum statistic = PlayerStatisticsEnum.fromId(scratch.getInt(16));
+            if (statistic == null) break;
+
+            UUID playerUuid = new UUID(scratch.getLong(0), scratch.getLong(8));
+            entries.add(new Entry(sequence(offset), playerUuid, statistic, scratch.getDouble(20)));
+            offset += RECORD_SIZE;
+        }
+
+        position = offset;
+        return entries;
+    }
+
+    /**
+     * Appends a delta to the journal.
+     *
+     * @param playerUuid The unique ID of the player.
+     * @param statistic  The statistic.
+     * @param value      The delta.
+     * @return The sequence of the record within the current generation.
+     * @throws IOException If the journal needs to grow and remapping fails.
+     */
+    public synchronized int append(UUID playerUuid, PlayerStatisticsEnum statistic, double value) throws IOException {
+        if (position + RECORD_SIZE > buffer.capacity()) grow();
+
+        scratch.putLong(0, playerUuid.getMostSignificantBits());
+        scratch.putLong(8, playerUuid.getLeastSignificantBits());
+        scratch.putInt(16, statistic.getId());
+        scratch.putDouble(20, value);
+        scratch.putInt(RECORD_PAYLOAD_SIZE, checksum());
+
+        buffer.put(position, scratch.array(), 0, RECORD_SIZE);
+        int sequence = sequence(position);
+        position += RECORD_SIZE;
+        return sequence;
+    }
+
+    /**
+     * Discards all records by moving on to the next generation.
+     * Should only be called once every appended delta is committed to the database.
+     */
+    public synchronized void truncate() {
+        if (position == HEADER_SIZE) return;
+
+        setGeneration(generation + 1);
+        buffer.putLong(GENERATION_OFFSET, generation);
+        position = HEADER_SIZE;
+    }
+
+    /**
+     * Gets the generation that new records are bound to.
+     *
+     * @return The current generation.
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Gets the amount of records in the journal.
+     *
+     * @return The amount of pending records.
+     */
+    public synchronized int size() {
+        return sequence(position);
+    }
+
+    /**
+     * Flushes the mapped pages to disk and closes the journal file.
+     *
+     * @throws IOException If closing the file fails.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    /**
+     * Doubles the size of the mapped region.
+     *
+     * @throws IOException If remapping fails.
+     */
+    private void grow() throws IOException {
+        buffer.force();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) buffer.capacity() * 2);
+    }
+
+    /**
+     * Gets the sequence of the record at the given offset.
+     *
+     * @param offset The offset of the record.
+     * @return The sequence of the record within its generation.
+     */
+    private static int sequence(int offset) {
+        return (offset - HEADER_SIZE) / RECORD_SIZE;
+    }
+
+    /**
+     * Sets the generation that new records are bound to.
+     *
+     * @param generation The new generation.
+     */
+    private void setGeneration(long generation) {
+        this.generation = generation;
+        generationBytes.putLong(0, generation);
+    }
+
+    /**
+     * Calculates the checksum of the record payload currently in the scratch buffer.
+     *
+     * @return The checksum, bound to the current generation.
+     */
+    private int checksum() {
+        crc.reset();
+        crc.update(generationBytes.array(), 0, Long.BYTES);
+        crc.update(scratch.array(), 0, RECORD_PAYLOAD_SIZE);
+        return (int) crc.getValue();
+    }
+}
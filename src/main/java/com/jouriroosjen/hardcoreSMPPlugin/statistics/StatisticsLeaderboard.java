@@ -0,0 +1,121 @@
+package com.jouriroosjen.hardcoreSMPPlugin.statistics;
+
+import com.jouriroosjen.hardcoreSMPPlugin.enums.PlayerStatisticsEnum;
+
+import java.util.*;
+
+/**
+ * Incrementally maintained top-N rankings for every {@link PlayerStatisticsEnum}.
+ * <p>
+ * Each statistic keeps the total of every known player in a sorted set, so applying a delta is an
+ * {@code O(log n)} remove and insert. After a batch of deltas the top entries of every changed statistic are
+ * published as an immutable snapshot, which makes reading a leaderboard a single volatile read.
+ * </p>
+ * <p>
+ * Updates must come from a single thread (the statistics writer), reads are safe from any thread.
+ * </p>
+ *
+ * @author Jouri Roosjen
+ * @version 1.0.0
+ */
+public class StatisticsLeaderboard {
+    private static final PlayerStatisticsEnum[] STATISTICS = PlayerStatisticsEnum.values();
+
+    private static final Comparator<Entry> RANKING = Comparator.comparingDouble(Entry::value).reversed()
+            .thenComparing(Entry::playerUuid);
+
+    private final int size;
+    private final Board[] boards;
+
+    /**
+     * Represents a single position on a leaderboard.
+     *
+     * @param playerUuid The unique ID of the player.
+     * @param value      The total value of the statistic.
+     */
+    public record Entry(UUID playerUuid, double value) {
+    }
+
+    /**
+     * The ranking of a single statistic.
+     */
+    private static final class Board {
+        private final Map<UUID, Entry> entries = new HashMap<>();
+        private final NavigableSet<Entry> ranking = new TreeSet<>(RANKING);
+        private volatile List<Entry> top = List.of();
+        private boolean dirty;
+    }
+
+    /**
+     * Constructs a new {@code StatisticsLeaderboard} instance.
+     *
+     * @param size The amount of positions published per statistic.
+     */
+    public StatisticsLeaderboard(int size) {
+        this.size = size;
+        this.boards = new Board[STATISTICS.length];
+
+        for (int i = 0; i < boards.length; i++) {
+            boards[i] = new Board();
+        }
+    }
+
+    /**
+     * Sets the total of a statistic for a player, replacing any previous total.
+     *
+     * @param playerUuid The unique ID of the player.
+     * @param statistic  The statistic.
+     * @param value      The new total.
+     */
+    public void set(UUID playerUuid, PlayerStatisticsEnum statistic, double value) {
+        Board board = boards[statistic.ordinal()];
+
+        Entry previous = board.entries.get(playerUuid);
+        if (previous != null) board.ranking.remove(previous);
+
+        Entry entry = new Entry(playerUuid, value);
+        board.entries.put(playerUuid, entry);
+        board.ranking.add(entry);
+        board.dirty = true;
+    }
+
+    /**
+     * Adds a delta to the total of a statistic for a player.
+     *
+     * @param playerUuid The unique ID of the player.
+     * @param statistic  The statistic.
+     * @param delta      The value to add.
+     */
+    public void add(UUID playerUuid, PlayerStatisticsEnum statistic, double delta) {
+        Entry previous = boards[statistic.ordinal()].entries.get(playerUuid);
+        set(playerUuid, statistic, previous == null ? delta : previous.value() + delta);
+    }
+
+    /**
+     * Publishes a new snapshot for every statistic that changed since the last call.
+     */
+    public void publish() {
+        for (Board board : boards) {
+            if (!board.dirty) continue;
+
+            List<Entry> top = new ArrayList<>(Math.min(size, board.ranking.size()));
+            for (Entry entry : board.ranking) {
+                if (top.size() == size) break;
+                top.add(entry);
+            }
+
+            board.top = Collections.unmodifiableList(top);
+            board.dirty = false;
+        }
+    }
+
+    /**
+     * Gets the last published top entries of a statistic, highest first.
+     *
+     * @param statistic The statistic.
+     * @return An unmodifiable list of at most {@code size} entries.
+     */
+    public List<Entry> getTop(PlayerStatisticsEnum statistic) {
+        return boards[statistic.ordinal()].top;
+    }
+}
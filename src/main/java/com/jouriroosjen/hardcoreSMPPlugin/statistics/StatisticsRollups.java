@@ -0,0 +1,240 @@
+package com.jouriroosjen.hardcoreSMPPlugin.statistics;
+
+import com.jouriroosjen.hardcoreSMPPlugin.database.DatabaseExecutor;
+import com.jouriroosjen.hardcoreSMPPlugin.enums.PlayerStatisticsEnum;
+import com.jouriroosjen.hardcoreSMPPlugin.enums.RollupGranularityEnum;
+import com.jouriroosjen.hardcoreSMPPlugin.storage.StatisticDelta;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Time-bucketed statistic totals, kept next to the lifetime totals in {@code player_statistics}.
+ * <p>
+ * Every flushed delta is added to the hourly bucket it was flushed in. Hourly buckets older than the hourly
+ * retention are periodically folded into daily buckets, and daily buckets older than the daily retention are
+ * dropped. A time-window query therefore reads at most {@code retention hours + window days} rows per player.
+ * The methods run inside a database task, which is owned by the caller.
+ * </p>
+ *
+ * @author Jouri Roosjen
+ * @version 1.2.0
+ */
+public class StatisticsRollups {
+    private final DatabaseExecutor databaseExecutor;
+
+    private static final String UPSERT_ROLLUP_SQL = """
+            INSERT INTO player_statistic_rollups (player_uuid, statistic_type, granularity, bucket_start, value)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (player_uuid, statistic_type, granularity, bucket_start)
+            DO UPDATE SET value = value + excluded.value
+            """;
+
+    private static final String ROLL_UP_SQL = """
+            INSERT INTO player_statistic_rollups (player_uuid, statistic_type, granularity, bucket_start, value)
+            SELECT player_uuid, statistic_type, ?, bucket_start - (bucket_start % ?) AS day_start, SUM(value)
+            FROM player_statistic_rollups
+            WHERE granularity = ? AND bucket_start < ?
+            GROUP BY player_uuid, statistic_type, day_start
+            ON CONFLICT (player_uuid, statistic_type, granularity, bucket_start)
+            DO UPDATE SET value = value + excluded.value
+            """;
+
+    private static final String DELETE_BUCKETS_SQL = """
+            DELETE FROM player_statistic_rollups
+            WHERE granularity = ? AND bucket_start < ?
+            """;
+
+    private static final String SUM_SINCE_SQL = """
+            SELECT COALESCE(SUM(value), 0) AS total
+            FROM (
+                SELECT value FROM player_statistic_rollups
+                WHERE player_uuid = ? AND statistic_type = ? AND granularity = ? AND bucket_start >= ?
+                UNION ALL
+                SELECT value FROM player_statistic_rollups
+                WHERE player_uuid = ? AND statistic_type = ? AND granularity = ? AND bucket_start >= ?
+            )
+            """;
+
+    private static final String TOP_SINCE_SQL = """
+            SELECT player_uuid, SUM(value) AS total
+            FROM (
+                SELECT player_uuid, value FROM player_statistic_rollups
+                WHERE statistic_type = ? AND granularity = ? AND bucket_start >= ?
+                UNION ALL
+                SELECT player_uuid, value FROM player_statistic_rollups
+                WHERE statistic_type = ? AND granularity = ? AND bucket_start >= ?
+            )
+            GROUP BY player_uuid
+            ORDER BY total DESC
+            LIMIT ?
+            """;
+
+    /**
+     * Constructs a new {@code StatisticsRollups} instance.
+     *
+     * @param databaseExecutor The database executor that owns the connection.
+     */
+    public StatisticsRollups(DatabaseExecutor databaseExecutor) {
+        this.databaseExecutor = databaseExecutor;
+    }
+
+    /**
+     * Adds all deltas to the hourly bucket of the given timestamp with a single batched statement.
+     *
+     * @param connection  The writer connection of the running database task.
+     * @param deltas      The deltas to add.
+     * @param epochMillis The moment the deltas are attributed to.
+     * @throws SQLException If a database error occurs.
+     */
+    public void upsertBatch(Connection connection, List<StatisticDelta> deltas, long epochMillis) throws SQLException {
+        PreparedStatement statement = databaseExecutor.prepare(connection, UPSERT_ROLLUP_SQL);
+
+        try {
+            for (StatisticDelta delta : deltas) {
+                bind(statement, delta, epochMillis);
+                statement.addBatch();
+            }
+
+            statement.executeBatch();
+        } finally {
+            // The statement is cached, a failed batch must not be left behind for the next flush
+            statement.clearBatch();
+        }
+    }
+
+    /**
+     * Adds a single delta to the hourly bucket of the given timestamp.
+     *
+     * @param connection  The writer connection of the running database task.
+     * @param delta       The delta to add.
+     * @param epochMillis The moment the delta is attributed to.
+     * @throws SQLException If a database error occurs.
+     */
+    public void upsert(Connection connection, StatisticDelta delta, long epochMillis) throws SQLException {
+        PreparedStatement statement = databaseExecutor.prepare(connection, UPSERT_ROLLUP_SQL);
+        bind(statement, delta, epochMillis);
+        statement.executeUpdate();
+    }
+
+    /**
+     * Folds hourly buckets before the cutoff into daily buckets and drops expired daily buckets.
+     * The caller runs it in a transaction, and only passes whole days so a daily bucket never overlaps an hourly bucket that is still kept.
+     *
+     * @param connection         The writer connection of the running database task.
+     * @param hourlyCutoffMillis Hourly buckets before this moment are folded, it must be the start of a day.
+     * @param dailyCutoffMillis  Daily buckets before this moment are dropped, {@code 0} keeps them all.
+     * @return The amount of hourly buckets that were folded.
+     * @throws SQLException If a database error occurs.
+     */
+    public int compact(Connection connection, long hourlyCutoffMillis, long dailyCutoffMillis) throws SQLException {
+        PreparedStatement statement = databaseExecutor.prepare(connection, ROLL_UP_SQL);
+        statement.setInt(1, RollupGranularityEnum.DAILY.getId());
+        statement.setLong(2, RollupGranularityEnum.DAILY.getBucketMillis());
+        statement.setInt(3, RollupGranularityEnum.HOURLY.getId());
+        statement.setLong(4, hourlyCutoffMillis);
+        statement.executeUpdate();
+
+        int folded = deleteBuckets(connection, RollupGranularityEnum.HOURLY, hourlyCutoffMillis);
+        if (dailyCutoffMillis > 0)
+            deleteBuckets(connection, RollupGranularityEnum.DAILY, dailyCutoffMillis);
+
+        return folded;
+    }
+
+    /**
+     * Sums a statistic of a player over all buckets since the given moment.
+     * The window is rounded down to whole hours, or to whole days once the hours are folded.
+     *
+     * @param connection  The connection of the running database task.
+     * @param playerUuid  The unique ID of the player.
+     * @param statistic   The statistic.
+     * @param sinceMillis The start of the window in epoch milliseconds.
+     * @return The total of the statistic within the window.
+     * @throws SQLException If a database error occurs.
+     */
+    public double sumSince(Connection connection, UUID playerUuid, PlayerStatisticsEnum statistic, long sinceMillis) throws SQLException {
+        PreparedStatement statement = databaseExecutor.prepare(connection, SUM_SINCE_SQL);
+        int index = 1;
+        for (RollupGranularityEnum granularity : RollupGranularityEnum.values()) {
+            statement.setString(index++, playerUuid.toString());
+            statement.setInt(index++, statistic.getId());
+            statement.setInt(index++, granularity.getId());
+            statement.setLong(index++, granularity.bucketStart(sinceMillis));
+        }
+
+        try (ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() ? resultSet.getDouble("total") : 0.0;
+        }
+    }
+
+    /**
+     * Ranks all players on a statistic over all buckets since the given moment.
+     * The window is rounded down to whole hours, or to whole days once the hours are folded.
+     *
+     * @param connection  The connection of the running database task.
+     * @param statistic   The statistic.
+     * @param sinceMillis The start of the window in epoch milliseconds.
+     * @param limit       The maximum amount of entries.
+     * @return The top entries, highest first.
+     * @throws SQLException If a database error occurs.
+     */
+    public List<StatisticsLeaderboard.Entry> topSince(Connection connection, PlayerStatisticsEnum statistic, long sinceMillis, int limit) throws SQLException {
+        List<StatisticsLeaderboard.Entry> entries = new ArrayList<>();
+
+        PreparedStatement statement = databaseExecutor.prepare(connection, TOP_SINCE_SQL);
+        int index = 1;
+        for (RollupGranularityEnum granularity : RollupGranularityEnum.values()) {
+            statement.setInt(index++, statistic.getId());
+            statement.setInt(index++, granularity.getId());
+            statement.setLong(index++, granularity.bucketStart(sinceMillis));
+        }
+        statement.setInt(index, limit);
+
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                UUID playerUuid = UUID.fromString(resultSet.getString("player_uuid"));
+                entries.add(new StatisticsLeaderboard.Entry(playerUuid, resultSet.getDouble("total")));
+            }
+        }
+
+        return entries;
+    }
+
+    /**
+     * Binds a delta to the upsert statement, in the hourly bucket of the given timestamp.
+     *
+     * @param statement   The prepared upsert statement.
+     * @param delta       The delta to bind.
+     * @param epochMillis The moment the delta is attributed to.
+     * @throws SQLException If a database error occurs.
+     */
+    private void bind(PreparedStatement statement, StatisticDelta delta, long epochMillis) throws SQLException {
+        statement.setString(1, delta.playerUuid().toString());
+        statement.setInt(2, delta.statistic().getId());
+        statement.setInt(3, RollupGranularityEnum.HOURLY.getId());
+        statement.setLong(4, RollupGranularityEnum.HOURLY.bucketStart(epochMillis));
+        statement.setDouble(5, delta.value());
+    }
+
+    /**
+     * Deletes all buckets of a granularity that start before the cutoff.
+     *
+     * @param connection   The connection of the running database task.
+     * @param granularity  The granularity of the buckets.
+     * @param cutoffMillis The cutoff in epoch milliseconds.
+     * @return The amount of deleted buckets.
+     * @throws SQLException If a database error occurs.
+     */
+    private int deleteBuckets(Connection connection, RollupGranularityEnum granularity, long cutoffMillis) throws SQLException {
+        PreparedStatement statement = databaseExecutor.prepare(connection, DELETE_BUCKETS_SQL);
+        statement.setInt(1, granularity.getId());
+        statement.setLong(2, cutoffMillis);
+        return statement.executeUpdate();
+    }
+}
@@ -0,0 +1,57 @@
+package com.jouriroosjen.hardcoreSMPPlugin.storage;
+
+import org.bukkit.configuration.file.FileConfiguration;
+
+/**
+ * The configured buyback prices, shared by every storage so they price buybacks the same way.
+ *
+ * @param normalDeath      The price of a buyback after a normal death
+ * @param gracePeriodDeath The price of a buyback after a death during the grace period
+ * @author Jouri Roosjen
+ * @version 1.0.0
+ */
+public record BuybackPrices(int normalDeath, int gracePeriodDeath) {
+    /**
+     * Reads the prices from the {@code piggy-bank-amounts} config section.
+     *
+     * @param config The plugin config
+     * @return The configured prices
+     */
+    public static BuybackPrices fromConfig(FileConfiguration config) {
+        return new BuybackPrices(
+                config.getInt("piggy-bank-amounts.normal-death", 10),
+                config.getInt("piggy-bank-amounts.grace-period-death", 5)
+        );
+    }
+
+    /**
+     * Gets the buyback price for a player.
+     *
+     * @param hasGrace Whether the player died during their grace period
+     * @return The buyback price
+     */
+    public int priceFor(boolean hasGrace) {
+        return hasGrace ? gracePeriodDeath : normalDeath;
+    }
+
+    /**
+     * Gets the most others can assist with, which is half of the buyback price.
+     *
+     * @param buybackPrice The price of the buyback
+     * @return The maximum total of all assists
+     */
+    public static double maxAssistedAmount(int buybackPrice) {
+        return buybackPrice / 2.0;
+    }
+
+    /**
+     * Calculate the amount to assist based on the percentage.
+     *
+     * @param assistPercentage The percentage to assist the buyback with.
+     * @param buybackPrice     The price of the buyback
+     * @return The amount that is being assisted.
+     */
+    public static double calculateAssistAmount(int assistPercentage, int buybackPrice) {
+        return buybackPrice * (assistPercentage / 100.0);
+    }
+}
@@ -0,0 +1,13 @@
+package com.jouriroosjen.hardcoreSMPPlugin.storage;
+
+/**
+ * The buyback state of a player.
+ *
+ * @param isDead         Whether the player is dead
+ * @param price          The price of the buyback
+ * @param assistedAmount The amount others have already assisted with
+ * @author Jouri Roosjen
+ * @version 1.0.0
+ */
+public record BuybackQuote(boolean isDead, int price, double assistedAmount) {
+}
@@ -0,0 +1,488 @@
+package com.jouriroosjen.hardcoreSMPPlugin.storage;
+
+import com.jouriroosjen.hardcoreSMPPlugin.enums.PlayerStatisticsEnum;
+import com.jouriroosjen.hardcoreSMPPlugin.enums.RollupGranularityEnum;
+import com.jouriroosjen.hardcoreSMPPlugin.statistics.StatisticsLeaderboard;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A {@link Storage} that only keeps everything in memory, so nothing survives a restart.
+ * <p>
+ * Meant for load tests and benchmarks, where it takes the disk out of the measurement. It behaves like the
+ * SQLite storage: the same defaults for new players, the same buyback rules and the same rollup buckets.
+ * Every call runs inline on the calling thread and returns an already completed future.
+ * </p>
+ *
+ * @author Jouri Roosjen
+ * @version 1.3.0
+ */
+public class InMemoryStorage implements Storage {
+    private final JavaPlugin plugin;
+    private final ReentrantReadWriteLock lock;
+
+    // Guarded by the lock
+    private final Map<UUID, PlayerRow> players;
+    private final List<Death> deaths;
+    private final Map<Long, List<Assist>> assistsByDeath;
+    private final Map<UUID, Double> piggyBankByPlayer;
+    private final List<Session> sessions;
+    private final List<Penalty> penalties;
+    private final Map<RollupKey, Double> rollups;
+    private long nextDeathId;
+    private double piggyBankTotal;
+    private UUID latestAssistGiver;
+    private JournalWatermark journalWatermark;
+
+    private static final int STATISTIC_COUNT = PlayerStatisticsEnum.values().length;
+
+    /**
+     * A saved player, with the same defaults as a new row in the {@code players} table.
+     */
+    private static final class PlayerRow {
+        private final String username;
+        private long playtimeSeconds;
+        private boolean isAlive = true;
+        private boolean hasGrace = true;
+        private boolean hasMinimumPlaytime;
+        private double[] statistics;
+
+        private PlayerRow(String username) {
+            this.username = username;
+        }
+    }
+
+    private record Death(long id, UUID playerUuid, String cause, long createdAtMillis) {
+    }
+
+    private record Assist(UUID givingPlayer, UUID receivingPlayer, double amount, long createdAtMillis) {
+    }
+
+    private record Session(UUID playerUuid, long seconds, long createdAtMillis) {
+    }
+
+    private record Penalty(UUID playerUuid, double amount, String reason, long createdAtMillis) {
+    }
+
+    private record RollupKey(UUID playerUuid, PlayerStatisticsEnum statistic, RollupGranularityEnum granularity, long bucketStart) {
+    }
+
+    /**
+     * A storage call, run while holding the lock.
+     *
+     * @param <T> The type of the result
+     */
+    @FunctionalInterface
+    private interface StorageTask<T> {
+        T execute() throws SQLException;
+    }
+
+    /**
+     * Constructs a new {@code InMemoryStorage} instance.
+     *
+     * @param plugin The main plugin instance, used for the buyback prices and logging
+     */
+    public InMemoryStorage(JavaPlugin plugin) {
+        this.plugin = plugin;
+        this.lock = new ReentrantReadWriteLock();
+
+        this.players = new HashMap<>();
+        this.deaths = new ArrayList<>();
+        this.assistsByDeath = new HashMap<>();
+        this.piggyBankByPlayer = new HashMap<>();
+        this.sessions = new ArrayList<>();
+        this.penalties = new ArrayList<>();
+        this.rollups = new HashMap<>();
+        this.nextDeathId = 1;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> savePlayer(UUID playerUuid, String username) {
+        return write(() -> players.putIfAbsent(playerUuid, new PlayerRow(username)) == null);
+    }
+
+    @Override
+    public CompletableFuture<PlayerProgress> getProgress(UUID playerUuid) {
+        return read(() -> {
+            PlayerRow player = players.get(playerUuid);
+            if (player == null) return PlayerProgress.UNKNOWN;
+
+            return new PlayerProgress(player.playtimeSeconds, player.hasGrace, player.hasMinimumPlaytime);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> addPlaytime(UUID playerUuid, long seconds) {
+        return write(() -> {
+            PlayerRow player = players.get(playerUuid);
+            if (player != null) player.playtimeSeconds += seconds;
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> revokeGrace(UUID playerUuid) {
+        return write(() -> {
+            PlayerRow player = players.get(playerUuid);
+            if (player != null) player.hasGrace = false;
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> markMinimumPlaytimeReached(UUID playerUuid) {
+        return write(() -> {
+            PlayerRow player = players.get(playerUuid);
+            if (player != null) player.hasMinimumPlaytime = true;
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> closeSession(UUID playerUuid, long seconds, long unsavedSeconds) {
+        return write(() -> {
+            PlayerRow player = requirePlayer(playerUuid);
+            player.playtimeSeconds += unsavedSeconds;
+            sessions.add(new Session(playerUuid, seconds, System.currentTimeMillis()));
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> recordDeath(UUID playerUuid, String cause) {
+        return write(() -> {
+            PlayerRow player = requirePlayer(playerUuid);
+            deaths.add(new Death(nextDeathId++, playerUuid, cause, System.currentTimeMillis()));
+            player.isAlive = false;
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Optional<UUID>> findLatestDeath() {
+        return read(() -> deaths.isEmpty() ? Optional.empty() : Optional.of(deaths.getLast().playerUuid()));
+    }
+
+    @Override
+    public CompletableFuture<Double> getTotalDebt(UUID playerUuid) {
+        return read(() -> piggyBankByPlayer.getOrDefault(playerUuid, 0.0));
+    }
+
+    @Override
+    public CompletableFuture<Double> getPiggyBankTotal() {
+        return read(() -> piggyBankTotal);
+    }
+
+    @Override
+    public CompletableFuture<BuybackQuote> quoteBuyback(UUID playerUuid) {
+        BuybackPrices prices = BuybackPrices.fromConfig(plugin.getConfig());
+
+        return read(() -> {
+            PlayerRow player = players.get(playerUuid);
+            if (player == null || player.isAlive) return new BuybackQuote(false, 0, 0);
+
+            Death death = findLatestDeath(playerUuid);
+            double assistedAmount = death != null ? getAssistedAmount(death) : 0;
+
+            return new BuybackQuote(true, prices.priceFor(player.hasGrace), assistedAmount);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> settleBuyback(UUID playerUuid) {
+        BuybackPrices prices = BuybackPrices.fromConfig(plugin.getConfig());
+
+        return write(() -> {
+            PlayerRow player = requirePlayer(playerUuid);
+            if (player.isAlive) return false;
+
+            int buybackPrice = prices.priceFor(player.hasGrace);
+            double totalAssistedAmount = 0;
+
+            Death death = findLatestDeath(playerUuid);
+            if (death != null) {
+                for (Assist assist : assistsByDeath.getOrDefault(death.id(), List.of())) {
+                    creditPiggyBank(assist.givingPlayer(), assist.amount());
+                    totalAssistedAmount += assist.amount();
+                }
+            }
+
+            // Let the player pay remaining amount
+            creditPiggyBank(playerUuid, buybackPrice - totalAssistedAmount);
+            player.isAlive = true;
+            return true;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> assistBuyback(UUID sender, UUID target, int percentage) {
+        BuybackPrices prices = BuybackPrices.fromConfig(plugin.getConfig());
+
+        return write(() -> {
+            Death death = findLatestDeath(target);
+            if (death == null) throw new SQLException("No death found for player: " + target);
+            requirePlayer(sender);
+
+            int buybackPrice = prices.priceFor(players.get(target).hasGrace);
+            double assistAmount = BuybackPrices.calculateAssistAmount(percentage, buybackPrice);
+
+            double availableAmount = BuybackPrices.maxAssistedAmount(buybackPrice) - getAssistedAmount(death);
+            if (availableAmount < assistAmount) return false;
+
+            assistsByDeath.computeIfAbsent(death.id(), ignored -> new ArrayList<>())
+                    .add(new Assist(sender, target, assistAmount, System.currentTimeMillis()));
+            latestAssistGiver = sender;
+            return true;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Optional<UUID>> findLatestAssist() {
+        return read(() -> Optional.ofNullable(latestAssistGiver));
+    }
+
+    @Override
+    public CompletableFuture<Void> createPenalty(UUID playerUuid, double amount, String reason) {
+        return write(() -> {
+            requirePlayer(playerUuid);
+            penalties.add(new Penalty(playerUuid, amount, reason, System.currentTimeMillis()));
+            creditPiggyBank(playerUuid, amount);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<double[]> loadStatistics(UUID playerUuid) {
+        return read(() -> {
+            PlayerRow player = players.get(playerUuid);
+            if (player == null || player.statistics == null) return new double[STATISTIC_COUNT];
+
+            return player.statistics.clone();
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, double[]>> loadAllStatistics() {
+        return read(() -> {
+            Map<UUID, double[]> values = new HashMap<>();
+            for (Map.Entry<UUID, PlayerRow> entry : players.entrySet()) {
+                if (entry.getValue().statistics != null) values.put(entry.getKey(), entry.getValue().statistics.clone());
+            }
+            return values;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Optional<JournalWatermark>> loadJournalWatermark() {
+        return read(() -> Optional.ofNullable(journalWatermark));
+    }
+
+    @Override
+    public CompletableFuture<Void> writeStatistics(List<StatisticDelta> deltas, long nowMillis, JournalWatermark watermark) {
+        return write(() -> {
+            // Check every player first, so a rejected batch leaves nothing behind
+            for (StatisticDelta delta : deltas) {
+                requirePlayer(delta.playerUuid());
+            }
+
+            for (StatisticDelta delta : deltas) {
+                applyStatistic(delta, nowMillis);
+            }
+
+            if (watermark != null) journalWatermark = watermark;
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Integer> writeStatisticsIndividually(List<StatisticDelta> deltas, long nowMillis, JournalWatermark watermark) {
+        return write(() -> {
+            int rejected = 0;
+
+            for (StatisticDelta delta : deltas) {
+                if (!players.containsKey(delta.playerUuid())) {
+                    plugin.getLogger().warning("Failed to process statistic job: " + delta + " - Unknown player: " + delta.playerUuid());
+                    rejected++;
+                    continue;
+                }
+
+                applyStatistic(delta, nowMillis);
+            }
+
+            if (watermark != null) journalWatermark = watermark;
+            return rejected;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Double> sumStatisticSince(UUID playerUuid, PlayerStatisticsEnum statistic, long sinceMillis) {
+        return read(() -> {
+            double total = 0;
+            for (Map.Entry<RollupKey, Double> entry : rollups.entrySet()) {
+                RollupKey key = entry.getKey();
+                if (key.playerUuid().equals(playerUuid) && key.statistic() == statistic
+                        && key.bucketStart() >= key.granularity().bucketStart(sinceMillis))
+                    total += entry.getValue();
+            }
+            return total;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<StatisticsLeaderboard.Entry>> topStatisticSince(PlayerStatisticsEnum statistic, long sinceMillis, int limit) {
+        return read(() -> {
+            Map<UUID, Double> totals = new HashMap<>();
+            for (Map.Entry<RollupKey, Double> entry : rollups.entrySet()) {
+                RollupKey key = entry.getKey();
+                if (key.statistic() == statistic && key.bucketStart() >= key.granularity().bucketStart(sinceMillis))
+                    totals.merge(key.playerUuid(), entry.getValue(), Double::sum);
+            }
+
+            return totals.entrySet().stream()
+                    .sorted(Map.Entry.<UUID, Double>comparingByValue().reversed())
+                    .limit(limit)
+                    .map(entry -> new StatisticsLeaderboard.Entry(entry.getKey(), entry.getValue()))
+                    .toList();
+        });
+    }
+
+    @Override
+    public CompletableFuture<Integer> compactStatisticRollups(long hourlyCutoffMillis, long dailyCutoffMillis) {
+        return write(() -> {
+            int folded = 0;
+
+            Iterator<Map.Entry<RollupKey, Double>> iterator = rollups.entrySet().iterator();
+            Map<RollupKey, Double> foldedDays = new HashMap<>();
+            while (iterator.hasNext()) {
+                Map.Entry<RollupKey, Double> entry = iterator.next();
+                RollupKey key = entry.getKey();
+
+                if (key.granularity() == RollupGranularityEnum.HOURLY && key.bucketStart() < hourlyCutoffMillis) {
+                    RollupKey day = new RollupKey(key.playerUuid(), key.statistic(), RollupGranularityEnum.DAILY,
+                            RollupGranularityEnum.DAILY.bucketStart(key.bucketStart()));
+                    foldedDays.merge(day, entry.getValue(), Double::sum);
+                    iterator.remove();
+                    folded++;
+                }
+            }
+            foldedDays.forEach((day, value) -> rollups.merge(day, value, Double::sum));
+
+            if (dailyCutoffMillis > 0)
+                rollups.keySet().removeIf(key -> key.granularity() == RollupGranularityEnum.DAILY && key.bucketStart() < dailyCutoffMillis);
+
+            return folded;
+        });
+    }
+
+    /**
+     * Adds a delta to the lifetime total of a player and to its hourly rollup.
+     * Must be called while holding the write lock, for a player that exists.
+     *
+     * @param delta     The delta to add
+     * @param nowMillis The moment the delta is attributed to
+     */
+    private void applyStatistic(StatisticDelta delta, long nowMillis) {
+        PlayerRow player = players.get(delta.playerUuid());
+        if (player.statistics == null) player.statistics = new double[STATISTIC_COUNT];
+        player.statistics[delta.statistic().ordinal()] += delta.value();
+
+        RollupKey key = new RollupKey(delta.playerUuid(), delta.statistic(), RollupGranularityEnum.HOURLY,
+                RollupGranularityEnum.HOURLY.bucketStart(nowMillis));
+        rollups.merge(key, delta.value(), Double::sum);
+    }
+
+    /**
+     * Adds an amount to the piggy bank on behalf of a player.
+     * Must be called while holding the write lock, for a player that exists.
+     *
+     * @param playerUuid The player that has credited this amount
+     * @param amount     The amount to be added to the bank
+     * @throws SQLException If the player was never saved
+     */
+    private void creditPiggyBank(UUID playerUuid, double amount) throws SQLException {
+        requirePlayer(playerUuid);
+        piggyBankByPlayer.merge(playerUuid, amount, Double::sum);
+        piggyBankTotal += amount;
+    }
+
+    /**
+     * Finds the last death of a player.
+     *
+     * @param playerUuid The UUID of the player
+     * @return The last death, {@code null} if the player never died
+     */
+    private Death findLatestDeath(UUID playerUuid) {
+        for (int i = deaths.size() - 1; i >= 0; i--) {
+            if (deaths.get(i).playerUuid().equals(playerUuid)) return deaths.get(i);
+        }
+        return null;
+    }
+
+    /**
+     * Gets the total amount that was assisted with for a death.
+     *
+     * @param death The death
+     * @return The total assisted amount
+     */
+    private double getAssistedAmount(Death death) {
+        double assistedAmount = 0;
+        for (Assist assist : assistsByDeath.getOrDefault(death.id(), List.of())) {
+            assistedAmount += assist.amount();
+        }
+        return assistedAmount;
+    }
+
+    /**
+     * Gets a saved player, rejecting the call the same way a foreign key would.
+     *
+     * @param playerUuid The UUID of the player
+     * @return The saved player
+     * @throws SQLException If the player was never saved
+     */
+    private PlayerRow requirePlayer(UUID playerUuid) throws SQLException {
+        PlayerRow player = players.get(playerUuid);
+        if (player == null) throw new SQLException("Unknown player: " + playerUuid);
+
+        return player;
+    }
+
+    /**
+     * Runs a call under the read lock.
+     *
+     * @param task The call to run
+     * @param <T>  The type of the result
+     * @return A completed future with the result, or the failure of the call
+     */
+    private <T> CompletableFuture<T> read(StorageTask<T> task) {
+        lock.readLock().lock();
+        try {
+            return CompletableFuture.completedFuture(task.execute());
+        } catch (SQLException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a call under the write lock.
+     *
+     * @param task The call to run
+     * @param <T>  The type of the result
+     * @return A completed future with the result, or the failure of the call
+     */
+    private <T> CompletableFuture<T> write(StorageTask<T> task) {
+        lock.writeLock().lock();
+        try {
+            return CompletableFuture.completedFuture(task.execute());
+        } catch (SQLException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
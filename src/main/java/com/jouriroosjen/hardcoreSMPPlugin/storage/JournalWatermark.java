@@ -0,0 +1,22 @@
+package com.jouriroosjen.hardcoreSMPPlugin.storage;
+
+/**
+ * The last statistics journal record whose delta is committed, stored in the same transaction as the delta.
+ *
+ * @param generation The generation of the journal the record belongs to
+ * @param sequence   The sequence of the record within its generation
+ * @author Jouri Roosjen
+ * @version 1.0.0
+ */
+public record JournalWatermark(long generation, int sequence) {
+    /**
+     * Checks whether a journal record is committed already.
+     *
+     * @param generation The generation of the record
+     * @param sequence   The sequence of the record within its generation
+     * @return {@code true} if the record is at or below the watermark
+     */
+    public boolean covers(long generation, int sequence) {
+        return this.generation == generation && sequence <= this.sequence;
+    }
+}
@@ -0,0 +1,17 @@
+package com.jouriroosjen.hardcoreSMPPlugin.storage;
+
+/**
+ * The stored playtime and playtime milestones of a player.
+ *
+ * @param playtimeSeconds    The total playtime of all finished and backed up sessions, in seconds
+ * @param hasGrace           Whether the player is still in their grace period
+ * @param hasMinimumPlaytime Whether the player reached the minimum playtime
+ * @author Jouri Roosjen
+ * @version 1.0.0
+ */
+public record PlayerProgress(long playtimeSeconds, boolean hasGrace, boolean hasMinimumPlaytime) {
+    /**
+     * The progress of a player that was never saved.
+     */
+    public static final PlayerProgress UNKNOWN = new PlayerProgress(0, false, false);
+}
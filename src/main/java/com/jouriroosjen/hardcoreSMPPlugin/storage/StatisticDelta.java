@@ -0,0 +1,17 @@
+package com.jouriroosjen.hardcoreSMPPlugin.storage;
+
+import com.jouriroosjen.hardcoreSMPPlugin.enums.PlayerStatisticsEnum;
+
+import java.util.UUID;
+
+/**
+ * An amount to add to a statistic of a player.
+ *
+ * @param playerUuid The unique ID of the player this delta belongs to.
+ * @param statistic  The statistic that should be updated.
+ * @param value      The value to update the statistic with.
+ * @author Jouri Roosjen
+ * @version 1.0.0
+ */
+public record StatisticDelta(UUID playerUuid, PlayerStatisticsEnum statistic, double value) {
+}
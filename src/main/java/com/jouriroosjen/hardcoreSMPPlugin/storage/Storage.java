@@ -0,0 +1,254 @@
+package com.jouriroosjen.hardcoreSMPPlugin.storage;
+
+import com.jouriroosjen.hardcoreSMPPlugin.enums.PlayerStatisticsEnum;
+import com.jouriroosjen.hardcoreSMPPlugin.statistics.StatisticsLeaderboard;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Everything the plugin reads and writes, independent of where it's stored.
+ * <p>
+ * Every method can be called from any thread and returns a {@link CompletableFuture}. Methods that change more
+ * than one thing do so atomically, a failure never leaves them applied halfway. Failures complete the future
+ * exceptionally, usually with an {@link SQLException}. Anything recorded for a player that was never saved is
+ * rejected, updating such a player does nothing.
+ * </p>
+ *
+ * @author Jouri Roosjen
+ * @version 1.3.0
+ */
+public interface Storage {
+    /**
+     * Saves a player, unless they're already saved.
+     *
+     * @param playerUuid The UUID of the player
+     * @param username   The player's in-game name
+     * @return A future that completes with {@code true} if the player was saved just now
+     */
+    CompletableFuture<Boolean> savePlayer(UUID playerUuid, String username);
+
+    /**
+     * Gets the stored playtime and the playtime milestones of a player.
+     * Includes every write submitted before the call, so a quick rejoin never loads a stale state.
+     *
+     * @param playerUuid The UUID of the player
+     * @return A future that completes with the progress, all zero for unknown players
+     */
+    CompletableFuture<PlayerProgress> getProgress(UUID playerUuid);
+
+    /**
+     * Adds playtime to the total of a player.
+     *
+     * @param playerUuid The UUID of the player
+     * @param seconds    The playtime to add, in seconds
+     * @return A future that completes once the playtime is added
+     */
+    CompletableFuture<Void> addPlaytime(UUID playerUuid, long seconds);
+
+    /**
+     * Ends the grace period of a player.
+     *
+     * @param playerUuid The UUID of the player
+     * @return A future that completes once the grace is revoked
+     */
+    CompletableFuture<Void> revokeGrace(UUID playerUuid);
+
+    /**
+     * Marks that a player reached the minimum playtime.
+     *
+     * @param playerUuid The UUID of the player
+     * @return A future that completes once the player is marked
+     */
+    CompletableFuture<Void> markMinimumPlaytimeReached(UUID playerUuid);
+
+    /**
+     * Records a finished session and adds the part of its playtime that wasn't saved yet to the total of the player,
+     * atomically.
+     *
+     * @param playerUuid     The UUID of the player
+     * @param seconds        The length of the session, in seconds
+     * @param unsavedSeconds The playtime of the session that wasn't added with {@link #addPlaytime} yet, in seconds
+     * @return A future that completes once the session is recorded
+     */
+    CompletableFuture<Void> closeSession(UUID playerUuid, long seconds, long unsavedSeconds);
+
+    /**
+     * Records a death and marks the player as dead, atomically.
+     *
+     * @param playerUuid The UUID of the player that died
+     * @param cause      The cause of the death
+     * @return A future that completes once the death is recorded
+     */
+    CompletableFuture<Void> recordDeath(UUID playerUuid, String cause);
+
+    /**
+     * Finds the player that died last.
+     *
+     * @return A future that completes with the player, empty if nobody died yet
+     */
+    CompletableFuture<Optional<UUID>> findLatestDeath();
+
+    /**
+     * Gets the total debt of a player.
+     *
+     * @param playerUuid The UUID of the player
+     * @return A future that completes with the total debt, {@code 0} for unknown players
+     */
+    CompletableFuture<Double> getTotalDebt(UUID playerUuid);
+
+    /**
+     * Gets the total amount in the piggy bank.
+     *
+     * @return A future that completes with the total amount
+     */
+    CompletableFuture<Double> getPiggyBankTotal();
+
+    /**
+     * Gets the buyback state of a player.
+     *
+     * @param playerUuid The UUID of the player to be revived
+     * @return A future that completes with the buyback quote
+     */
+    CompletableFuture<BuybackQuote> quoteBuyback(UUID playerUuid);
+
+    /**
+     * Settles the buyback of a player and marks them alive, atomically, if they're still dead.
+     * All assists of their last death are credited to the piggy bank and the player pays the remaining amount.
+     *
+     * @param playerUuid The UUID of the player to be revived
+     * @return A future that completes with {@code true} if the buyback was settled, {@code false} if the player wasn't dead
+     */
+    CompletableFuture<Boolean> settleBuyback(UUID playerUuid);
+
+    /**
+     * Adds an assist to the buyback of a player, if that much is still available.
+     * At most half of the buyback price can be assisted with.
+     *
+     * @param sender     The UUID of the giving player
+     * @param target     The UUID of the player to be revived
+     * @param percentage The percentage of the buyback price to assist with
+     * @return A future that completes with {@code true} if the assist was added, {@code false} if not enough was left
+     */
+    CompletableFuture<Boolean> assistBuyback(UUID sender, UUID target, int percentage);
+
+    /**
+     * Finds the player that gave the last assist.
+     *
+     * @return A future that completes with the player, empty if nobody assisted yet
+     */
+    CompletableFuture<Optional<UUID>> findLatestAssist();
+
+    /**
+     * Records a penalty and credits its amount to the player's piggy bank, atomically.
+     *
+     * @param playerUuid The UUID of the player receiving the penalty
+     * @param amount     The amount of the penalty
+     * @param reason     The reason for the penalty
+     * @return A future that completes once the penalty is saved
+     */
+    CompletableFuture<Void> createPenalty(UUID playerUuid, double amount, String reason);
+
+    /**
+     * Loads the lifetime statistics of a player.
+     *
+     * @param playerUuid The UUID of the player
+     * @return A future that completes with the values, indexed by statistic ordinal
+     */
+    CompletableFuture<double[]> loadStatistics(UUID playerUuid);
+
+    /**
+     * Loads the lifetime statistics of all players.
+     *
+     * @return A future that completes with the values of every player, indexed by statistic ordinal
+     */
+    CompletableFuture<Map<UUID, double[]>> loadAllStatistics();
+
+    /**
+     * Loads the last statistics journal record whose delta is committed.
+     *
+     * @return A future that completes with the watermark, empty if no journaled delta was ever committed
+     */
+    CompletableFuture<Optional<JournalWatermark>> loadJournalWatermark();
+
+    /**
+     * Adds deltas to the lifetime statistics and to the hourly rollups, and moves the journal watermark along, atomically.
+     * A single rejected delta rejects the whole batch.
+     *
+     * @param deltas    The deltas to add
+     * @param nowMillis The moment the deltas are attributed to
+     * @param watermark The last journal record of the deltas, {@code null} if none of them are journaled
+     * @return A future that completes once every delta is added
+     */
+    CompletableFuture<Void> writeStatistics(List<StatisticDelta> deltas, long nowMillis, JournalWatermark watermark);
+
+    /**
+     * Adds deltas to the lifetime statistics and to the hourly rollups one by one, skipping the deltas that are rejected,
+     * and moves the journal watermark along, atomically.
+     *
+     * @param deltas    The deltas to add
+     * @param nowMillis The moment the deltas are attributed to
+     * @param watermark The last journal record of the deltas, {@code null} if none of them are journaled
+     * @return A future that completes with the amount of rejected deltas
+     */
+    CompletableFuture<Integer> writeStatisticsIndividually(List<StatisticDelta> deltas, long nowMillis, JournalWatermark watermark);
+
+    /**
+     * Sums a statistic of a player over all rollups since the given moment.
+     * The window is rounded down to whole hours, or to whole days once the hours are folded.
+     *
+     * @param playerUuid  The UUID of the player
+     * @param statistic   The statistic
+     * @param sinceMillis The start of the window in epoch milliseconds
+     * @return A future that completes with the total within the window
+     */
+    CompletableFuture<Double> sumStatisticSince(UUID playerUuid, PlayerStatisticsEnum statistic, long sinceMillis);
+
+    /**
+     * Ranks all players on a statistic over all rollups since the given moment.
+     *
+     * @param statistic   The statistic
+     * @param sinceMillis The start of the window in epoch milliseconds
+     * @param limit       The maximum amount of entries
+     * @return A future that completes with the top entries, highest first
+     */
+    CompletableFuture<List<StatisticsLeaderboard.Entry>> topStatisticSince(PlayerStatisticsEnum statistic, long sinceMillis, int limit);
+
+    /**
+     * Folds hourly rollups into daily rollups and drops expired daily rollups, atomically.
+     *
+     * @param hourlyCutoffMillis Hourly rollups before this moment are folded, it must be the start of a day
+     * @param dailyCutoffMillis  Daily rollups before this moment are dropped, {@code 0} keeps them all
+     * @return A future that completes with the amount of folded hourly rollups
+     */
+    CompletableFuture<Integer> compactStatisticRollups(long hourlyCutoffMillis, long dailyCutoffMillis);
+
+    /**
+     * Waits for the future of a storage call and unwraps its failure.
+     * Blocks the calling thread, so don't use it on the server thread unless the result is needed right away.
+     *
+     * @param future The future to wait for
+     * @param <T>    The type of the result
+     * @return The result of the call
+     * @throws SQLException If the call failed or waiting was interrupted
+     */
+    default <T> T await(CompletableFuture<T> future) throws SQLException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the storage!", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException) throw sqlException;
+            if (cause instanceof RuntimeException runtimeException) throw runtimeException;
+            if (cause instanceof Error error) throw error;
+            throw new SQLException(cause);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.jouriroosjen.hardcoreSMPPlugin.utils;
+
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Executor that runs tasks on the server thread, so async pipelines can hop back to send messages
+ * and change game state. Tasks submitted from the server thread itself run immediately.
+ *
+ * @author Jouri Roosjen
+ * @version 1.0.0
+ */
+public class MainThreadExecutor implements Executor {
+    private final JavaPlugin plugin;
+
+    /**
+     * Constructs a new {@code MainThreadExecutor} instance.
+     *
+     * @param plugin The main plugin instance
+     */
+    public MainThreadExecutor(JavaPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Runs the task on the server thread.
+     *
+     * @param task The task to run
+     */
+    @Override
+    public void execute(@NotNull Runnable task) {
+        if (plugin.getServer().isPrimaryThread()) {
+            task.run();
+            return;
+        }
+
+        // The scheduler refuses tasks once the plugin is disabled, there's no game state left to change then
+        if (plugin.isEnabled()) plugin.getServer().getScheduler().runTask(plugin, task);
+    }
+}
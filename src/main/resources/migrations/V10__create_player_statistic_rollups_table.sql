@@ -0,0 +1,13 @@
+CREATE TABLE IF NOT EXISTS player_statistic_rollups
+(
+    player_uuid    TEXT    NOT NULL,
+    statistic_type INTEGER NOT NULL,
+    granularity    INTEGER NOT NULL,
+    bucket_start   INTEGER NOT NULL,
+    value          REAL    NOT NULL,
+
+    FOREIGN KEY (player_uuid) REFERENCES players (uuid) ON DELETE CASCADE,
+    FOREIGN KEY (statistic_type) REFERENCES statistic_types (id) ON DELETE CASCADE,
+
+    PRIMARY KEY (player_uuid, statistic_type, granularity, bucket_start)
+) WITHOUT ROWID;
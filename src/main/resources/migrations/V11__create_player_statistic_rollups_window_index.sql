@@ -0,0 +1,2 @@
+CREATE INDEX IF NOT EXISTS idx_player_statistic_rollups_window
+    ON player_statistic_rollups (statistic_type, granularity, bucket_start);
@@ -0,0 +1,2 @@
+CREATE INDEX IF NOT EXISTS idx_deaths_player_created
+    ON deaths (player_uuid, created_at);
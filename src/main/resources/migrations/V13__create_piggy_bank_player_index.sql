@@ -0,0 +1,2 @@
+CREATE INDEX IF NOT EXISTS idx_piggy_bank_player_amount
+    ON piggy_bank (player_uuid, amount);
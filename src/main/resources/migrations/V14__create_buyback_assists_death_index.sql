@@ -0,0 +1,2 @@
+CREATE INDEX IF NOT EXISTS idx_buyback_assists_death
+    ON buyback_assists (receiving_player_death_id, giving_player_uuid, amount);
@@ -0,0 +1,2 @@
+CREATE INDEX IF NOT EXISTS idx_sessions_player_created
+    ON sessions (player_uuid, created_at);
@@ -0,0 +1,2 @@
+CREATE INDEX IF NOT EXISTS idx_penalties_player
+    ON penalties (player_uuid);
@@ -0,0 +1,2 @@
+ALTER TABLE deaths
+    ADD COLUMN created_at_ms INTEGER DEFAULT 0 NOT NULL;
@@ -0,0 +1,2 @@
+UPDATE deaths
+SET created_at_ms = COALESCE(unixepoch(created_at) * 1000, 0);
@@ -0,0 +1,2 @@
+ALTER TABLE buyback_assists
+    ADD COLUMN created_at_ms INTEGER DEFAULT 0 NOT NULL;
@@ -0,0 +1,2 @@
+UPDATE buyback_assists
+SET created_at_ms = COALESCE(unixepoch(created_at) * 1000, 0);
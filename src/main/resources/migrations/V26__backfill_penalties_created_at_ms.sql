@@ -0,0 +1,2 @@
+UPDATE penalties
+SET created_at_ms = COALESCE(unixepoch(created_at) * 1000, 0);
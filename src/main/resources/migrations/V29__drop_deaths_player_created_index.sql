@@ -0,0 +1 @@
+DROP INDEX IF EXISTS idx_deaths_player_created;
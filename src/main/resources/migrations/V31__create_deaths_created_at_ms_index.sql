@@ -0,0 +1,2 @@
+CREATE INDEX IF NOT EXISTS idx_deaths_created_at_ms
+    ON deaths (created_at_ms);
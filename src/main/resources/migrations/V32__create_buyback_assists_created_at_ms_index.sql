@@ -0,0 +1,2 @@
+CREATE INDEX IF NOT EXISTS idx_buyback_assists_created_at_ms
+    ON buyback_assists (created_at_ms);
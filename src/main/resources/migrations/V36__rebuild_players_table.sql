@@ -0,0 +1,22 @@
+CREATE TABLE IF NOT EXISTS players_new
+(
+    id                   INTEGER PRIMARY KEY                                      NOT NULL,
+    uuid                 TEXT                                                     NOT NULL UNIQUE,
+    username             TEXT                                                     NOT NULL,
+    is_alive             INTEGER DEFAULT 1 CHECK (is_alive IN (0, 1))             NOT NULL,
+    has_grace            INTEGER DEFAULT 1 CHECK (has_grace IN (0, 1))            NOT NULL,
+    has_minimum_playtime INTEGER DEFAULT 0 CHECK (has_minimum_playtime IN (0, 1)) NOT NULL,
+    playtime_seconds     INTEGER DEFAULT 0                                        NOT NULL,
+    created_at           TEXT    DEFAULT (datetime('now'))                        NOT NULL,
+    updated_at           TEXT    DEFAULT (datetime('now'))                        NOT NULL,
+    created_at_ms        INTEGER DEFAULT 0                                        NOT NULL
+);
+
+INSERT INTO players_new (uuid, username, is_alive, has_grace, has_minimum_playtime, playtime_seconds, created_at, updated_at, created_at_ms)
+SELECT uuid, username, is_alive, has_grace, has_minimum_playtime, playtime_seconds, created_at, updated_at, created_at_ms
+FROM players
+ORDER BY created_at_ms, rowid;
+
+DROP TABLE players;
+
+ALTER TABLE players_new RENAME TO players;
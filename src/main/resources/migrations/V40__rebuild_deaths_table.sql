@@ -0,0 +1,25 @@
+CREATE TABLE IF NOT EXISTS deaths_new
+(
+    id            INTEGER PRIMARY KEY               NOT NULL,
+    player_id     INTEGER                           NOT NULL,
+    cause         TEXT                              NOT NULL,
+    created_at    TEXT    DEFAULT (datetime('now')) NOT NULL,
+    created_at_ms INTEGER DEFAULT 0                 NOT NULL,
+
+    FOREIGN KEY (player_id) REFERENCES players (id) ON DELETE CASCADE
+);
+
+INSERT INTO deaths_new (id, player_id, cause, created_at, created_at_ms)
+SELECT t.id, p.id, t.cause, t.created_at, t.created_at_ms
+FROM deaths t
+JOIN players p ON p.uuid = t.player_uuid;
+
+DROP TABLE deaths;
+
+ALTER TABLE deaths_new RENAME TO deaths;
+
+CREATE INDEX IF NOT EXISTS idx_deaths_player_created_at_ms
+    ON deaths (player_id, created_at_ms);
+
+CREATE INDEX IF NOT EXISTS idx_deaths_created_at_ms
+    ON deaths (created_at_ms);
@@ -0,0 +1,24 @@
+CREATE TABLE IF NOT EXISTS piggy_bank_new
+(
+    id            INTEGER PRIMARY KEY                            NOT NULL,
+    player_id     INTEGER                                        NOT NULL,
+    amount        REAL                                           NOT NULL,
+    is_assist     INTEGER DEFAULT 0 CHECK (is_assist IN (0, 1))  NOT NULL,
+    is_penalty    INTEGER DEFAULT 0 CHECK (is_penalty IN (0, 1)) NOT NULL,
+    created_at    TEXT    DEFAULT (datetime('now'))              NOT NULL,
+    created_at_ms INTEGER DEFAULT 0                              NOT NULL,
+
+    FOREIGN KEY (player_id) REFERENCES players (id) ON DELETE CASCADE
+);
+
+INSERT INTO piggy_bank_new (id, player_id, amount, is_assist, is_penalty, created_at, created_at_ms)
+SELECT t.id, p.id, t.amount, t.is_assist, t.is_penalty, t.created_at, t.created_at_ms
+FROM piggy_bank t
+JOIN players p ON p.uuid = t.player_uuid;
+
+DROP TABLE piggy_bank;
+
+ALTER TABLE piggy_bank_new RENAME TO piggy_bank;
+
+CREATE INDEX IF NOT EXISTS idx_piggy_bank_player_amount
+    ON piggy_bank (player_id, amount);
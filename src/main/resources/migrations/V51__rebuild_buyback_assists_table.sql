@@ -0,0 +1,31 @@
+CREATE TABLE IF NOT EXISTS buyback_assists_new
+(
+    id                        INTEGER PRIMARY KEY               NOT NULL,
+    giving_player_id          INTEGER                           NOT NULL,
+    receiving_player_id       INTEGER                           NOT NULL,
+    receiving_player_death_id INTEGER                           NOT NULL,
+    amount                    REAL                              NOT NULL,
+    created_at                TEXT    DEFAULT (datetime('now')) NOT NULL,
+    updated_at                TEXT    DEFAULT (datetime('now')) NOT NULL,
+    created_at_ms             INTEGER DEFAULT 0                 NOT NULL,
+
+    FOREIGN KEY (giving_player_id) REFERENCES players (id) ON DELETE CASCADE,
+    FOREIGN KEY (receiving_player_id) REFERENCES players (id) ON DELETE CASCADE,
+    FOREIGN KEY (receiving_player_death_id) REFERENCES deaths (id) ON DELETE CASCADE
+);
+
+INSERT INTO buyback_assists_new (id, giving_player_id, receiving_player_id, receiving_player_death_id, amount, created_at, updated_at, created_at_ms)
+SELECT t.id, giving.id, receiving.id, t.receiving_player_death_id, t.amount, t.created_at, t.updated_at, t.created_at_ms
+FROM buyback_assists t
+JOIN players giving ON giving.uuid = t.giving_player_uuid
+JOIN players receiving ON receiving.uuid = t.receiving_player_uuid;
+
+DROP TABLE buyback_assists;
+
+ALTER TABLE buyback_assists_new RENAME TO buyback_assists;
+
+CREATE INDEX IF NOT EXISTS idx_buyback_assists_death
+    ON buyback_assists (receiving_player_death_id, giving_player_id, amount);
+
+CREATE INDEX IF NOT EXISTS idx_buyback_assists_created_at_ms
+    ON buyback_assists (created_at_ms);
@@ -0,0 +1,23 @@
+CREATE TABLE IF NOT EXISTS penalties_new
+(
+    id            INTEGER PRIMARY KEY               NOT NULL,
+    player_id     INTEGER                           NOT NULL,
+    reason        TEXT                              NOT NULL,
+    amount        REAL                              NOT NULL,
+    created_at    TEXT    DEFAULT (datetime('now')) NOT NULL,
+    created_at_ms INTEGER DEFAULT 0                 NOT NULL,
+
+    FOREIGN KEY (player_id) REFERENCES players (id) ON DELETE CASCADE
+);
+
+INSERT INTO penalties_new (id, player_id, reason, amount, created_at, created_at_ms)
+SELECT t.id, p.id, t.reason, t.amount, t.created_at, t.created_at_ms
+FROM penalties t
+JOIN players p ON p.uuid = t.player_uuid;
+
+DROP TABLE penalties;
+
+ALTER TABLE penalties_new RENAME TO penalties;
+
+CREATE INDEX IF NOT EXISTS idx_penalties_player
+    ON penalties (player_id);
@@ -0,0 +1,22 @@
+CREATE TABLE IF NOT EXISTS sessions_new
+(
+    id               INTEGER PRIMARY KEY               NOT NULL,
+    player_id        INTEGER                           NOT NULL,
+    playtime_seconds INTEGER DEFAULT 0                 NOT NULL,
+    created_at       TEXT    DEFAULT (datetime('now')) NOT NULL,
+    created_at_ms    INTEGER DEFAULT 0                 NOT NULL,
+
+    FOREIGN KEY (player_id) REFERENCES players (id) ON DELETE CASCADE
+);
+
+INSERT INTO sessions_new (id, player_id, playtime_seconds, created_at, created_at_ms)
+SELECT t.id, p.id, t.playtime_seconds, t.created_at, t.created_at_ms
+FROM sessions t
+JOIN players p ON p.uuid = t.player_uuid;
+
+DROP TABLE sessions;
+
+ALTER TABLE sessions_new RENAME TO sessions;
+
+CREATE INDEX IF NOT EXISTS idx_sessions_player_created_at_ms
+    ON sessions (player_id, created_at_ms);
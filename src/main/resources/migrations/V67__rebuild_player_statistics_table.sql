@@ -0,0 +1,23 @@
+CREATE TABLE IF NOT EXISTS player_statistics_new
+(
+    id             INTEGER PRIMARY KEY            NOT NULL,
+    player_id      INTEGER                        NOT NULL,
+    statistic_type INTEGER                        NOT NULL,
+    value          REAL                           NOT NULL,
+    created_at     TEXT DEFAULT (datetime('now')) NOT NULL,
+    updated_at     TEXT DEFAULT (datetime('now')) NOT NULL,
+
+    FOREIGN KEY (player_id) REFERENCES players (id) ON DELETE CASCADE,
+    FOREIGN KEY (statistic_type) REFERENCES statistic_types (id) ON DELETE CASCADE,
+
+    UNIQUE (player_id, statistic_type)
+);
+
+INSERT INTO player_statistics_new (id, player_id, statistic_type, value, created_at, updated_at)
+SELECT t.id, p.id, t.statistic_type, t.value, t.created_at, t.updated_at
+FROM player_statistics t
+JOIN players p ON p.uuid = t.player_uuid;
+
+DROP TABLE player_statistics;
+
+ALTER TABLE player_statistics_new RENAME TO player_statistics;
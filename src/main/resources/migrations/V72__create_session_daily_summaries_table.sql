@@ -0,0 +1,11 @@
+CREATE TABLE IF NOT EXISTS session_daily_summaries
+(
+    player_id        INTEGER NOT NULL,
+    day_start_ms     INTEGER NOT NULL,
+    session_count    INTEGER NOT NULL,
+    playtime_seconds INTEGER NOT NULL,
+
+    FOREIGN KEY (player_id) REFERENCES players (id) ON DELETE CASCADE,
+
+    PRIMARY KEY (player_id, day_start_ms)
+) WITHOUT ROWID;
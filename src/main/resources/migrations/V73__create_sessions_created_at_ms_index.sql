@@ -0,0 +1,2 @@
+CREATE INDEX IF NOT EXISTS idx_sessions_created_at_ms
+    ON sessions (created_at_ms);
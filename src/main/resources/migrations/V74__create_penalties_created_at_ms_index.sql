@@ -0,0 +1,2 @@
+CREATE INDEX IF NOT EXISTS idx_penalties_created_at_ms
+    ON penalties (created_at_ms);
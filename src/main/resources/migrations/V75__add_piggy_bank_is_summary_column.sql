@@ -0,0 +1,2 @@
+ALTER TABLE piggy_bank
+    ADD COLUMN is_summary INTEGER DEFAULT 0 CHECK (is_summary IN (0, 1)) NOT NULL;
@@ -0,0 +1,3 @@
+CREATE UNIQUE INDEX IF NOT EXISTS idx_piggy_bank_summary
+    ON piggy_bank (player_id, is_assist, is_penalty)
+    WHERE is_summary = 1;
@@ -0,0 +1,3 @@
+CREATE INDEX IF NOT EXISTS idx_piggy_bank_created_at_ms
+    ON piggy_bank (created_at_ms)
+    WHERE is_summary = 0;
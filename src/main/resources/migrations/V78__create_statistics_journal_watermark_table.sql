@@ -0,0 +1,6 @@
+CREATE TABLE IF NOT EXISTS statistics_journal_watermark
+(
+    id         INTEGER PRIMARY KEY CHECK (id = 1) NOT NULL,
+    generation INTEGER                            NOT NULL,
+    sequence   INTEGER                            NOT NULL
+);